@@ -6,11 +6,17 @@ import uapi.app.internal.AppServiceLoader;
 import uapi.app.internal.SystemStartingUpEvent;
 import uapi.common.CollectionHelper;
 import uapi.event.IEventBus;
+import uapi.log.ILogger;
 import uapi.rx.Looper;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.ServiceLoader;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Use to load service and activate system services
@@ -43,19 +49,29 @@ public abstract class SystemBootstrap {
      */
     public void boot() throws AppException {
         long startTime = System.currentTimeMillis();
+        long phaseTime = Timeline.ENABLED ? System.nanoTime() : 0L;
 
-        Iterable<IModulePortal> modulePortals = appSvcLoader.load(IModulePortal.class);
-        List<IService> services = new ArrayList<>();
-        Looper.on(modulePortals).foreach(modulePortal -> {
-            if (modulePortal instanceof IServiceModulePortal) {
-                Looper.on(((IServiceModulePortal) modulePortal).loadService()).foreach(services::add);
-            } else {
+        // The portals are discovered on current thread, the services of each module are loaded in parallel
+        var svcPortals = new ArrayList<IServiceModulePortal>();
+        Looper.on(appSvcLoader.load(IModulePortal.class)).foreach(modulePortal -> {
+            if (! (modulePortal instanceof IServiceModulePortal)) {
                 throw AppException.builder()
                         .errorCode(AppErrors.UNSUPPORTED_MODULE_PORTAL)
                         .variables(new AppErrors.UnsupportedModulePortal().portal(modulePortal))
                         .build();
             }
+            svcPortals.add((IServiceModulePortal) modulePortal);
         });
+        var moduleSvcs = loadModules(svcPortals);
+
+        // Combine the services by the order of the portals, so the result is same as loading them one by one
+        List<IService> services = new ArrayList<>();
+        final var appSvcDescs = new ArrayList<ServiceDescriptor>();
+        Looper.on(moduleSvcs).foreach(moduleSvc -> {
+            services.addAll(moduleSvc._services);
+            appSvcDescs.addAll(moduleSvc._appSvcDescs);
+        });
+        phaseTime = recordBootPhase("load-services", phaseTime);
 
 //        Iterable<IService> svcLoaders = appSvcLoader.loadServices();
         final var svcRegistries = new ArrayList<IRegistry>();
@@ -105,20 +121,119 @@ public abstract class SystemBootstrap {
                     .build();
         }
         this._registry = svcRegistry;
+        phaseTime = recordBootPhase("register-system-services", phaseTime);
 
         loadConfig(svcRegistry);
+        phaseTime = recordBootPhase("load-config", phaseTime);
 
         // All base service must be activated
         Looper.on(sysSvcTags).foreach(svcRegistry::activateTaggedService);
+        phaseTime = recordBootPhase("activate-system-services", phaseTime);
+        reportModules(svcRegistry, moduleSvcs);
 
         beforeSystemLaunching(svcRegistry, appSvcs);
 
         // Send system starting up event
-        SystemStartingUpEvent sysLaunchedEvent = new SystemStartingUpEvent(startTime, appSvcs);
+        SystemStartingUpEvent sysLaunchedEvent = new SystemStartingUpEvent(startTime, appSvcs, appSvcDescs);
         var eventBus = svcRegistry.findService(IEventBus.class);
         eventBus.fire(sysLaunchedEvent);
 
         afterSystemLaunching(svcRegistry, appSvcs);
+        recordBootPhase("launch-application", phaseTime);
+
+        if (Timeline.ENABLED) {
+            reportTimeline(svcRegistry);
+        }
+    }
+
+    /**
+     * Load services of each module in parallel, only system services are created at boot time, application
+     * services are pruned by the profile and created when they are activated.
+     * The result is in the order of the portals.
+     */
+    private static List<ModuleServices> loadModules(final List<IServiceModulePortal> svcPortals) {
+        if (svcPortals.size() <= 1) {
+            return Looper.on(svcPortals).map(SystemBootstrap::loadModule).toList();
+        }
+        var poolSize = Math.min(svcPortals.size(), Runtime.getRuntime().availableProcessors());
+        var executor = ActivationExecutors.newPlatformExecutor("module-loader", poolSize);
+        try {
+            var futures = Looper.on(svcPortals)
+                    .map(svcPortal -> CompletableFuture.supplyAsync(() -> loadModule(svcPortal), executor))
+                    .toList();
+            var moduleSvcs = new ArrayList<ModuleServices>(futures.size());
+            for (var future : futures) {
+                try {
+                    moduleSvcs.add(future.join());
+                } catch (CompletionException ex) {
+                    if (ex.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) ex.getCause();
+                    }
+                    throw ex;
+                }
+            }
+            return moduleSvcs;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static ModuleServices loadModule(final IServiceModulePortal svcPortal) {
+        long startTime = System.nanoTime();
+        var moduleName = svcPortal.moduleName();
+        if (moduleName == null) {
+            moduleName = svcPortal.getClass().getName();
+        }
+        var services = new ArrayList<IService>();
+        var appSvcDescs = new ArrayList<ServiceDescriptor>();
+        var svcDescs = svcPortal.serviceDescriptors();
+        if (svcDescs != null) {
+            Looper.on(svcDescs).foreach(svcDesc -> {
+                if (CollectionHelper.contains(svcDesc.getTags(), sysSvcTags) != null) {
+                    services.add(svcDesc.newService());
+                } else {
+                    appSvcDescs.add(svcDesc);
+                }
+            });
+        } else {
+            Looper.on(svcPortal.loadService()).foreach(services::add);
+        }
+        return new ModuleServices(moduleName, services, appSvcDescs, System.nanoTime() - startTime);
+    }
+
+    private static void reportModules(final IRegistry registry, final List<ModuleServices> moduleSvcs) {
+        ILogger logger = registry.findService(ILogger.class);
+        if (logger == null) {
+            return;
+        }
+        Looper.on(moduleSvcs).foreach(moduleSvc -> logger.info(
+                "Loaded module {} with {} services and {} deferred services in {}ms",
+                moduleSvc._moduleName, moduleSvc._services.size(), moduleSvc._appSvcDescs.size(),
+                TimeUnit.NANOSECONDS.toMillis(moduleSvc._loadTime)));
+    }
+
+    private static long recordBootPhase(final String phase, final long startTime) {
+        if (! Timeline.ENABLED) {
+            return 0L;
+        }
+        var endTime = System.nanoTime();
+        Timeline.STARTUP.record(phase, Timeline.PHASE_BOOT, startTime, endTime);
+        return endTime;
+    }
+
+    /**
+     * Write startup timeline to the file which is specified by uapi.timeline.output and log the critical path
+     */
+    private void reportTimeline(final IRegistry registry) {
+        ILogger logger = registry.findService(ILogger.class);
+        var output = Paths.get(System.getProperty(Timeline.PROP_OUTPUT, Timeline.DEFAULT_OUTPUT));
+        try {
+            Timeline.STARTUP.writeChromeTrace(output);
+            logger.info("The startup timeline was written to {}", output.toAbsolutePath());
+        } catch (IOException ex) {
+            logger.error(ex, "Write startup timeline to {} failed", output);
+        }
+        logger.info(Timeline.STARTUP.summary());
     }
 
     protected abstract void loadConfig(IRegistry registry);
@@ -126,4 +241,27 @@ public abstract class SystemBootstrap {
     protected abstract void beforeSystemLaunching(IRegistry registry, List<IService> appServices);
 
     protected abstract void afterSystemLaunching(IRegistry registry, List<IService> appServices);
+
+    /**
+     * The services which are loaded from a module
+     */
+    private static final class ModuleServices {
+
+        private final String _moduleName;
+        private final List<IService> _services;
+        // The descriptors of application services which are created when they are activated
+        private final List<ServiceDescriptor> _appSvcDescs;
+        private final long _loadTime;
+
+        private ModuleServices(
+                final String moduleName,
+                final List<IService> services,
+                final List<ServiceDescriptor> appSvcDescs,
+                final long loadTime
+        ) {
+            this._moduleName = moduleName;
+            this._services = services;
+                this._loadTime = loadTime;
+        }
+    }
 }
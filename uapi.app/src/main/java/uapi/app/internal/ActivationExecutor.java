@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.app.internal;
+
+import uapi.common.IntervalTime;
+import uapi.common.StringHelper;
+import uapi.config.annotation.Config;
+import uapi.log.ILogger;
+import uapi.service.ActivationExecutors;
+import uapi.service.IActivationExecutor;
+import uapi.service.Tags;
+import uapi.service.annotation.Inject;
+import uapi.service.annotation.OnDeactivate;
+import uapi.service.annotation.Service;
+import uapi.service.annotation.Tag;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Activation executor which is configured by configuration:
+ * registry.activation.executor - platform or virtual, default is platform
+ * registry.activation.pool-size - max thread count of platform executor
+ * registry.activation.timeout - default timeout of activating and deactivating service
+ * registry.activation.timeouts - timeout for specific service, keyed by service id
+ */
+@Service(IActivationExecutor.class)
+@Tag(Tags.REGISTRY)
+public class ActivationExecutor implements IActivationExecutor {
+
+    static final String MODE_PLATFORM   = "platform";
+    static final String MODE_VIRTUAL    = "virtual";
+
+    private static final String THREAD_NAME = "service-activation";
+
+    @Config(path="registry.activation.executor", optional=true)
+    protected String _mode;
+
+    @Config(path="registry.activation.pool-size", optional=true)
+    protected Integer _poolSize;
+
+    @Config(path="registry.activation.timeout", optional=true)
+    protected IntervalTime _timeout;
+
+    @Config(path="registry.activation.timeouts", parser=ActivationTimeoutsParser.class, optional=true)
+    protected Map<String, IntervalTime> _timeouts;
+
+    @Inject
+    protected ILogger _logger;
+
+    // The executor and the configuration which it is built by, it is read without lock by each activation
+    private volatile ConfiguredExecutor _executor;
+
+    @Override
+    public Executor executor() {
+        var executor = this._executor;
+        if (executor != null && executor.isBuiltBy(this._mode, this._poolSize)) {
+            return executor._executor;
+        }
+        return rebuildExecutor();
+    }
+
+    /**
+     * The configuration may be changed at runtime, so rebuild the executor when it is changed and shutdown
+     * the replaced one
+     */
+    private synchronized Executor rebuildExecutor() {
+        var oldExecutor = this._executor;
+        var mode = this._mode;
+        var poolSize = this._poolSize;
+        if (oldExecutor != null && oldExecutor.isBuiltBy(mode, poolSize)) {
+            return oldExecutor._executor;
+        }
+        this._executor = new ConfiguredExecutor(mode, poolSize, createExecutor(mode, poolSize));
+        if (oldExecutor != null) {
+            oldExecutor._executor.shutdown();
+        }
+        return this._executor._executor;
+    }
+
+    @Override
+    public IntervalTime activationTimeout(final String serviceId) {
+        return timeout(serviceId);
+    }
+
+    @Override
+    public IntervalTime deactivationTimeout(final String serviceId) {
+        return timeout(serviceId);
+    }
+
+    @OnDeactivate
+    public synchronized void destroy() {
+        if (this._executor != null) {
+            this._executor._executor.shutdown();
+            this._executor = null;
+        }
+    }
+
+    private IntervalTime timeout(final String serviceId) {
+        var timeouts = this._timeouts;
+        if (timeouts != null && serviceId != null) {
+            var timeout = timeouts.get(serviceId);
+            if (timeout != null) {
+                return timeout;
+            }
+        }
+        return this._timeout;
+    }
+
+    private ExecutorService createExecutor(final String mode, final Integer poolSize) {
+        int size = poolSize == null || poolSize < 1 ? Runtime.getRuntime().availableProcessors() : poolSize;
+        if (MODE_VIRTUAL.equalsIgnoreCase(mode)) {
+            if (! ActivationExecutors.isVirtualThreadSupported()) {
+                this._logger.warn(
+                        "Virtual thread is not supported, using platform executor with {} threads instead", size);
+            }
+            return ActivationExecutors.newVirtualExecutor(THREAD_NAME, size);
+        }
+        if (! StringHelper.isNullOrEmpty(mode) && ! MODE_PLATFORM.equalsIgnoreCase(mode)) {
+            this._logger.warn("Unsupported activation executor {}, using platform executor instead", mode);
+        }
+        return ActivationExecutors.newPlatformExecutor(THREAD_NAME, size);
+    }
+
+    private static final class ConfiguredExecutor {
+
+        private final String _mode;
+        private final Integer _poolSize;
+        private final ExecutorService _executor;
+
+        private ConfiguredExecutor(
+                final String mode,
+                final Integer poolSize,
+                final ExecutorService executor
+        ) {
+            this._mode = mode;
+            this._poolSize = poolSize;
+            this._executor = executor;
+        }
+
+        private boolean isBuiltBy(final String mode, final Integer poolSize) {
+            return Objects.equals(this._mode, mode) && Objects.equals(this._poolSize, poolSize);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.app.internal;
+
+import uapi.common.ArgumentChecker;
+import uapi.common.CollectionHelper;
+import uapi.common.IntervalTime;
+import uapi.config.IConfigValueParser;
+import uapi.service.Tags;
+import uapi.service.annotation.Service;
+import uapi.service.annotation.Tag;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parse service activation timeout configuration which maps service id to interval time string
+ */
+@Service(IConfigValueParser.class)
+@Tag(Tags.REGISTRY)
+public class ActivationTimeoutsParser implements IConfigValueParser {
+
+    private static final String[] supportedTypesIn = new String[] {
+            Map.class.getCanonicalName()
+    };
+    private static final String[] supportedTypesOut = new String[] {
+            Map.class.getCanonicalName()
+    };
+
+    @Override
+    public String getName() {
+        return ActivationTimeoutsParser.class.getName();
+    }
+
+    @Override
+    public boolean isSupport(String inType, String outType) {
+        return CollectionHelper.isContains(supportedTypesIn, inType) && CollectionHelper.isContains(supportedTypesOut, outType);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Map<String, IntervalTime> parse(Object value) {
+        ArgumentChecker.required(value, "value");
+        var timeoutCfgs = (Map<Object, Object>) value;
+        var timeouts = new HashMap<String, IntervalTime>();
+        timeoutCfgs.forEach((svcId, timeout) -> timeouts.put(svcId.toString(), IntervalTime.parse(timeout.toString())));
+        return timeouts;
+    }
+}
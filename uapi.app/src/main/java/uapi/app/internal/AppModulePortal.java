@@ -9,7 +9,7 @@
 
 package uapi.app.internal;
 
-import uapi.service.IServiceModulePortal;
+import uapi.app.generated.ServiceModulePortal_Generated;
 
-public class AppModulePortal implements IServiceModulePortal {
+public class AppModulePortal extends ServiceModulePortal_Generated {
 }
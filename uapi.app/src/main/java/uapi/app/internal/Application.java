@@ -8,14 +8,16 @@ import uapi.behavior.annotation.ActionDo;
 import uapi.log.ILogger;
 import uapi.rx.Looper;
 import uapi.service.IRegistry;
-import uapi.service.IService;
 import uapi.service.annotation.Inject;
 import uapi.service.annotation.OnActivate;
 import uapi.service.annotation.Service;
 import uapi.service.annotation.Tag;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * The constructor is used to construct application's behavior
@@ -43,12 +45,16 @@ public class Application {
     @Inject
     protected IResponsibleRegistry _responsibleReg;
 
+    // The ids of application services which were registered from descriptors at startup
+    private final List<String> _describedSvcIds = new CopyOnWriteArrayList<>();
+
     @OnActivate
     public void activate() {
         // Build responsible and related behavior for application launching
         var responsible = this._responsibleReg.register(RESPONSIBLE_NAME);
         responsible.newBehavior(BEHAVIOR_STARTUP, SystemStartingUpEvent.class, SystemStartingUpEvent.TOPIC)
                 .then(StartupApplication.actionId)
+                .call(ctx -> registered(ctx.originalEvent()))
                 .onSuccess((input, execCtx) -> {
                     this._logger.info("Application startup success.");
                     return new AppStartupEvent(responsible.name());
@@ -60,15 +66,45 @@ public class Application {
                     this._logger.info("Application is going to shutdown...");
                     // Wait until AppShutdownEvent handling finish
                     ctx.fireEvent(new AppShutdownEvent(responsible.name()), true);
-                    List<IService> appSvcs = ((SystemShuttingDownEvent) ctx.originalEvent()).applicationServices();
-                    List<String[]> appSvcIds = Looper.on(appSvcs).map(IService::getIds).toList();
-                    Looper.on(appSvcIds).foreach(this._registry::deactivateServices);
+                    var shuttingDownEvent = (SystemShuttingDownEvent) ctx.originalEvent();
+                    // Deactivate all application services at once, so they are deactivated in dependency order
+                    var appSvcIds = applicationServiceIds(shuttingDownEvent);
+                    var report = this._registry.deactivateServices(appSvcIds.toArray(new String[0]), null);
+                    if (! report.isCompleted()) {
+                        this._logger.warn("Some application services were not deactivated - {}", report);
+                    }
                     this._logger.info("Application shutdown success.");
                 })
                 .onFailure(DEFAULT_FAILURE_ACTION)
                 .build();
     }
 
+    /**
+     * Remember the application services which were registered from descriptors by the starting up event,
+     * the shutting down event only carries the services which were created at boot time
+     *
+     * @param   event
+     *          The system starting up event
+     */
+    void registered(final SystemStartingUpEvent event) {
+        var profile = this._registry.findService(ProfileManager.class).getActiveProfile();
+        Looper.on(event.applicationServiceDescriptors())
+                .filter(profile::isAllow)
+                .foreach(svcDesc -> this._describedSvcIds.addAll(Arrays.asList(svcDesc.getIds())));
+    }
+
+    /**
+     * Find out all application service ids which should be deactivated on shutdown
+     */
+    List<String> applicationServiceIds(final SystemShuttingDownEvent event) {
+        var appSvcIds = new LinkedHashSet<String>();
+        if (event.applicationServices() != null) {
+            Looper.on(event.applicationServices()).foreach(svc -> appSvcIds.addAll(Arrays.asList(svc.getIds())));
+        }
+        appSvcIds.addAll(this._describedSvcIds);
+        return new ArrayList<>(appSvcIds);
+    }
+
     /**
      * Action to start up application
      */
@@ -110,6 +146,17 @@ public class Application {
                     })
                     .foreach(this._registry::register);
 
+            // Register lazy services, the service which is not allowed by profile is never created
+            var svcDescs = Looper.on(event.applicationServiceDescriptors())
+                    .filter(profile::isAllow)
+                    .next(svcDesc -> {
+                        if (svcDesc.isAutoActive()) {
+                            autoActiveSvcIds.add(svcDesc.getIds()[0]);
+                        }
+                    })
+                    .toList();
+            this._registry.register(svcDescs);
+
             // Activate auto active services
             Looper.on(autoActiveSvcIds).foreach(this._registry::findService);
 
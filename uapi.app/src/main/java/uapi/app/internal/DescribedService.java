@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.app.internal;
+
+import uapi.common.ArgumentChecker;
+import uapi.service.IService;
+import uapi.service.ITagged;
+import uapi.service.ServiceDescriptor;
+
+/**
+ * A view of service descriptor which exposes its ids and tags without creating the service
+ */
+final class DescribedService implements IService, ITagged {
+
+    private final ServiceDescriptor _svcDesc;
+
+    DescribedService(final ServiceDescriptor serviceDescriptor) {
+        ArgumentChecker.required(serviceDescriptor, "serviceDescriptor");
+        this._svcDesc = serviceDescriptor;
+    }
+
+    @Override
+    public String[] getIds() {
+        return this._svcDesc.getIds();
+    }
+
+    @Override
+    public boolean autoActive() {
+        return this._svcDesc.isAutoActive();
+    }
+
+    @Override
+    public String[] getTags() {
+        return this._svcDesc.getTags();
+    }
+}
@@ -10,6 +10,7 @@
 package uapi.app.internal;
 
 import uapi.service.IService;
+import uapi.service.ServiceDescriptor;
 
 /**
  * A profile to control which service is allowed to load into application
@@ -24,4 +25,17 @@ public interface IProfile {
      * @return  True means the service is allowed otherwise denied
      */
     boolean isAllow(IService service);
+
+    /**
+     * Check specified service can be loaded to application by its descriptor, the service is not created
+     * if it is not allowed.
+     * The default implementation checks the ids and tags of the descriptor by isAllow(IService)
+     *
+     * @param   descriptor
+     *          The descriptor of the service which need to be check
+     * @return  True means the service is allowed otherwise denied
+     */
+    default boolean isAllow(ServiceDescriptor descriptor) {
+        return isAllow(new DescribedService(descriptor));
+    }
 }
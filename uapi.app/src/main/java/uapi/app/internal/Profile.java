@@ -16,6 +16,7 @@ import uapi.common.ArgumentChecker;
 import uapi.common.CollectionHelper;
 import uapi.service.IService;
 import uapi.service.ITagged;
+import uapi.service.ServiceDescriptor;
 
 /**
  * A profile implementation
@@ -61,7 +62,15 @@ public class Profile implements IProfile {
         if (service instanceof ITagged) {
             tags = ((ITagged) service).getTags();
         }
+        return isAllow(tags);
+    }
+
+    @Override
+    public boolean isAllow(ServiceDescriptor descriptor) {
+        return isAllow(descriptor.getTags());
+    }
 
+    private boolean isAllow(String[] tags) {
         switch (this._model) {
             case INCLUDE:
                 switch(this._matching) {
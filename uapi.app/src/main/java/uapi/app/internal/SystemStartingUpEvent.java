@@ -2,7 +2,9 @@ package uapi.app.internal;
 
 import uapi.behavior.BehaviorEvent;
 import uapi.service.IService;
+import uapi.service.ServiceDescriptor;
 
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -15,14 +17,24 @@ public class SystemStartingUpEvent extends BehaviorEvent {
 
     private final long _startTime;
     private final List<IService> _appSvcs;
+    private final List<ServiceDescriptor> _appSvcDescs;
 
     public SystemStartingUpEvent(
             final long startTime,
             final List<IService> applicationServices
+    ) {
+        this(startTime, applicationServices, Collections.emptyList());
+    }
+
+    public SystemStartingUpEvent(
+            final long startTime,
+            final List<IService> applicationServices,
+            final List<ServiceDescriptor> applicationServiceDescriptors
     ) {
         super(TOPIC, SOURCE_NAME);
         this._startTime = startTime;
         this._appSvcs = applicationServices;
+        this._appSvcDescs = applicationServiceDescriptors;
     }
 
     public long startTime() {
@@ -32,4 +44,13 @@ public class SystemStartingUpEvent extends BehaviorEvent {
     public List<IService> applicationServices() {
         return this._appSvcs;
     }
+
+    /**
+     * The descriptors of application services which are not created yet
+     *
+     * @return  The application service descriptors
+     */
+    public List<ServiceDescriptor> applicationServiceDescriptors() {
+        return this._appSvcDescs;
+    }
 }
@@ -125,11 +125,66 @@ class SystemBootstrapTest extends Specification {
         bootstrap.afterLaunchingCount == 1
     }
 
+    def 'Test boot with multiple module portals'() {
+        given:
+        def registry = Mock(IRegistryService)
+        registry.findService(IRegistry.class) >> registry
+        registry.findService(IEventBus.class) >> Mock(IEventBus)
+        def svc1 = Mock(IService)
+        def svc2 = Mock(IService)
+        def svc3 = Mock(IService)
+        def modulePortal1 = Mock(IServiceModulePortal) {
+            loadService() >> {
+                // The first module is slower than others but its services are still placed at first
+                Thread.sleep(100)
+                return [registry, svc1]
+            }
+        }
+        def modulePortal2 = Mock(IServiceModulePortal) {
+            loadService() >> [svc2]
+        }
+        def modulePortal3 = Mock(IServiceModulePortal) {
+            loadService() >> [svc3]
+        }
+        Bootstrap.setSvcLoader(Mock(AppServiceLoader) {
+            load(_) >> [modulePortal1, modulePortal2, modulePortal3]
+        })
+        def bootstrap = new Bootstrap()
+
+        when:
+        bootstrap.boot()
+
+        then:
+        noExceptionThrown()
+        bootstrap.appServices == [registry, svc1, svc2, svc3]
+    }
+
+    def 'Test boot when module is failed to load'() {
+        given:
+        def modulePortal1 = Mock(IServiceModulePortal) {
+            loadService() >> [Mock(IRegistryService)]
+        }
+        def modulePortal2 = Mock(IServiceModulePortal) {
+            loadService() >> { throw new IllegalStateException() }
+        }
+        Bootstrap.setSvcLoader(Mock(AppServiceLoader) {
+            load(_) >> [modulePortal1, modulePortal2]
+        })
+        def bootstrap = new Bootstrap()
+
+        when:
+        bootstrap.boot()
+
+        then:
+        thrown(IllegalStateException)
+    }
+
     private final class Bootstrap extends SystemBootstrap {
 
         private int loadConfigCount = 0
         private int beforeLaunchingCount = 0
         private int afterLaunchingCount = 0
+        private List<IService> appServices
 
         static setSvcLoader(AppServiceLoader svcLoader) {
             SystemBootstrap.appSvcLoader = svcLoader
@@ -143,6 +198,7 @@ class SystemBootstrapTest extends Specification {
         @Override
         protected void beforeSystemLaunching(IRegistry registry, List<IService> appSvcs) {
             beforeLaunchingCount++
+            appServices = appSvcs
         }
 
         @Override
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.app.internal
+
+import spock.lang.Specification
+import uapi.common.IntervalTime
+import uapi.log.ILogger
+
+import java.util.concurrent.ThreadPoolExecutor
+
+/**
+ * Unit tests for ActivationExecutor
+ */
+class ActivationExecutorTest extends Specification {
+
+    def 'Test default executor'() {
+        given:
+        def actExecutor = new ActivationExecutor()
+        actExecutor._logger = Mock(ILogger)
+
+        when:
+        def executor = actExecutor.executor()
+
+        then:
+        executor instanceof ThreadPoolExecutor
+        ((ThreadPoolExecutor) executor).maximumPoolSize == Runtime.getRuntime().availableProcessors()
+        actExecutor.executor().is(executor)
+
+        cleanup:
+        actExecutor.destroy()
+    }
+
+    def 'Test platform executor with pool size'() {
+        given:
+        def actExecutor = new ActivationExecutor()
+        actExecutor._logger = Mock(ILogger)
+        actExecutor._mode = 'platform'
+        actExecutor._poolSize = 3
+
+        when:
+        def executor = actExecutor.executor()
+
+        then:
+        ((ThreadPoolExecutor) executor).maximumPoolSize == 3
+
+        cleanup:
+        actExecutor.destroy()
+    }
+
+    def 'Test virtual executor'() {
+        given:
+        def logger = Mock(ILogger)
+        def actExecutor = new ActivationExecutor()
+        actExecutor._logger = logger
+        actExecutor._mode = 'virtual'
+
+        when:
+        def executor = actExecutor.executor()
+        def thread = null
+        executor.submit({ thread = Thread.currentThread() } as Runnable).get()
+
+        then:
+        thread != null
+        thread != Thread.currentThread()
+
+        cleanup:
+        actExecutor.destroy()
+    }
+
+    def 'Test unsupported executor mode'() {
+        given:
+        def logger = Mock(ILogger)
+        def actExecutor = new ActivationExecutor()
+        actExecutor._logger = logger
+        actExecutor._mode = 'unknown'
+
+        when:
+        def executor = actExecutor.executor()
+
+        then:
+        executor instanceof ThreadPoolExecutor
+        1 * logger.warn(_, 'unknown')
+
+        cleanup:
+        actExecutor.destroy()
+    }
+
+    def 'Test rebuild executor when configuration is changed'() {
+        given:
+        def actExecutor = new ActivationExecutor()
+        actExecutor._logger = Mock(ILogger)
+        actExecutor._poolSize = 2
+        def executor = actExecutor.executor()
+
+        when:
+        actExecutor._poolSize = 4
+        def newExecutor = actExecutor.executor()
+
+        then:
+        ! newExecutor.is(executor)
+        ((ThreadPoolExecutor) newExecutor).maximumPoolSize == 4
+        ((ThreadPoolExecutor) executor).isShutdown()
+
+        cleanup:
+        actExecutor.destroy()
+    }
+
+    def 'Test timeout'() {
+        given:
+        def actExecutor = new ActivationExecutor()
+        actExecutor._timeout = IntervalTime.parse('10s')
+        actExecutor._timeouts = ['svc': IntervalTime.parse('30s')]
+
+        expect:
+        actExecutor.activationTimeout('svc').seconds() == 30
+        actExecutor.deactivationTimeout('svc').seconds() == 30
+        actExecutor.activationTimeout('other').seconds() == 10
+        new ActivationExecutor().activationTimeout('svc') == null
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.app.internal
+
+import spock.lang.Specification
+
+/**
+ * Unit tests for ActivationTimeoutsParser
+ */
+class ActivationTimeoutsParserTest extends Specification {
+
+    def 'Test create instance'() {
+        when:
+        def parser = new ActivationTimeoutsParser()
+
+        then:
+        noExceptionThrown()
+        parser.getName() == ActivationTimeoutsParser.class.name
+        parser.isSupport(inType, outType) == isSupport
+
+        where:
+        inType                      | outType                       | isSupport
+        Map.class.canonicalName     | Map.class.canonicalName       | true
+        String.class.canonicalName  | Map.class.canonicalName       | false
+        Map.class.canonicalName     | String.class.canonicalName    | false
+        null                        | null                          | false
+    }
+
+    def 'Test parse'() {
+        given:
+        def parser = new ActivationTimeoutsParser()
+
+        when:
+        def timeouts = parser.parse(['svc1': '10s', 'svc2': '90s'])
+
+        then:
+        timeouts.size() == 2
+        timeouts.get('svc1').seconds() == 10
+        timeouts.get('svc2').seconds() == 90
+    }
+}
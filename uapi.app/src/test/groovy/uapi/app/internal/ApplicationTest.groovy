@@ -4,6 +4,7 @@ import spock.lang.Ignore
 import spock.lang.Specification
 import uapi.app.AppException
 import uapi.app.AppStartupEvent
+import uapi.app.SystemShuttingDownEvent
 import uapi.behavior.BehaviorException
 import uapi.behavior.BehaviorExecutingEventHandler
 import uapi.behavior.BehaviorFinishedEvent
@@ -13,6 +14,9 @@ import uapi.behavior.IResponsible
 import uapi.behavior.IResponsibleRegistry
 import uapi.event.IEvent
 import uapi.log.ILogger
+import uapi.service.IRegistry
+import uapi.service.IService
+import uapi.service.ServiceDescriptor
 
 /**
  * Unit tests for Application
@@ -27,6 +31,30 @@ class ApplicationTest extends Specification {
         noExceptionThrown()
     }
 
+    def 'Test application service ids on shutdown'() {
+        given:
+        def app = new Application()
+        app._registry = Mock(IRegistry) {
+            findService(ProfileManager.class) >> Mock(ProfileManager) {
+                getActiveProfile() >> Mock(IProfile) {
+                    isAllow(_ as ServiceDescriptor) >> { ServiceDescriptor svcDesc -> svcDesc.getIds()[0] == 'lazy' }
+                }
+            }
+        }
+        app.registered(Mock(SystemStartingUpEvent) {
+            applicationServiceDescriptors() >> [
+                    new ServiceDescriptor('Service', ['lazy'] as String[], null, null, { index -> null }, 0, true, false),
+                    new ServiceDescriptor('Service', ['denied'] as String[], null, null, { index -> null }, 0, true, false)
+            ]
+        })
+        def event = Mock(SystemShuttingDownEvent) {
+            applicationServices() >> [Mock(IService) { getIds() >> (['svc', 'lazy'] as String[]) }]
+        }
+
+        expect:
+        app.applicationServiceIds(event) == ['svc', 'lazy']
+    }
+
     @Ignore
     def 'Test activate'() {
         given:
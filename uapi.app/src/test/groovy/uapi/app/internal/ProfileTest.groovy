@@ -13,6 +13,7 @@ import spock.lang.Specification
 import uapi.app.AppException
 import uapi.service.IService
 import uapi.service.ITagged
+import uapi.service.ServiceDescriptor
 
 /**
  * Unit test for Profile
@@ -102,5 +103,35 @@ class ProfileTest extends Specification {
         'p1'    | Profile.Model.EXCLUDE | Profile.Matching.SATISFY_ANY  | ['p1', 'p2'] as String[]  | ['p1'] as String[]                | false
     }
 
+    def 'Test isAllow by service descriptor'() {
+        given:
+        def svcDesc = new ServiceDescriptor('Service', ['svc'] as String[], svcTags, null, { index -> null }, 0)
+        Profile profile = new Profile(name, model, matching, cfgTags)
+
+        expect:
+        profile.isAllow(svcDesc) == allowed
+
+        where:
+        name    | model                 | matching                      | cfgTags                   | svcTags                           | allowed
+        'p1'    | Profile.Model.INCLUDE | Profile.Matching.SATISFY_ALL  | ['p1', 'p2'] as String[]  | ['p1', 'p2'] as String[]          | true
+        'p1'    | Profile.Model.INCLUDE | Profile.Matching.SATISFY_ALL  | ['p1', 'p2'] as String[]  | ['p1'] as String[]                | false
+        'p1'    | Profile.Model.EXCLUDE | Profile.Matching.SATISFY_ANY  | ['p1', 'p2'] as String[]  | ['p1'] as String[]                | false
+        'p1'    | Profile.Model.EXCLUDE | Profile.Matching.SATISFY_ANY  | ['p1', 'p2'] as String[]  | ['p3'] as String[]                | true
+    }
+
+    def 'Test isAllow by service descriptor through service check'() {
+        given:
+        def svcDesc = new ServiceDescriptor('Service', ['svc'] as String[], ['p1'] as String[], null, { index -> null }, 0)
+        IProfile profile = new IProfile() {
+            @Override
+            boolean isAllow(IService svc) {
+                return svc.getIds() == ['svc'] as String[] && ((ITagged) svc).getTags() == ['p1'] as String[]
+            }
+        }
+
+        expect:
+        profile.isAllow(svcDesc)
+    }
+
     interface ITaggedService extends IService, ITagged {}
 }
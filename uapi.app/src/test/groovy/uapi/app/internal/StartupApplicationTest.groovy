@@ -6,6 +6,7 @@ import uapi.app.AppException
 import uapi.log.ILogger
 import uapi.service.IRegistry
 import uapi.service.IService
+import uapi.service.ServiceDescriptor
 
 /**
  * Unit tests for StartupApplication
@@ -54,6 +55,7 @@ class StartupApplicationTest extends Specification {
         startupApp._registry = registry
         def event = Mock(SystemStartingUpEvent) {
             applicationServices() >> [Mock(IService)]
+            applicationServiceDescriptors() >> []
         }
 
         when:
@@ -84,6 +86,7 @@ class StartupApplicationTest extends Specification {
         }
         def event = Mock(SystemStartingUpEvent) {
             applicationServices() >> [service]
+            applicationServiceDescriptors() >> []
         }
 
         when:
@@ -93,4 +96,37 @@ class StartupApplicationTest extends Specification {
         noExceptionThrown()
         2 * logger.info(_)
     }
+
+    def 'Test start up with service descriptors'() {
+        given:
+        def logger = Mock(ILogger)
+        def allowedDesc = new ServiceDescriptor(
+                'Service', ['svc'] as String[], ['allowed'] as String[], null, { index -> null }, 0, true, false)
+        def deniedDesc = new ServiceDescriptor(
+                'Other', ['other'] as String[], ['denied'] as String[], null, { index -> null }, 1, true, false)
+        def registry = Mock(IRegistry) {
+            findService(ProfileManager.class) >> Mock(ProfileManager) {
+                getActiveProfile() >> Mock(IProfile) {
+                    isAllow(allowedDesc) >> true
+                    isAllow(deniedDesc) >> false
+                }
+            }
+        }
+        def startupApp = new Application.StartupApplication()
+        startupApp._logger = logger
+        startupApp._registry = registry
+        def event = Mock(SystemStartingUpEvent) {
+            applicationServices() >> []
+            applicationServiceDescriptors() >> [allowedDesc, deniedDesc]
+        }
+
+        when:
+        startupApp.startup(event)
+
+        then:
+        noExceptionThrown()
+        1 * registry.register([allowedDesc])
+        1 * registry.findService('svc')
+        0 * registry.findService('other')
+    }
 }
@@ -9,7 +9,7 @@
 
 package uapi.behavior.internal;
 
-import uapi.service.IServiceModulePortal;
+import uapi.behavior.generated.ServiceModulePortal_Generated;
 
-public class BehaviorModulePortal implements IServiceModulePortal {
+public class BehaviorModulePortal extends ServiceModulePortal_Generated {
 }
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uapi.service.internal.Registry;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of activating dependency trees with different shapes.
+ * The services and the registry are recreated before each invocation since activated service is not activated
+ * again, the activation is driven by finding the root service so it goes through ServiceActivator.activateService
+ * just like the production code.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+public class ActivationBenchmark {
+
+    @Param({ "deep", "wide" })
+    private String _shape;
+
+    @Param({ "10", "100" })
+    private int _size;
+
+    private Registry _registry;
+
+    @Setup(Level.Invocation)
+    public void registerServices() {
+        this._registry = new Registry();
+        this._registry.register("deep".equals(this._shape) ?
+                BenchmarkService.deep(this._size) : BenchmarkService.wide(this._size));
+    }
+
+    @Benchmark
+    public Object activateTree() {
+        return this._registry.findService("svc_0");
+    }
+}
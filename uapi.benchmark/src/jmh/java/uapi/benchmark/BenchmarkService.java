@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.benchmark;
+
+import uapi.service.Dependency;
+import uapi.service.IInjectable;
+import uapi.service.IService;
+import uapi.service.IServiceLifecycle;
+import uapi.service.Injection;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A service which is used by benchmarks, it does nothing except holding injected services.
+ * The static methods build the service sets with different dependency shapes.
+ */
+public class BenchmarkService implements IService, IInjectable, IServiceLifecycle {
+
+    private final String[] _ids;
+    private final Dependency[] _dependencies;
+    private final List<Object> _injected;
+
+    public BenchmarkService(
+            final String id,
+            final String... dependencyIds
+    ) {
+        this._ids = new String[] { id };
+        this._dependencies = new Dependency[dependencyIds.length];
+        for (int i = 0; i < dependencyIds.length; i++) {
+            this._dependencies[i] = new Dependency(dependencyIds[i] + "@Local", BenchmarkService.class);
+        }
+        this._injected = new ArrayList<>(dependencyIds.length);
+    }
+
+    /**
+     * Create services which have no dependency
+     *
+     * @param   count
+     *          The count of services
+     * @return  The services, the id of them are svc_0 to svc_{count - 1}
+     */
+    public static BenchmarkService[] flat(final int count) {
+        var services = new BenchmarkService[count];
+        for (int i = 0; i < count; i++) {
+            services[i] = new BenchmarkService("svc_" + i);
+        }
+        return services;
+    }
+
+    /**
+     * Create a dependency chain, the root service depends on svc_1 and svc_1 depends on svc_2 and so on
+     *
+     * @param   depth
+     *          The depth of the chain
+     * @return  The services, the first one is the root
+     */
+    public static BenchmarkService[] deep(final int depth) {
+        var services = new BenchmarkService[depth];
+        for (int i = 0; i < depth - 1; i++) {
+            services[i] = new BenchmarkService("svc_" + i, "svc_" + (i + 1));
+        }
+        services[depth - 1] = new BenchmarkService("svc_" + (depth - 1));
+        return services;
+    }
+
+    /**
+     * Create a dependency fan, the root service depends on all other services directly
+     *
+     * @param   width
+     *          The count of the services which are depended by the root
+     * @return  The services, the first one is the root
+     */
+    public static BenchmarkService[] wide(final int width) {
+        var services = new BenchmarkService[width + 1];
+        var dependencyIds = new String[width];
+        for (int i = 0; i < width; i++) {
+            dependencyIds[i] = "svc_" + (i + 1);
+            services[i + 1] = new BenchmarkService(dependencyIds[i]);
+        }
+        services[0] = new BenchmarkService("svc_0", dependencyIds);
+        return services;
+    }
+
+    @Override
+    public String[] getIds() {
+        return this._ids;
+    }
+
+    @Override
+    public boolean autoActive() {
+        return false;
+    }
+
+    @Override
+    public void injectObject(final Injection injection) {
+        this._injected.add(injection.getObject());
+    }
+
+    @Override
+    public Dependency[] getDependencies() {
+        return this._dependencies;
+    }
+
+    @Override
+    public void onDependencyInject(final String serviceId, final Object service) {
+        // do nothing
+    }
+
+    public int injectedCount() {
+        return this._injected.size();
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uapi.service.IService;
+import uapi.service.internal.Registry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Benchmarks of activating services from many threads at the same time.
+ * Each root service depends on all shared services, so the threads contend on activating same services.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+public class ConcurrentActivationBenchmark {
+
+    private static final int SHARED_COUNT  = 50;
+    private static final int ROOT_COUNT    = 64;
+
+    @Param({ "4", "16" })
+    private int _threads;
+
+    private ExecutorService _executor;
+    private Registry _registry;
+    private CountDownLatch _start;
+    private List<Callable<Object>> _tasks;
+
+    @Setup(Level.Trial)
+    public void createExecutor() {
+        this._executor = Executors.newFixedThreadPool(this._threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdownExecutor() {
+        this._executor.shutdownNow();
+    }
+
+    @Setup(Level.Invocation)
+    public void registerServices() {
+        var sharedIds = new String[SHARED_COUNT];
+        var services = new ArrayList<IService>(SHARED_COUNT + ROOT_COUNT);
+        for (int i = 0; i < SHARED_COUNT; i++) {
+            sharedIds[i] = "shared_" + i;
+            services.add(new BenchmarkService(sharedIds[i]));
+        }
+        for (int i = 0; i < ROOT_COUNT; i++) {
+            services.add(new BenchmarkService("root_" + i, sharedIds));
+        }
+        this._registry = new Registry();
+        this._registry.register(services.toArray(new IService[0]));
+
+        // The tasks wait on the latch so all of them start activation at the same time
+        var start = new CountDownLatch(1);
+        this._start = start;
+        this._tasks = new ArrayList<>(ROOT_COUNT);
+        for (int i = 0; i < ROOT_COUNT; i++) {
+            var rootId = "root_" + i;
+            var registry = this._registry;
+            this._tasks.add(() -> {
+                start.await();
+                return registry.findService(rootId);
+            });
+        }
+    }
+
+    @Benchmark
+    public List<Object> activateConcurrently() throws Exception {
+        var futures = new ArrayList<Future<Object>>(ROOT_COUNT);
+        for (var task : this._tasks) {
+            futures.add(this._executor.submit(task));
+        }
+        this._start.countDown();
+        var services = new ArrayList<Object>(ROOT_COUNT);
+        for (var future : futures) {
+            services.add(future.get());
+        }
+        return services;
+    }
+}
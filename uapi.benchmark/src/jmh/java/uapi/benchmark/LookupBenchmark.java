@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uapi.service.internal.Registry;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of finding activated service by type, the registry holds other services which are not matched
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+public class LookupBenchmark {
+
+    @Param({ "100", "1000", "10000" })
+    private int _count;
+
+    private Registry _registry;
+
+    @Setup(Level.Trial)
+    public void registerServices() {
+        this._registry = new Registry();
+        this._registry.register(BenchmarkService.flat(this._count));
+        this._registry.register(new BenchmarkService(LookupBenchmark.class.getName()));
+        // Activate the service so the benchmark only measures the lookup
+        this._registry.findService(LookupBenchmark.class);
+    }
+
+    @Benchmark
+    public Object findServiceByType() {
+        return this._registry.findService(LookupBenchmark.class);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object findServiceByTypeConcurrently() {
+        return this._registry.findService(LookupBenchmark.class);
+    }
+}
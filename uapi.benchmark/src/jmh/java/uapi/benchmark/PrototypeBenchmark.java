@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uapi.service.Dependency;
+import uapi.service.IInjectable;
+import uapi.service.IInstance;
+import uapi.service.IPrototype;
+import uapi.service.Injection;
+import uapi.service.internal.Registry;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of creating instance from prototype, the instance depends on one shared service.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+public class PrototypeBenchmark {
+
+    private static final String PROTOTYPE_ID    = "proto";
+    private static final String ATTR_NAME       = "name";
+
+    private Registry _registry;
+    private Map<String, ?> _attributes;
+
+    @Setup(Level.Trial)
+    public void registerServices() {
+        this._registry = new Registry();
+        this._registry.register(new BenchmarkService("shared"));
+        this._registry.register(new Prototype());
+        this._attributes = Map.of(ATTR_NAME, "cached");
+        // Create the cached instance so the benchmark on cached instance only measures the lookup
+        this._registry.findService(PROTOTYPE_ID, this._attributes);
+    }
+
+    @Benchmark
+    public Object findCachedInstance() {
+        return this._registry.findService(PROTOTYPE_ID, this._attributes);
+    }
+
+    @Benchmark
+    public Object createScopedInstance() {
+        try (var scope = this._registry.openScope()) {
+            return scope.findService(PROTOTYPE_ID, this._attributes);
+        }
+    }
+
+    private static final class Prototype implements IPrototype {
+
+        @Override
+        public String[] getIds() {
+            return new String[] { PROTOTYPE_ID };
+        }
+
+        @Override
+        public boolean autoActive() {
+            return false;
+        }
+
+        @Override
+        public String[] attributes() {
+            return new String[] { ATTR_NAME };
+        }
+
+        @Override
+        public IInstance newInstance(final Map<String, ?> attributes) {
+            return new Instance(attributes);
+        }
+    }
+
+    private static final class Instance implements IInstance, IInjectable {
+
+        private static final Dependency[] DEPENDENCIES = new Dependency[] {
+                new Dependency("shared@Local", BenchmarkService.class)
+        };
+
+        private final Map<String, ?> _attributes;
+        private Object _shared;
+
+        private Instance(final Map<String, ?> attributes) {
+            this._attributes = attributes;
+        }
+
+        @Override
+        public Map<String, ?> attributes() {
+            return this._attributes;
+        }
+
+        @Override
+        public String prototypeId() {
+            return PROTOTYPE_ID;
+        }
+
+        @Override
+        public void injectObject(final Injection injection) {
+            this._shared = injection.getObject();
+        }
+
+        @Override
+        public Dependency[] getDependencies() {
+            return DEPENDENCIES;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uapi.service.IService;
+import uapi.service.internal.Registry;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of registering services into the registry one by one and in bulk
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+public class RegistrationBenchmark {
+
+    @Param({ "100", "1000", "10000" })
+    private int _count;
+
+    private IService[] _services;
+    private Registry _registry;
+
+    @Setup(Level.Trial)
+    public void createServices() {
+        this._services = BenchmarkService.flat(this._count);
+    }
+
+    @Setup(Level.Invocation)
+    public void createRegistry() {
+        this._registry = new Registry();
+    }
+
+    @Benchmark
+    public Registry register() {
+        for (var service : this._services) {
+            this._registry.register(service);
+        }
+        return this._registry;
+    }
+
+    @Benchmark
+    public Registry bulkRegister() {
+        this._registry.register(this._services);
+        return this._registry;
+    }
+}
@@ -9,6 +9,6 @@
 
 package uapi.command.internal;
 
-import uapi.service.IServiceModulePortal;
+import uapi.command.generated.ServiceModulePortal_Generated;
 
-public class CommandModulePortal implements IServiceModulePortal { }
+public class CommandModulePortal extends ServiceModulePortal_Generated { }
@@ -15,6 +15,7 @@ import uapi.GeneralException;
 import uapi.Type;
 import uapi.codegen.*;
 import uapi.common.ArgumentChecker;
+import uapi.config.ConfigValueParsers;
 import uapi.config.IConfigValueParser;
 import uapi.config.IConfigurable;
 import uapi.config.annotation.Config;
@@ -44,6 +45,9 @@ public class ConfigHandler extends AnnotationsHandler {
     private static final String TEMPLATE_GET_PATHS          = "template/getPaths_method.ftl";
     private static final String TEMPLATE_IS_OPTIONAL_CONFIG = "template/isOptionalConfig_method.ftl";
     private static final String TEMPLATE_CONFIG             = "template/config_method.ftl";
+    private static final String TEMPLATE_FIND_PARSERS       = "template/findConfigValueParsers_method.ftl";
+
+    private static final String METHOD_FIND_PARSERS         = "findConfigValueParsers";
 
     @SuppressWarnings("unchecked")
     private static final Class<? extends Annotation>[] orderedAnnotations = new Class[] { Config.class };
@@ -107,6 +111,7 @@ public class ConfigHandler extends AnnotationsHandler {
         var tempGetPaths = builderContext.loadTemplate(Module.name, TEMPLATE_GET_PATHS);
         var tempIsOptionalConfig = builderContext.loadTemplate(Module.name, TEMPLATE_IS_OPTIONAL_CONFIG);
         var tempConfig = builderContext.loadTemplate(Module.name, TEMPLATE_CONFIG);
+        var tempFindParsers = builderContext.loadTemplate(Module.name, TEMPLATE_FIND_PARSERS);
 
         Looper.on(builderContext.getBuilders()).foreach(classBuilder -> {
             List<ConfigInfo> configInfos = classBuilder.getTransience(CONFIG_INFOS);
@@ -114,8 +119,14 @@ public class ConfigHandler extends AnnotationsHandler {
             if (configInfos == null) {
                 return;
             }
+            // The config method dispatches on distinct paths, the first field wins if more fields use same path
+            Set<String> paths = new HashSet<>();
+            var configCases = Looper.on(configInfos)
+                    .filter(configInfo -> paths.add(configInfo.getPath()))
+                    .toList();
             var tempModel = new HashMap<String, Object>();
             tempModel.put("configInfos", configInfos);
+            tempModel.put("configCases", configCases);
             tempModel.put("fieldSvcReg", fieldSvcReg);
 
             Boolean isFieldSvcRegDef = classBuilder.getTransience(IS_FIELD_SVC_REG_DEFINED);
@@ -131,6 +142,11 @@ public class ConfigHandler extends AnnotationsHandler {
                         QualifiedServiceId.FROM_LOCAL,
                         false, false, null, true);
             }
+            // The parser of each config is resolved at first time and cached in generated field
+            Looper.on(configCases).foreach(configInfo -> classBuilder.addFieldBuilder(FieldMeta.builder()
+                    .addModifier(Modifier.PRIVATE)
+                    .setName(parserFieldOf(configInfo.getFieldName()))
+                    .setTypeName(IConfigValueParser.class.getCanonicalName())));
             classBuilder
                     .addImplement(IConfigurable.class.getCanonicalName())
                     .addMethodBuilder(MethodMeta.builder()
@@ -165,11 +181,26 @@ public class ConfigHandler extends AnnotationsHandler {
                             .setReturnTypeName(Type.VOID)
                             .addCodeBuilder(CodeMeta.builder()
                                     .setModel(tempModel)
-                                    .setTemplate(tempConfig))
+                                    .setTemplate(tempConfig)))
+                    .addMethodBuilder(MethodMeta.builder()
+                            .addModifier(Modifier.PRIVATE)
+                            .setName(METHOD_FIND_PARSERS)
+                            .setReturnTypeName(ConfigValueParsers.class.getCanonicalName())
+                            .addCodeBuilder(CodeMeta.builder()
+                                    .setModel(tempModel)
+                                    .setTemplate(tempFindParsers))
                     );
         });
     }
 
+    private static String parserFieldOf(final String fieldName) {
+        var name = fieldName;
+        while (name.startsWith("_")) {
+            name = name.substring(1);
+        }
+        return "_" + name + "Parser";
+    }
+
     public static class ConfigInfo {
 
         private String path;
@@ -198,6 +229,10 @@ public class ConfigHandler extends AnnotationsHandler {
             return this.parserName;
         }
 
+        public String getParserField() {
+            return parserFieldOf(this.fieldName);
+        }
+
         public boolean hasParser() {
             return ! ArgumentChecker.isEmpty(this.parserName);
         }
@@ -1,16 +1,24 @@
 uapi.common.ArgumentChecker.notEmpty(path, "path");
         uapi.common.ArgumentChecker.notNull(configObject, "configObject");
-        uapi.config.ConfigValueParsers parsers = this.${fieldSvcReg}.findService(uapi.config.ConfigValueParsers.class);
-        uapi.common.ArgumentChecker.notNull(parsers, "parsers");
-<#list configInfos as configInfo>
-        if (path.equals("${configInfo.path}")) {
+        uapi.config.IConfigValueParser parser;
+        switch (path) {
+<#list configCases as configInfo>
+            case "${configInfo.path}":
+                parser = this.${configInfo.parserField};
             <#if configInfo.hasParser()>
-            uapi.config.IConfigValueParser parser = parsers.findParser("${configInfo.parserName}");
+                if (parser == null) {
+                    parser = findConfigValueParsers().findParser("${configInfo.parserName}");
+                    this.${configInfo.parserField} = parser;
+                }
             <#else>
-            uapi.config.IConfigValueParser parser = parsers.findParser(configObject.getClass().getCanonicalName(), "${configInfo.fieldType}");
+                if (parser == null || ! parser.isSupport(configObject.getClass().getCanonicalName(), "${configInfo.fieldType}")) {
+                    parser = findConfigValueParsers().findParser(configObject.getClass().getCanonicalName(), "${configInfo.fieldType}");
+                    this.${configInfo.parserField} = parser;
+                }
             </#if>
-            this.${configInfo.fieldName} = (${configInfo.fieldType}) parser.parse(configObject);
-            return;
-        }
+                this.${configInfo.fieldName} = (${configInfo.fieldType}) parser.parse(configObject);
+                return;
 </#list>
-        throw new uapi.GeneralException("Can't set config object {} into service {}", configObject, this);
\ No newline at end of file
+            default:
+                throw new uapi.GeneralException("Can't set config object {} into service {}", configObject, this);
+        }
\ No newline at end of file
@@ -0,0 +1,3 @@
+uapi.config.ConfigValueParsers parsers = this.${fieldSvcReg}.findService(uapi.config.ConfigValueParsers.class);
+        uapi.common.ArgumentChecker.notNull(parsers, "parsers");
+        return parsers;
\ No newline at end of file
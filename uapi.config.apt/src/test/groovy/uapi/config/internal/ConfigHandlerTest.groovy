@@ -152,6 +152,7 @@ class ConfigHandlerTest extends Specification {
             loadTemplate(_, ConfigHandler.TEMPLATE_GET_PATHS) >> Mock(Template)
             loadTemplate(_, ConfigHandler.TEMPLATE_IS_OPTIONAL_CONFIG) >> Mock(Template)
             loadTemplate(_, ConfigHandler.TEMPLATE_CONFIG) >> Mock(Template)
+            loadTemplate(_, ConfigHandler.TEMPLATE_FIND_PARSERS) >> Mock(Template)
             getBuilders() >> [classBudr]
             getHelper(IInjectableHandlerHelper.name) >> Mock(IInjectableHandlerHelper)
         }
@@ -162,6 +163,7 @@ class ConfigHandlerTest extends Specification {
 
         then:
         noExceptionThrown()
+        1 * classBudr.addFieldBuilder(_)
 
         where:
         elemtName   | elemtType | injectRegElemtName
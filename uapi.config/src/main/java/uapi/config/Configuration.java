@@ -19,6 +19,7 @@ import uapi.service.QualifiedServiceId;
 
 import java.lang.ref.WeakReference;
 import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * The uapi.config.Configuration hold at least one config value and store as a tree structure
@@ -33,11 +34,25 @@ public class Configuration {
         return new Configuration();
     }
 
+    /**
+     * Create root configuration with a listener which is invoked on each bound service reference before the
+     * changed configuration value is set into the service
+     *
+     * @param   bindingListener
+     *          The listener of changed binding
+     * @return  The root configuration
+     */
+    public static Configuration createRoot(final Consumer<IServiceReference> bindingListener) {
+        ArgumentChecker.required(bindingListener, "bindingListener");
+        return new Configuration(bindingListener);
+    }
+
     private final Configuration _parent;
     private final String _key;
     private Object _value;
     private final Map<QualifiedServiceId, WeakReference<IServiceReference>> _configurableSvcs;
     private final Map<String, Configuration> _children;
+    private final Consumer<IServiceReference> _bindingListener;
 
     public Configuration(final Configuration parent, final String key) {
         this(parent, key, null, null);
@@ -60,17 +75,26 @@ public class Configuration {
             this._configurableSvcs.put(serviceReference.getQualifiedId(), new WeakReference<>(serviceReference));
         }
         this._children = new HashMap<>();
+        this._bindingListener = parent._bindingListener;
     }
 
     /**
      * Only for creating root configuration
      */
     private Configuration() {
+        this(null);
+    }
+
+    /**
+     * Only for creating root configuration with binding listener
+     */
+    private Configuration(final Consumer<IServiceReference> bindingListener) {
         this._parent = null;
         this._key = ROOT_KEY;
         // For root node, not configurable service can be bind on it.
         this._configurableSvcs = null;
         this._children = new HashMap<>();
+        this._bindingListener = bindingListener;
     }
 
     public String getKey() {
@@ -119,6 +143,7 @@ public class Configuration {
             this._value = value;
         }
 
+        notifyBindingChanged();
         Looper.on(this._configurableSvcs.values())
                 .filter(ref -> ref.get() != null)
                 .map(WeakReference::get)
@@ -257,6 +282,24 @@ public class Configuration {
         return config;
     }
 
+    /**
+     * The services which are bound on current configuration and its parents may be satisfied differently
+     * after the value is changed, so notify the listener on all of them.
+     */
+    private void notifyBindingChanged() {
+        if (this._bindingListener == null) {
+            return;
+        }
+        var config = this;
+        while (! config.isRoot()) {
+            Looper.on(config._configurableSvcs.values())
+                    .filter(ref -> ref.get() != null)
+                    .map(WeakReference::get)
+                    .foreach(this._bindingListener::accept);
+            config = config._parent;
+        }
+    }
+
     private void cleanNullReference() {
 //        var it = this._configurableSvcs.entrySet().iterator();
 //        while (it.hasNext()) {
@@ -9,6 +9,6 @@
 
 package uapi.config.internal;
 
-import uapi.service.IServiceModulePortal;
+import uapi.config.generated.ServiceModulePortal_Generated;
 
-public class ConfigModulePortal implements IServiceModulePortal { }
+public class ConfigModulePortal extends ServiceModulePortal_Generated { }
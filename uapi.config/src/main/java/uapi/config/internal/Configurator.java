@@ -30,9 +30,10 @@ import java.util.Map;
 public class Configurator implements ISatisfyHook, IConfigTracer {
 
     private final Configuration _rootConfig;
+    private volatile IDecisionCache _decisionCache;
 
     protected Configurator() {
-        this._rootConfig = Configuration.createRoot();
+        this._rootConfig = Configuration.createRoot(this::invalidate);
     }
 
     @Override
@@ -52,6 +53,23 @@ public class Configurator implements ISatisfyHook, IConfigTracer {
         return isConfigured;
     }
 
+    /**
+     * The decision only be changed when bound configuration is changed, so it can be cached until the
+     * configuration is changed.
+     *
+     * @return  Always true
+     */
+    @Override
+    public boolean isCacheable() {
+        return true;
+    }
+
+    @Override
+    public void setDecisionCache(IDecisionCache decisionCache) {
+        ArgumentChecker.required(decisionCache, "decisionCache");
+        this._decisionCache = decisionCache;
+    }
+
     @Override
     public void onChange(String path, Object config) {
         Configurator.this._rootConfig.setValue(path, config);
@@ -61,4 +79,11 @@ public class Configurator implements ISatisfyHook, IConfigTracer {
     public void onChange(Map<String, Object> configMap) {
         Configurator.this._rootConfig.setValue(configMap);
     }
+
+    private void invalidate(IServiceReference serviceRef) {
+        var decisionCache = this._decisionCache;
+        if (decisionCache != null) {
+            decisionCache.invalidate(serviceRef);
+        }
+    }
 }
@@ -149,4 +149,31 @@ class ConfigurationTest extends Specification {
         then:
         result
     }
+
+    def 'Test binding listener is notified when bound value is changed'() {
+        given:
+        def changed = []
+        def root = Configuration.createRoot({ changed << it })
+        def svcRef1 = Mock(IServiceReference) {
+            getQualifiedId() >> Mock(QualifiedServiceId)
+            getService() >> Mock(IConfigurable)
+        }
+        def svcRef2 = Mock(IServiceReference) {
+            getQualifiedId() >> Mock(QualifiedServiceId)
+            getService() >> Mock(IConfigurable)
+        }
+        def svcRef3 = Mock(IServiceReference) {
+            getQualifiedId() >> Mock(QualifiedServiceId)
+            getService() >> Mock(IConfigurable)
+        }
+        root.bindConfigurable('a', svcRef1)
+        root.bindConfigurable('a.b', svcRef2)
+        root.bindConfigurable('c', svcRef3)
+
+        when:
+        root.setValue('a.b', 'value')
+
+        then:
+        changed as Set == [svcRef1, svcRef2] as Set
+    }
 }
@@ -11,7 +11,9 @@ package uapi.config.internal
 
 import spock.lang.Specification
 import uapi.config.IConfigurable
+import uapi.service.ISatisfyHook
 import uapi.service.IServiceReference
+import uapi.service.QualifiedServiceId
 
 /**
  * Test case for Configurator
@@ -50,4 +52,35 @@ class ConfiguratorTest extends Specification {
         then:
         configurator.isSatisfied(svc)
     }
+
+    def 'Test invalidate decision when bound config is changed'() {
+        def configurable = Mock(IConfigurable) {
+            getPaths() >> ['test']
+        }
+        def svc = Mock(IServiceReference) {
+            getService() >> configurable
+            getQualifiedId() >> Mock(QualifiedServiceId)
+        }
+        def other = Mock(IServiceReference) {
+            getService() >> Mock(IConfigurable) {
+                getPaths() >> ['other']
+            }
+            getQualifiedId() >> Mock(QualifiedServiceId)
+        }
+        def decisionCache = Mock(ISatisfyHook.IDecisionCache)
+
+        given:
+        Configurator configurator = new Configurator()
+        configurator.setDecisionCache(decisionCache)
+        configurator.isSatisfied(svc)
+        configurator.isSatisfied(other)
+
+        when:
+        configurator.onChange('test', 'value')
+
+        then:
+        configurator.isCacheable()
+        1 * decisionCache.invalidate(svc)
+        0 * decisionCache.invalidate(other)
+    }
 }
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.event;
+
+import uapi.UapiException;
+import uapi.common.IntervalTime;
+
+import java.util.List;
+
+/**
+ * A handler which receives events of its topic in micro batches.
+ * The events which are fired asynchronously are collected and drained to the handler when the batch size is
+ * reached or the batch window is elapsed, the batches are delivered one by one in the order the events are fired.
+ * The events which are fired synchronously or with callback are delivered immediately in a batch of one event.
+ * The keyed events are delivered on the partition of their key in a batch of one event, so they keep the order
+ * of their key.
+ */
+public interface IBatchEventHandler<T extends IEvent> extends IEventHandler<T> {
+
+    int DEFAULT_BATCH_SIZE                  = 100;
+    IntervalTime DEFAULT_BATCH_WINDOW       = IntervalTime.parse("10ms");
+
+    /**
+     * Handle a batch of events
+     *
+     * @param   events
+     *          The events in the order they are fired
+     * @throws  UapiException
+     *          Handle events failed
+     */
+    void handle(List<T> events) throws UapiException;
+
+    @Override
+    default void handle(T event) throws UapiException {
+        handle(List.of(event));
+    }
+
+    /**
+     * The max count of events in a batch
+     *
+     * @return  The max batch size
+     */
+    default int batchSize() {
+        return DEFAULT_BATCH_SIZE;
+    }
+
+    /**
+     * The max time an event waits in the batch before it is drained
+     *
+     * @return  The batch window
+     */
+    default IntervalTime batchWindow() {
+        return DEFAULT_BATCH_WINDOW;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.event;
+
+import uapi.common.IntervalTime;
+
+/**
+ * A coalescing policy of a topic, it is used for the topic whose latest event supersedes the earlier ones.
+ * The events which are fired asynchronously with same key are held for the window from the first one, the
+ * later events are merged into the pending one, and the merged event is dispatched when the window is
+ * elapsed, so the handlers handle each key at most once per window.
+ * The events which are fired synchronously or with callback are not coalesced.
+ */
+public interface ICoalescingPolicy<T extends IEvent> {
+
+    /**
+     * The topic which the policy is applied to
+     *
+     * @return  The event topic
+     */
+    String topic();
+
+    /**
+     * The time which the events with same key are coalesced in
+     *
+     * @return  The coalescing window
+     */
+    IntervalTime window();
+
+    /**
+     * Extract the coalescing key from the event
+     *
+     * @param   event
+     *          The fired event
+     * @return  The key of the event or null means the event is not coalesced
+     */
+    Object keyOf(T event);
+
+    /**
+     * Merge newer event into the pending event which has same key, the newer event replaces the pending
+     * one by default
+     *
+     * @param   pending
+     *          The event which is waiting for dispatch
+     * @param   newer
+     *          The event which is fired later
+     * @return  The merged event, it must not be null
+     */
+    default T merge(T pending, T newer) {
+        return newer;
+    }
+}
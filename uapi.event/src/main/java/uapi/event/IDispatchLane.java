@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.event;
+
+/**
+ * A dispatch lane handles events of specific topics on its own executor with a bounded queue, so the slow or
+ * flooding topic does not delay other topics.
+ * The lane exposes its counters which can be used to monitor the event bus.
+ */
+public interface IDispatchLane {
+
+    /**
+     * The name of the lane
+     *
+     * @return  The lane name
+     */
+    String name();
+
+    /**
+     * The topics which are dispatched by this lane
+     *
+     * @return  The topics
+     */
+    String[] topics();
+
+    /**
+     * The count of events which are waiting in the queue
+     *
+     * @return  Current queue depth
+     */
+    int queueDepth();
+
+    /**
+     * The max count of events which can wait in the queue
+     *
+     * @return  The queue capacity
+     */
+    int queueCapacity();
+
+    /**
+     * The count of events which were submitted to this lane
+     *
+     * @return  Submitted event count
+     */
+    long submittedCount();
+
+    /**
+     * The count of events which were submitted when the queue is full, they are handled by the overflow policy
+     * of the lane
+     *
+     * @return  Rejected event count
+     */
+    long rejectedCount();
+
+    /**
+     * The count of events which were dropped by the overflow policy, the dropped events are not handled
+     *
+     * @return  Dropped event count
+     */
+    long droppedCount();
+}
@@ -9,6 +9,9 @@
 
 package uapi.event;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * A event bus is used to dispatch event
  */
@@ -72,6 +75,17 @@ public interface IEventBus {
      */
     <T extends IEvent> void fire(T event, IEventFinishCallback<T> callback, boolean sync);
 
+    /**
+     * Fire a collection of events, the events will be handled in async.
+     * The events of same topic are handled in the order of the collection.
+     *
+     * @param   events
+     *          Fired events
+     */
+    default void fireAll(Collection<? extends IEvent> events) {
+        events.forEach(this::fire);
+    }
+
     /**
      * Register a event handler
      *
@@ -88,4 +102,37 @@ public interface IEventBus {
      * @return  True means operation is successful otherwise is failed
      */
     boolean unregister(IEventHandler eventHandler);
+
+    /**
+     * Apply coalescing policy to the topic of the policy, the existing policy of the topic is replaced and
+     * its pending events are dispatched
+     *
+     * @param   policy
+     *          The coalescing policy
+     * @return  True means the policy is applied otherwise the event bus does not support coalescing
+     */
+    default boolean coalesce(ICoalescingPolicy<?> policy) {
+        return false;
+    }
+
+    /**
+     * Remove the coalescing policy of the topic, the pending events of the topic are dispatched
+     *
+     * @param   topic
+     *          The event topic
+     * @return  True means the policy is removed otherwise the topic has no policy
+     */
+    default boolean uncoalesce(String topic) {
+        return false;
+    }
+
+    /**
+     * Get all dispatch lanes of this event bus, the events of the topic which has no lane are dispatched by the
+     * shared executor
+     *
+     * @return  The dispatch lanes
+     */
+    default List<IDispatchLane> lanes() {
+        return List.of();
+    }
 }
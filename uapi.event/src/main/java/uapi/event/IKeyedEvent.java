@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.event;
+
+/**
+ * An event which is delivered in order with other events which have same key.
+ * The events are partitioned by key onto a fixed set of single thread lanes, the events which have same key are
+ * handled one by one in the order they are fired, the events which have different keys are handled in parallel.
+ * The lane of a partition is created when the first event of the partition is fired.
+ */
+public interface IKeyedEvent extends IEvent {
+
+    /**
+     * The ordering key of the event, the event is not ordered if the key is null
+     *
+     * @return  The ordering key
+     */
+    Object key();
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.event.internal;
+
+import uapi.common.ArgumentChecker;
+import uapi.event.IBatchEventHandler;
+import uapi.event.IEvent;
+import uapi.log.ILogger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Collect events for a batch event handler and drain them to the handler in batches.
+ * A drain is started when the pending events reach the batch size or the batch window of the first pending event
+ * is elapsed, only one drain is running at the same time so the batches are delivered in order and the handler
+ * is not invoked concurrently.
+ */
+final class BatchCollector {
+
+    private final IBatchEventHandler<IEvent> _handler;
+    private final int _batchSize;
+    private final long _window;
+    private final Executor _executor;
+    private final ScheduledExecutorService _timer;
+    private final ILogger _logger;
+
+    // Guarded by this
+    private final ArrayDeque<IEvent> _pending = new ArrayDeque<>();
+    private boolean _draining;
+    private ScheduledFuture<?> _timeout;
+
+    @SuppressWarnings("unchecked")
+    BatchCollector(
+            final IBatchEventHandler<?> handler,
+            final Executor executor,
+            final ScheduledExecutorService timer,
+            final ILogger logger
+    ) {
+        ArgumentChecker.required(handler, "handler");
+        ArgumentChecker.required(executor, "executor");
+        ArgumentChecker.required(timer, "timer");
+        this._handler = (IBatchEventHandler<IEvent>) handler;
+        this._batchSize = handler.batchSize() > 0 ? handler.batchSize() : IBatchEventHandler.DEFAULT_BATCH_SIZE;
+        var window = handler.batchWindow() != null ? handler.batchWindow() : IBatchEventHandler.DEFAULT_BATCH_WINDOW;
+        this._window = window.milliseconds();
+        this._executor = executor;
+        this._timer = timer;
+        this._logger = logger;
+    }
+
+    void add(final IEvent event) {
+        ArgumentChecker.required(event, "event");
+        boolean startDrain;
+        synchronized (this) {
+            this._pending.add(event);
+            startDrain = scheduleDrain();
+        }
+        if (startDrain) {
+            startDrain();
+        }
+    }
+
+    void addAll(final Collection<? extends IEvent> events) {
+        ArgumentChecker.required(events, "events");
+        boolean startDrain;
+        synchronized (this) {
+            this._pending.addAll(events);
+            startDrain = scheduleDrain();
+        }
+        if (startDrain) {
+            startDrain();
+        }
+    }
+
+    synchronized int pendingCount() {
+        return this._pending.size();
+    }
+
+    /**
+     * Drain all pending events on current thread, it is used when the event bus is deactivated and
+     * the executors are terminated
+     */
+    void flush() {
+        List<IEvent> events;
+        synchronized (this) {
+            if (this._timeout != null) {
+                this._timeout.cancel(false);
+                this._timeout = null;
+            }
+            events = new ArrayList<>(this._pending);
+            this._pending.clear();
+        }
+        for (int i = 0; i < events.size(); i += this._batchSize) {
+            handle(events.subList(i, Math.min(i + this._batchSize, events.size())));
+        }
+    }
+
+    /**
+     * Decide whether to start a drain immediately, otherwise the drain is scheduled on the batch window.
+     * It must be invoked in the lock.
+     */
+    private boolean scheduleDrain() {
+        if (this._draining || this._pending.isEmpty()) {
+            return false;
+        }
+        if (this._pending.size() >= this._batchSize) {
+            if (this._timeout != null) {
+                this._timeout.cancel(false);
+                this._timeout = null;
+            }
+            this._draining = true;
+            return true;
+        }
+        scheduleTimeout();
+        return false;
+    }
+
+    /**
+     * Schedule a drain after the batch window, it must be invoked in the lock.
+     * The pending events are kept if the timer is shutdown, they are drained by flush method.
+     */
+    private void scheduleTimeout() {
+        if (this._timeout != null) {
+            return;
+        }
+        try {
+            this._timeout = this._timer.schedule(this::onTimeout, this._window, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            // The event bus is deactivating
+        }
+    }
+
+    private void onTimeout() {
+        synchronized (this) {
+            this._timeout = null;
+            if (this._draining || this._pending.isEmpty()) {
+                return;
+            }
+            this._draining = true;
+        }
+        startDrain();
+    }
+
+    private void startDrain() {
+        // The drain may be dropped by the overflow policy of the lane, the pending events are kept and
+        // the drain is retried after the batch window
+        var task = new FutureTask<Void>(this::drain, null) {
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    onDropped();
+                }
+            }
+        };
+        try {
+            this._executor.execute(task);
+        } catch (RejectedExecutionException ex) {
+            onDropped();
+        }
+    }
+
+    private synchronized void onDropped() {
+        this._draining = false;
+        if (! this._pending.isEmpty()) {
+            scheduleTimeout();
+        }
+    }
+
+    private void drain() {
+        var first = true;
+        while (true) {
+            List<IEvent> batch;
+            synchronized (this) {
+                // Only the first batch may be partial, the rest partial batch waits for the batch window
+                if (this._pending.isEmpty() || (! first && this._pending.size() < this._batchSize)) {
+                    this._draining = false;
+                    scheduleDrain();
+                    return;
+                }
+                var size = Math.min(this._batchSize, this._pending.size());
+                batch = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    batch.add(this._pending.poll());
+                }
+            }
+            first = false;
+            handle(batch);
+        }
+    }
+
+    private void handle(final List<IEvent> batch) {
+        try {
+            this._handler.handle(batch);
+        } catch (Exception ex) {
+            if (this._logger != null) {
+                this._logger.error(ex, "Handle event batch of topic {} failed", this._handler.topic());
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.event.internal;
+
+import uapi.common.ArgumentChecker;
+import uapi.event.ICoalescingPolicy;
+import uapi.event.IEvent;
+import uapi.log.ILogger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Coalesce the events of a topic by the coalescing policy.
+ * The first event of a key opens a window, the events of same key in the window are merged into the pending
+ * one, and the pending event is dispatched when the window is elapsed.
+ */
+final class Coalescer {
+
+    private final ICoalescingPolicy<IEvent> _policy;
+    private final long _window;
+    private final Consumer<IEvent> _dispatcher;
+    private final ScheduledExecutorService _timer;
+    private final ILogger _logger;
+
+    // Guarded by this
+    private final Map<Object, IEvent> _pending = new HashMap<>();
+
+    private final LongAdder _coalesced = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    Coalescer(
+            final ICoalescingPolicy<?> policy,
+            final Consumer<IEvent> dispatcher,
+            final ScheduledExecutorService timer,
+            final ILogger logger
+    ) {
+        ArgumentChecker.required(policy, "policy");
+        ArgumentChecker.required(policy.window(), "window");
+        ArgumentChecker.required(dispatcher, "dispatcher");
+        ArgumentChecker.required(timer, "timer");
+        this._policy = (ICoalescingPolicy<IEvent>) policy;
+        this._window = policy.window().milliseconds();
+        this._dispatcher = dispatcher;
+        this._timer = timer;
+        this._logger = logger;
+    }
+
+    /**
+     * Add the event into the pending events
+     *
+     * @param   event
+     *          The fired event
+     * @return  False means the event has no key and it should be dispatched directly
+     */
+    boolean add(final IEvent event) {
+        ArgumentChecker.required(event, "event");
+        var key = this._policy.keyOf(event);
+        if (key == null) {
+            return false;
+        }
+        synchronized (this) {
+            var pending = this._pending.get(key);
+            if (pending != null) {
+                this._pending.put(key, this._policy.merge(pending, event));
+                this._coalesced.increment();
+                return true;
+            }
+            this._pending.put(key, event);
+            try {
+                this._timer.schedule(() -> flush(key), this._window, TimeUnit.MILLISECONDS);
+                return true;
+            } catch (RejectedExecutionException ex) {
+                // The event bus is deactivating, dispatch the event directly
+                this._pending.remove(key);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Dispatch all pending events immediately, it is used when the policy is replaced or the event bus
+     * is deactivated
+     */
+    void flushAll() {
+        List<IEvent> events;
+        synchronized (this) {
+            events = new ArrayList<>(this._pending.values());
+            this._pending.clear();
+        }
+        events.forEach(this::dispatch);
+    }
+
+    synchronized int pendingCount() {
+        return this._pending.size();
+    }
+
+    long coalescedCount() {
+        return this._coalesced.sum();
+    }
+
+    private void flush(final Object key) {
+        IEvent event;
+        synchronized (this) {
+            event = this._pending.remove(key);
+        }
+        if (event != null) {
+            dispatch(event);
+        }
+    }
+
+    private void dispatch(final IEvent event) {
+        try {
+            this._dispatcher.accept(event);
+        } catch (Exception ex) {
+            if (this._logger != null) {
+                this._logger.error(ex, "Dispatch coalesced event of topic {} failed", event.topic());
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.event.internal;
+
+import uapi.common.ArgumentChecker;
+import uapi.event.IDispatchLane;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A dispatch lane runs event handling on its own threads with a bounded queue, the overflow policy is applied
+ * when the queue is full.
+ * The task which is dropped is cancelled if it is a future, so the caller which waits on it is not blocked forever.
+ * The task which is submitted from a thread of the lane itself is never blocked on the full queue, it runs on the
+ * caller thread instead since the thread which should take it from the queue is the caller.
+ */
+final class DispatchLane implements IDispatchLane {
+
+    // The lane which current thread belongs to
+    private static final ThreadLocal<DispatchLane> CURRENT_LANE = new ThreadLocal<>();
+
+    private final LaneOptions _options;
+    private final BlockingQueue<Runnable> _queue;
+    private final ThreadPoolExecutor _executor;
+
+    private final LongAdder _submitted = new LongAdder();
+    private final LongAdder _rejected = new LongAdder();
+    private final LongAdder _dropped = new LongAdder();
+
+    DispatchLane(final LaneOptions options) {
+        ArgumentChecker.required(options, "options");
+        this._options = options;
+        this._queue = new ArrayBlockingQueue<>(options.capacity());
+        var threadIdx = new AtomicInteger(0);
+        this._executor = new ThreadPoolExecutor(
+                options.threads(), options.threads(), 0L, TimeUnit.MILLISECONDS, this._queue,
+                runnable -> {
+                    Runnable laneRunnable = () -> {
+                        CURRENT_LANE.set(this);
+                        runnable.run();
+                    };
+                    var thread = new Thread(
+                            laneRunnable, "event-lane-" + options.name() + "-" + threadIdx.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                this::overflow);
+    }
+
+    void execute(final Runnable task) {
+        ArgumentChecker.required(task, "task");
+        this._submitted.increment();
+        this._executor.execute(task);
+    }
+
+    /**
+     * Check whether current thread is a thread of this lane
+     *
+     * @return  True means current thread is a thread of this lane
+     */
+    boolean isLaneThread() {
+        return CURRENT_LANE.get() == this;
+    }
+
+    void shutdown() {
+        this._executor.shutdown();
+    }
+
+    boolean awaitTermination(
+            final long timeout,
+            final TimeUnit unit
+    ) throws InterruptedException {
+        return this._executor.awaitTermination(timeout, unit);
+    }
+
+    private void overflow(
+            final Runnable task,
+            final ThreadPoolExecutor executor
+    ) {
+        if (executor.isShutdown()) {
+            drop(task);
+            return;
+        }
+        this._rejected.increment();
+        switch (this._options.overflow()) {
+            case BLOCK:
+                if (isLaneThread()) {
+                    // Blocking the lane thread on its own queue never returns
+                    task.run();
+                    break;
+                }
+                try {
+                    this._queue.put(task);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    drop(task);
+                    break;
+                }
+                // The lane may be shutdown while waiting on the queue, nobody takes the task anymore
+                if (executor.isShutdown() && this._queue.remove(task)) {
+                    drop(task);
+                }
+                break;
+            case DROP_OLDEST:
+                // Make room on the queue directly, resubmitting to the executor may be rejected again
+                while (! this._queue.offer(task)) {
+                    var oldest = this._queue.poll();
+                    if (oldest != null) {
+                        drop(oldest);
+                    }
+                }
+                if (executor.isShutdown() && this._queue.remove(task)) {
+                    drop(task);
+                }
+                break;
+            case DROP_NEWEST:
+                drop(task);
+                break;
+            case CALLER_RUNS:
+                task.run();
+                break;
+            default:
+                drop(task);
+        }
+    }
+
+    private void drop(final Runnable task) {
+        this._dropped.increment();
+        if (task instanceof Future) {
+            ((Future<?>) task).cancel(false);
+        }
+    }
+
+    @Override
+    public String name() {
+        return this._options.name();
+    }
+
+    @Override
+    public String[] topics() {
+        return this._options.topics();
+    }
+
+    @Override
+    public int queueDepth() {
+        return this._queue.size();
+    }
+
+    @Override
+    public int queueCapacity() {
+        return this._options.capacity();
+    }
+
+    @Override
+    public long submittedCount() {
+        return this._submitted.sum();
+    }
+
+    @Override
+    public long rejectedCount() {
+        return this._rejected.sum();
+    }
+
+    @Override
+    public long droppedCount() {
+        return this._dropped.sum();
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.event.internal;
+
+import uapi.GeneralException;
+import uapi.common.ArgumentChecker;
+import uapi.common.CollectionHelper;
+import uapi.config.IConfigValueParser;
+import uapi.rx.Looper;
+import uapi.service.Tags;
+import uapi.service.annotation.Service;
+import uapi.service.annotation.Tag;
+
+import java.util.*;
+
+/**
+ * Parse dispatch lane configuration which maps lane name to lane options, for example:
+ * event.lanes:
+ *   trace:
+ *     topics: [BehaviorTrace]
+ *     threads: 1
+ *     capacity: 1024
+ *     overflow: drop-oldest
+ * The threads, capacity and overflow are optional, the overflow is one of block, drop-oldest, drop-newest and
+ * caller-runs.
+ */
+@Service(IConfigValueParser.class)
+@Tag(Tags.EVENT)
+public class DispatchLanesParser implements IConfigValueParser {
+
+    private static final String TOPICS      = "topics";
+    private static final String THREADS     = "threads";
+    private static final String CAPACITY    = "capacity";
+    private static final String OVERFLOW    = "overflow";
+
+    private static final String[] supportedTypesIn = new String[] {
+            Map.class.getCanonicalName()
+    };
+    private static final String[] supportedTypesOut = new String[] {
+            List.class.getCanonicalName()
+    };
+
+    @Override
+    public String getName() {
+        return DispatchLanesParser.class.getName();
+    }
+
+    @Override
+    public boolean isSupport(String inType, String outType) {
+        return CollectionHelper.isContains(supportedTypesIn, inType) && CollectionHelper.isContains(supportedTypesOut, outType);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public List<LaneOptions> parse(Object value) {
+        ArgumentChecker.required(value, "value");
+        var laneCfgs = (Map<Object, Object>) value;
+        var lanes = new ArrayList<LaneOptions>();
+        var laneTopics = new HashSet<String>();
+        laneCfgs.forEach((name, cfgObj) -> {
+            if (! (cfgObj instanceof Map)) {
+                throw new GeneralException("The configuration of dispatch lane {} must be a map", name);
+            }
+            var laneCfg = (Map<Object, Object>) cfgObj;
+            var topics = parseTopics(name, laneCfg.get(TOPICS));
+            for (var topic : topics) {
+                if (! laneTopics.add(topic)) {
+                    throw new GeneralException("The topic {} is mapped to more than one dispatch lane", topic);
+                }
+            }
+            lanes.add(new LaneOptions(
+                    name.toString(),
+                    topics,
+                    parseInt(laneCfg.get(THREADS), LaneOptions.DEFAULT_THREADS),
+                    parseInt(laneCfg.get(CAPACITY), LaneOptions.DEFAULT_CAPACITY),
+                    laneCfg.get(OVERFLOW) == null ?
+                            LaneOptions.DEFAULT_OVERFLOW : OverflowPolicy.parse(laneCfg.get(OVERFLOW).toString())));
+        });
+        return lanes;
+    }
+
+    private String[] parseTopics(final Object name, final Object topicsObj) {
+        if (topicsObj instanceof Collection) {
+            return Looper.on((Collection<?>) topicsObj).map(Object::toString).toList().toArray(new String[0]);
+        }
+        if (topicsObj != null) {
+            return new String[] { topicsObj.toString() };
+        }
+        throw new GeneralException("No topic is configured for dispatch lane {}", name);
+    }
+
+    private int parseInt(final Object value, final int defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        return Integer.parseInt(value.toString());
+    }
+}
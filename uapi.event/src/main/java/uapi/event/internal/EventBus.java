@@ -12,6 +12,7 @@ package uapi.event.internal;
 import uapi.GeneralException;
 import uapi.service.Tags;
 import uapi.common.ArgumentChecker;
+import uapi.common.Guarder;
 import uapi.common.IAttributed;
 import uapi.common.IntervalTime;
 import uapi.config.annotation.Config;
@@ -21,9 +22,17 @@ import uapi.rx.Looper;
 import uapi.service.IServiceLifecycle;
 import uapi.service.annotation.*;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Event bus implementation
@@ -33,10 +42,17 @@ import java.util.concurrent.*;
 public class EventBus implements IEventBus, IServiceLifecycle {
 
     private static final IntervalTime DEFAULT_AWAIT_TIME = IntervalTime.parse("100s");
+    private static final String KEYED_LANE_PREFIX       = "keyed-";
 
     @Config(path="event.await-time", optional=true)
     protected IntervalTime _awaitTime;
 
+    @Config(path="event.lanes", parser=DispatchLanesParser.class, optional=true)
+    protected List<LaneOptions> _laneOptions;
+
+    @Config(path="event.keyed-partitions", optional=true)
+    protected Integer _keyedPartitions;
+
     @Inject
     @Optional
     protected List<IEventHandler> _eventHandlers = new CopyOnWriteArrayList<>();
@@ -46,17 +62,75 @@ public class EventBus implements IEventBus, IServiceLifecycle {
 
     private ForkJoinPool _fjPoll = new ForkJoinPool();
 
+    // The immutable handlers of each topic, it is read without lock and is replaced when the handlers
+    // of the topic are changed
+    private final Map<String, TopicHandlers> _handlerIndex = new ConcurrentHashMap<>();
+    private final Lock _handlerLock = new ReentrantLock();
+
+    // The dispatch lanes and the lane of each topic, the topic which has no lane is dispatched by the fork join pool
+    private volatile List<DispatchLane> _lanes = List.of();
+    private volatile Map<String, DispatchLane> _topicLanes = Map.of();
+    // The single thread lanes which keyed events are partitioned on, each lane is created on its first event
+    private volatile AtomicReferenceArray<DispatchLane> _partitions = new AtomicReferenceArray<>(0);
+
+    // The collector of each batch event handler
+    private final Map<IEventHandler, BatchCollector> _collectors = new ConcurrentHashMap<>();
+    // The coalescer of each topic which has coalescing policy
+    private final Map<String, Coalescer> _coalescers = new ConcurrentHashMap<>();
+    // The timer which drains the batch collectors and the coalescers on their windows
+    private ScheduledExecutorService _timer;
+
     @OnActivate
     protected void init() {
         if (this._awaitTime == null) {
             this._awaitTime = DEFAULT_AWAIT_TIME;
         }
+        // The handlers which are injected before activation are not indexed yet
+        Guarder.by(this._handlerLock).run(() -> {
+            this._handlerIndex.clear();
+            Looper.on(this._eventHandlers)
+                    .map(IEventHandler::topic)
+                    .foreach(this::indexHandlers);
+        });
+        var lanes = new ArrayList<DispatchLane>();
+        if (this._laneOptions != null) {
+            var topicLanes = new HashMap<String, DispatchLane>();
+            Looper.on(this._laneOptions).foreach(options -> {
+                var lane = new DispatchLane(options);
+                lanes.add(lane);
+                Looper.on(options.topics()).foreach(topic -> topicLanes.put(topic, lane));
+            });
+            this._topicLanes = topicLanes;
+        }
+        var partitionCount = this._keyedPartitions != null ?
+                this._keyedPartitions : Runtime.getRuntime().availableProcessors();
+        ArgumentChecker.checkInt(partitionCount, "keyedPartitions", 1, Integer.MAX_VALUE);
+        this._lanes = lanes;
+        this._partitions = new AtomicReferenceArray<>(partitionCount);
     }
 
     @OnDeactivate
     public void destroy() throws InterruptedException {
+        synchronized (this) {
+            if (this._timer != null) {
+                this._timer.shutdownNow();
+            }
+        }
+        // Dispatch the coalesced events before the executors are shutdown
+        Looper.on(this._coalescers.values()).foreach(Coalescer::flushAll);
         this._fjPoll.shutdown();
+        Looper.on(this._lanes).foreach(DispatchLane::shutdown);
         this._fjPoll.awaitTermination(this._awaitTime.seconds(), TimeUnit.SECONDS);
+        for (var lane : this._lanes) {
+            lane.awaitTermination(this._awaitTime.seconds(), TimeUnit.SECONDS);
+        }
+        // No drain is running now, deliver the events which are still waiting in batches
+        Looper.on(this._collectors.values()).foreach(BatchCollector::flush);
+    }
+
+    @Override
+    public List<IDispatchLane> lanes() {
+        return List.copyOf(this._lanes);
     }
 
     @Override
@@ -88,23 +162,181 @@ public class EventBus implements IEventBus, IServiceLifecycle {
     ) {
         ArgumentChecker.required(event, "event");
 
-        var handlers = findHandlers(event);
+        // The synchronous event is not coalesced since the caller waits for it
+        if (! syncable) {
+            var coalescer = this._coalescers.get(event.topic());
+            if (coalescer != null && coalescer.add(event)) {
+                return;
+            }
+        }
+        deliver(event, syncable);
+    }
+
+    private void deliver(
+            final IEvent event,
+            final boolean syncable
+    ) {
+        var topicHandlers = this._handlerIndex.get(event.topic());
+        var handlers = findHandlers(topicHandlers, event);
         if (handlers.size() == 0) {
             this._logger.warn("There are no event handler for event topic - {}", event.topic());
             return;
         }
 
+        // The keyed event is handled by all handlers on its partition to keep the order of its key, the batch
+        // handlers receive it in a batch of one event
+        if (! syncable && ! isPartitioned(event)) {
+            if (event instanceof IAttributed) {
+                handlers = collect(handlers, List.of(event));
+            } else {
+                collect(topicHandlers, event);
+                handlers = topicHandlers._plainHandlers;
+            }
+            if (handlers.size() == 0) {
+                return;
+            }
+        }
         var action = new HandleEventAction(handlers, event, syncable);
-        if (syncable) {
-            var task = this._fjPoll.submit(action);
-            try {
-                task.get();
-            } catch (InterruptedException | ExecutionException ex) {
-                throw new GeneralException(ex);
+        dispatch(action, syncable);
+    }
+
+    @Override
+    public void fireAll(
+            final Collection<? extends IEvent> events
+    ) {
+        ArgumentChecker.required(events, "events");
+
+        // Group the events by topic, the attributed, keyed and coalesced events are fired one by one since
+        // they are dispatched by their attributes and keys
+        var topicEvents = new LinkedHashMap<String, List<IEvent>>();
+        Looper.on(events).foreach(event -> {
+            ArgumentChecker.required(event, "event");
+            if (event instanceof IAttributed || event instanceof IKeyedEvent
+                    || this._coalescers.containsKey(event.topic())) {
+                fire(event, false);
+            } else {
+                topicEvents.computeIfAbsent(event.topic(), topic -> new ArrayList<>()).add(event);
             }
-        } else {
-            this._fjPoll.submit(action);
+        });
+        topicEvents.forEach((topic, topicEventList) -> {
+            var topicHandlers = this._handlerIndex.get(topic);
+            if (topicHandlers == null) {
+                this._logger.warn("There are no event handler for event topic - {}", topic);
+                return;
+            }
+            collect(topicHandlers, topicEventList);
+            var handlers = topicHandlers._plainHandlers;
+            if (handlers.size() == 0) {
+                return;
+            }
+            // All events of the topic are handled by one task in fired order
+            var action = new HandleEventsAction(handlers, topicEventList);
+            var lane = this._topicLanes.get(topic);
+            if (lane == null) {
+                this._fjPoll.execute(action);
+            } else {
+                lane.execute(action);
+            }
+        });
+    }
+
+    /**
+     * Add the event to the collectors of the batch event handlers of its topic
+     */
+    private void collect(
+            final TopicHandlers topicHandlers,
+            final IEvent event
+    ) {
+        var batchHandlers = topicHandlers._batchHandlers;
+        for (int i = 0; i < batchHandlers.size(); i++) {
+            collectorOf(batchHandlers.get(i)).add(event);
+        }
+    }
+
+    /**
+     * Add the events to the collectors of the batch event handlers of their topic
+     */
+    private void collect(
+            final TopicHandlers topicHandlers,
+            final List<IEvent> events
+    ) {
+        var batchHandlers = topicHandlers._batchHandlers;
+        for (int i = 0; i < batchHandlers.size(); i++) {
+            collectorOf(batchHandlers.get(i)).addAll(events);
+        }
+    }
+
+    /**
+     * Add the events to the collectors of the batch event handlers, it is used for the handlers which are
+     * filtered by event attributes
+     *
+     * @return  The handlers which are not batch event handler
+     */
+    private List<IEventHandler> collect(
+            final List<IEventHandler> handlers,
+            final List<IEvent> events
+    ) {
+        if (Looper.on(handlers).filter(handler -> handler instanceof IBatchEventHandler).first(null) == null) {
+            return handlers;
         }
+        var others = new ArrayList<IEventHandler>(handlers.size());
+        Looper.on(handlers).foreach(handler -> {
+            if (handler instanceof IBatchEventHandler) {
+                var collector = collectorOf((IBatchEventHandler) handler);
+                if (events.size() == 1) {
+                    collector.add(events.get(0));
+                } else {
+                    collector.addAll(events);
+                }
+            } else {
+                others.add(handler);
+            }
+        });
+        return others;
+    }
+
+    private BatchCollector collectorOf(final IBatchEventHandler<?> handler) {
+        return this._collectors.computeIfAbsent(handler, key -> {
+            var lane = this._topicLanes.get(handler.topic());
+            Executor executor = lane != null ? lane::execute : this._fjPoll::execute;
+            return new BatchCollector(handler, executor, timer(), this._logger);
+        });
+    }
+
+    private synchronized ScheduledExecutorService timer() {
+        if (this._timer == null) {
+            var timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+                var thread = new Thread(runnable, "event-timer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            timer.setRemoveOnCancelPolicy(true);
+            this._timer = timer;
+        }
+        return this._timer;
+    }
+
+    @Override
+    public boolean coalesce(final ICoalescingPolicy<?> policy) {
+        ArgumentChecker.required(policy, "policy");
+        ArgumentChecker.notEmpty(policy.topic(), "topic");
+        var coalescer = new Coalescer(policy, event -> deliver(event, false), timer(), this._logger);
+        var previous = this._coalescers.put(policy.topic(), coalescer);
+        if (previous != null) {
+            previous.flushAll();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean uncoalesce(final String topic) {
+        ArgumentChecker.required(topic, "topic");
+        var removed = this._coalescers.remove(topic);
+        if (removed == null) {
+            return false;
+        }
+        removed.flushAll();
+        return true;
     }
 
     @Override
@@ -122,7 +354,7 @@ public class EventBus implements IEventBus, IServiceLifecycle {
         }
 
         var action = new HandleEventAction(handlers, event, callback);
-        this._fjPoll.submit(action);
+        dispatch(action, false);
     }
 
     @Override
@@ -141,35 +373,159 @@ public class EventBus implements IEventBus, IServiceLifecycle {
         }
 
         var action = new HandleEventAction(handlers, event, callback);
+        dispatch(action, sync);
+    }
+
+    /**
+     * Dispatch the event by the lane of its topic or by the fork join pool if the topic has no lane.
+     * The handlers of the event are invoked one by one on the lane, so the event does not occupy other executors.
+     * The synchronous event which is fired by a handler on the thread of the target lane is handled on the
+     * caller thread directly, so a keyed handler can fire synchronous event of same key without deadlock, the
+     * event is handled before the events which are queued on the lane.
+     */
+    private void dispatch(
+            final HandleEventAction action,
+            final boolean sync
+    ) {
+        var lane = laneOf(action._event);
+        if (lane == null) {
+            if (sync) {
+                var task = this._fjPoll.submit(action);
+                try {
+                    task.get();
+                } catch (InterruptedException | ExecutionException ex) {
+                    throw new GeneralException(ex);
+                }
+            } else {
+                this._fjPoll.submit(action);
+            }
+            return;
+        }
+
+        if (sync && lane.isLaneThread()) {
+            action.handleAll();
+            return;
+        }
         if (sync) {
-            var task = this._fjPoll.submit(action);
+            var task = new FutureTask<Void>(action::handleAll, null);
+            lane.execute(task);
             try {
                 task.get();
+            } catch (CancellationException ex) {
+                throw new GeneralException(
+                        "The event {} was dropped by dispatch lane {}", action._event.topic(), lane.name());
             } catch (InterruptedException | ExecutionException ex) {
                 throw new GeneralException(ex);
             }
         } else {
-            this._fjPoll.submit(action);
+            lane.execute(action::handleAll);
+        }
+    }
+
+    /**
+     * Find out the lane which the event should be dispatched on, the keyed event is dispatched on the partition
+     * of its key even if its topic has a lane, since the ordering is the contract of keyed event.
+     */
+    private DispatchLane laneOf(final IEvent event) {
+        if (isPartitioned(event)) {
+            var partitions = this._partitions;
+            return partitionLane(partitions, partitionOf(((IKeyedEvent) event).key(), partitions.length()));
+        }
+        return this._topicLanes.get(event.topic());
+    }
+
+    private boolean isPartitioned(final IEvent event) {
+        return event instanceof IKeyedEvent
+                && ((IKeyedEvent) event).key() != null
+                && this._partitions.length() > 0;
+    }
+
+    /**
+     * Get the partition lane of specific index, the lane is created when the first event of the partition is
+     * fired. The partition lane always blocks on overflow since dropping or running on caller breaks the order.
+     */
+    private DispatchLane partitionLane(
+            final AtomicReferenceArray<DispatchLane> partitions,
+            final int index
+    ) {
+        var lane = partitions.get(index);
+        if (lane != null) {
+            return lane;
         }
+        synchronized (partitions) {
+            lane = partitions.get(index);
+            if (lane == null) {
+                lane = new DispatchLane(new LaneOptions(
+                        KEYED_LANE_PREFIX + index, new String[0], 1,
+                        LaneOptions.DEFAULT_CAPACITY, OverflowPolicy.BLOCK));
+                var lanes = new ArrayList<>(this._lanes);
+                lanes.add(lane);
+                this._lanes = lanes;
+                partitions.set(index, lane);
+            }
+        }
+        return lane;
+    }
+
+    static int partitionOf(final Object key, final int partitionCount) {
+        var hash = key.hashCode();
+        // Spread the high bits since the hash code of many keys only varies in high bits
+        return Math.floorMod(hash ^ (hash >>> 16), partitionCount);
     }
 
     @Override
     public void register(IEventHandler eventHandler) {
         ArgumentChecker.required(eventHandler, "eventHandler");
-        this._eventHandlers.add(eventHandler);
+        addHandler(eventHandler);
     }
 
     @Override
     public boolean unregister(IEventHandler eventHandler) {
         ArgumentChecker.required(eventHandler, "eventHandler");
-        return this._eventHandlers.remove(eventHandler);
+        this._handlerLock.lock();
+        try {
+            var removed = this._eventHandlers.remove(eventHandler);
+            if (removed) {
+                indexHandlers(eventHandler.topic());
+                this._collectors.remove(eventHandler);
+            }
+            return removed;
+        } finally {
+            this._handlerLock.unlock();
+        }
     }
 
-    private List<IEventHandler> findHandlers(IEvent event) {
-        var topic = event.topic();
+    private void addHandler(IEventHandler eventHandler) {
+        Guarder.by(this._handlerLock).run(() -> {
+            this._eventHandlers.add(eventHandler);
+            indexHandlers(eventHandler.topic());
+        });
+    }
+
+    /**
+     * Rebuild the handlers of the topic, the batch event handlers and other handlers are split here so the
+     * event firing does not split them again, it must be invoked in handler lock
+     */
+    private void indexHandlers(String topic) {
         var handlers = Looper.on(this._eventHandlers)
                 .filter(handler -> handler.topic().equals(topic))
                 .toList();
+        if (handlers.size() == 0) {
+            this._handlerIndex.remove(topic);
+        } else {
+            this._handlerIndex.put(topic, new TopicHandlers(handlers));
+        }
+    }
+
+    private List<IEventHandler> findHandlers(IEvent event) {
+        return findHandlers(this._handlerIndex.get(event.topic()), event);
+    }
+
+    private List<IEventHandler> findHandlers(
+            final TopicHandlers topicHandlers,
+            final IEvent event
+    ) {
+        List<IEventHandler> handlers = topicHandlers == null ? List.of() : topicHandlers._handlers;
         if (event instanceof IAttributed) {
             final var attributed = (IAttributed) event;
             handlers = Looper.on(handlers)
@@ -187,13 +543,66 @@ public class EventBus implements IEventBus, IServiceLifecycle {
             final String serviceId,
             final Object service) {
         if (IEventHandler.class.getCanonicalName().equals(serviceId) && service instanceof IEventHandler) {
-            this._eventHandlers.add((IEventHandler) service);
+            addHandler((IEventHandler) service);
         } else {
             throw new GeneralException(
                     "Unsupported dependency injection - {}, {}", service, service.getClass().getCanonicalName());
         }
     }
 
+    /**
+     * The immutable handlers of a topic
+     */
+    private static final class TopicHandlers {
+
+        private final List<IEventHandler> _handlers;
+        // The handlers which handle events one by one
+        private final List<IEventHandler> _plainHandlers;
+        // The handlers which handle events in batches by their collectors
+        private final List<IBatchEventHandler<?>> _batchHandlers;
+
+        private TopicHandlers(final List<IEventHandler> handlers) {
+            var plainHandlers = new ArrayList<IEventHandler>(handlers.size());
+            var batchHandlers = new ArrayList<IBatchEventHandler<?>>();
+            Looper.on(handlers).foreach(handler -> {
+                if (handler instanceof IBatchEventHandler) {
+                    batchHandlers.add((IBatchEventHandler<?>) handler);
+                } else {
+                    plainHandlers.add(handler);
+                }
+            });
+            this._handlers = List.copyOf(handlers);
+            this._plainHandlers = List.copyOf(plainHandlers);
+            this._batchHandlers = List.copyOf(batchHandlers);
+        }
+    }
+
+    /**
+     * Handle a list of events of same topic, each handler handles all events in order
+     */
+    private class HandleEventsAction implements Runnable {
+
+        private final List<IEventHandler> _handlers;
+        private final List<IEvent> _events;
+
+        private HandleEventsAction(List<IEventHandler> handlers, List<IEvent> events) {
+            this._handlers = handlers;
+            this._events = events;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void run() {
+            Looper.on(this._handlers).foreach(handler -> Looper.on(this._events).foreach(event -> {
+                try {
+                    handler.handle(event);
+                } catch (Exception ex) {
+                    EventBus.this._logger.error(ex);
+                }
+            }));
+        }
+    }
+
     private class HandleEventAction extends RecursiveAction {
 
         private final IEvent _event;
@@ -227,6 +636,27 @@ public class EventBus implements IEventBus, IServiceLifecycle {
             this._finCallback = callback;
         }
 
+        /**
+         * Invoke all handlers one by one on current thread
+         */
+        @SuppressWarnings("unchecked")
+        private void handleAll() {
+            Looper.on(this._handlers).foreach(handler -> {
+                try {
+                    handler.handle(this._event);
+                } catch (Exception ex) {
+                    EventBus.this._logger.error(ex);
+                }
+            });
+            if (this._waitType == WaitType.CALLBACK) {
+                try {
+                    this._finCallback.callback(this._event);
+                } catch (Exception ex) {
+                    EventBus.this._logger.error(ex);
+                }
+            }
+        }
+
         @Override
         protected void compute() {
             if (this._handlers.size() == 1) {
@@ -9,7 +9,7 @@
 
 package uapi.event.internal;
 
-import uapi.service.IServiceModulePortal;
+import uapi.event.generated.ServiceModulePortal_Generated;
 
-public class EventModulePortal implements IServiceModulePortal {
+public class EventModulePortal extends ServiceModulePortal_Generated {
 }
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.event.internal;
+
+import uapi.common.ArgumentChecker;
+
+/**
+ * The options of a dispatch lane
+ */
+final class LaneOptions {
+
+    static final int DEFAULT_THREADS               = 1;
+    static final int DEFAULT_CAPACITY              = 1024;
+    static final OverflowPolicy DEFAULT_OVERFLOW   = OverflowPolicy.BLOCK;
+
+    private final String _name;
+    private final String[] _topics;
+    private final int _threads;
+    private final int _capacity;
+    private final OverflowPolicy _overflow;
+
+    LaneOptions(
+            final String name,
+            final String[] topics,
+            final int threads,
+            final int capacity,
+            final OverflowPolicy overflow
+    ) {
+        ArgumentChecker.required(name, "name");
+        ArgumentChecker.required(topics, "topics");
+        ArgumentChecker.checkInt(threads, "threads", 1, Integer.MAX_VALUE);
+        ArgumentChecker.checkInt(capacity, "capacity", 1, Integer.MAX_VALUE);
+        ArgumentChecker.required(overflow, "overflow");
+        this._name = name;
+        this._topics = topics;
+        this._threads = threads;
+        this._capacity = capacity;
+        this._overflow = overflow;
+    }
+
+    String name() {
+        return this._name;
+    }
+
+    String[] topics() {
+        return this._topics;
+    }
+
+    int threads() {
+        return this._threads;
+    }
+
+    int capacity() {
+        return this._capacity;
+    }
+
+    OverflowPolicy overflow() {
+        return this._overflow;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.event.internal;
+
+import uapi.GeneralException;
+
+/**
+ * The policy which is applied when the queue of a dispatch lane is full
+ */
+enum OverflowPolicy {
+
+    /**
+     * Block the caller until the queue has room
+     */
+    BLOCK("block"),
+
+    /**
+     * Drop the oldest event in the queue and enqueue the new one
+     */
+    DROP_OLDEST("drop-oldest"),
+
+    /**
+     * Drop the new event
+     */
+    DROP_NEWEST("drop-newest"),
+
+    /**
+     * Handle the new event on the caller thread
+     */
+    CALLER_RUNS("caller-runs");
+
+    private final String _value;
+
+    OverflowPolicy(final String value) {
+        this._value = value;
+    }
+
+    String value() {
+        return this._value;
+    }
+
+    static OverflowPolicy parse(final String value) {
+        for (var policy : values()) {
+            if (policy._value.equalsIgnoreCase(value)) {
+                return policy;
+            }
+        }
+        throw new GeneralException("Unsupported overflow policy - {}", value);
+    }
+}
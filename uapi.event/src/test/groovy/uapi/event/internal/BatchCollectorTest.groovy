@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.event.internal
+
+import spock.lang.Specification
+import uapi.common.IntervalTime
+import uapi.event.IBatchEventHandler
+import uapi.event.IEvent
+import uapi.log.ILogger
+
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.ScheduledExecutorService
+
+/**
+ * Unit tests for BatchCollector
+ */
+class BatchCollectorTest extends Specification {
+
+    ScheduledExecutorService timer
+
+    def setup() {
+        timer = Executors.newSingleThreadScheduledExecutor()
+    }
+
+    def cleanup() {
+        timer.shutdownNow()
+    }
+
+    def 'Test drain when batch size is reached'() {
+        given:
+        def handler = Mock(IBatchEventHandler) {
+            batchSize() >> 3
+            batchWindow() >> IntervalTime.parse('10s')
+        }
+        def collector = new BatchCollector(handler, { it.run() } as Executor, timer, Mock(ILogger))
+        def events = (0..<7).collect { Mock(IEvent) }
+
+        when:
+        events.each { collector.add(it) }
+
+        then:
+        1 * handler.handle(events[0..2])
+
+        then:
+        1 * handler.handle(events[3..5])
+        collector.pendingCount() == 1
+    }
+
+    def 'Test drain when batch window is elapsed'() {
+        given:
+        def handler = Mock(IBatchEventHandler) {
+            batchSize() >> 10
+            batchWindow() >> IntervalTime.parse('50ms')
+        }
+        def collector = new BatchCollector(handler, { it.run() } as Executor, timer, Mock(ILogger))
+        def event1 = Mock(IEvent)
+        def event2 = Mock(IEvent)
+
+        when:
+        collector.addAll([event1, event2])
+        Thread.sleep(300)
+
+        then:
+        1 * handler.handle([event1, event2])
+        collector.pendingCount() == 0
+    }
+
+    def 'Test default batch options'() {
+        given:
+        def handler = Mock(IBatchEventHandler)
+
+        when:
+        def collector = new BatchCollector(handler, { it.run() } as Executor, timer, Mock(ILogger))
+
+        then:
+        collector._batchSize == IBatchEventHandler.DEFAULT_BATCH_SIZE
+        collector._window == IBatchEventHandler.DEFAULT_BATCH_WINDOW.milliseconds()
+    }
+
+    def 'Test flush pending events'() {
+        given:
+        def handler = Mock(IBatchEventHandler) {
+            batchSize() >> 2
+            batchWindow() >> IntervalTime.parse('10s')
+        }
+        def executor = { throw new RejectedExecutionException() } as Executor
+        def collector = new BatchCollector(handler, executor, timer, Mock(ILogger))
+        def events = (0..<3).collect { Mock(IEvent) }
+
+        when:
+        collector.addAll(events)
+
+        then:
+        0 * handler.handle(_)
+        collector.pendingCount() == 3
+
+        when:
+        collector.flush()
+
+        then:
+        1 * handler.handle(events[0..1])
+
+        then:
+        1 * handler.handle([events[2]])
+        collector.pendingCount() == 0
+    }
+
+    def 'Test handle batch failed'() {
+        given:
+        def logger = Mock(ILogger)
+        def handler = Mock(IBatchEventHandler) {
+            batchSize() >> 1
+            topic() >> 'Topic'
+        }
+        def collector = new BatchCollector(handler, { it.run() } as Executor, timer, logger)
+        def event1 = Mock(IEvent)
+        def event2 = Mock(IEvent)
+
+        when:
+        collector.add(event1)
+        collector.add(event2)
+
+        then:
+        1 * handler.handle([event1]) >> { throw new RuntimeException() }
+        1 * logger.error(_ as RuntimeException, _ as String, 'Topic')
+        1 * handler.handle([event2])
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.event.internal
+
+import spock.lang.Specification
+import uapi.common.IntervalTime
+import uapi.event.ICoalescingPolicy
+import uapi.event.IEvent
+import uapi.log.ILogger
+
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+
+/**
+ * Unit tests for Coalescer
+ */
+class CoalescerTest extends Specification {
+
+    ScheduledExecutorService timer
+
+    def setup() {
+        timer = Executors.newSingleThreadScheduledExecutor()
+    }
+
+    def cleanup() {
+        timer.shutdownNow()
+    }
+
+    def 'Test replace pending event'() {
+        given:
+        def dispatched = Collections.synchronizedList([])
+        def policy = Mock(ICoalescingPolicy) {
+            window() >> IntervalTime.parse('100ms')
+            keyOf(_) >> { IEvent event -> event.topic() }
+            merge(_, _) >> { IEvent pending, IEvent newer -> newer }
+        }
+        def coalescer = new Coalescer(policy, { dispatched << it }, timer, Mock(ILogger))
+        def events = (0..<5).collect { Mock(IEvent) { topic() >> 'Topic' } }
+        def other = Mock(IEvent) { topic() >> 'Other' }
+
+        when:
+        events.each { coalescer.add(it) }
+        coalescer.add(other)
+
+        then:
+        coalescer.pendingCount() == 2
+        coalescer.coalescedCount() == 4
+        dispatched.size() == 0
+
+        when:
+        Thread.sleep(300)
+
+        then:
+        dispatched.size() == 2
+        dispatched.containsAll([events[4], other])
+        coalescer.pendingCount() == 0
+    }
+
+    def 'Test merge pending event'() {
+        given:
+        def dispatched = Collections.synchronizedList([])
+        def merged = Mock(IEvent)
+        def policy = Mock(ICoalescingPolicy) {
+            window() >> IntervalTime.parse('10s')
+            keyOf(_) >> 'key'
+        }
+        def coalescer = new Coalescer(policy, { dispatched << it }, timer, Mock(ILogger))
+        def event1 = Mock(IEvent)
+        def event2 = Mock(IEvent)
+
+        when:
+        coalescer.add(event1)
+        coalescer.add(event2)
+        coalescer.flushAll()
+
+        then:
+        1 * policy.merge(event1, event2) >> merged
+        dispatched == [merged]
+    }
+
+    def 'Test event without key'() {
+        given:
+        def policy = Mock(ICoalescingPolicy) {
+            window() >> IntervalTime.parse('10s')
+            keyOf(_) >> null
+        }
+        def coalescer = new Coalescer(policy, { }, timer, Mock(ILogger))
+
+        expect:
+        ! coalescer.add(Mock(IEvent))
+        coalescer.pendingCount() == 0
+    }
+
+    def 'Test add event after timer is shutdown'() {
+        given:
+        def policy = Mock(ICoalescingPolicy) {
+            window() >> IntervalTime.parse('10s')
+            keyOf(_) >> 'key'
+        }
+        def coalescer = new Coalescer(policy, { }, timer, Mock(ILogger))
+        timer.shutdownNow()
+
+        expect:
+        ! coalescer.add(Mock(IEvent))
+        coalescer.pendingCount() == 0
+    }
+}
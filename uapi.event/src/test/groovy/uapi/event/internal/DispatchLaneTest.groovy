@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.event.internal
+
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.FutureTask
+import java.util.concurrent.TimeUnit
+
+/**
+ * Unit tests for DispatchLane
+ */
+class DispatchLaneTest extends Specification {
+
+    def 'Test execute task'() {
+        given:
+        def lane = new DispatchLane(new LaneOptions('test', ['Topic'] as String[], 1, 4, OverflowPolicy.BLOCK))
+        def latch = new CountDownLatch(2)
+
+        when:
+        lane.execute({ latch.countDown() })
+        lane.execute({ latch.countDown() })
+
+        then:
+        latch.await(1, TimeUnit.SECONDS)
+        lane.submittedCount() == 2
+        lane.rejectedCount() == 0
+        lane.queueCapacity() == 4
+        lane.name() == 'test'
+        lane.topics() == ['Topic'] as String[]
+
+        cleanup:
+        lane.shutdown()
+    }
+
+    def 'Test overflow policy'() {
+        given:
+        def lane = new DispatchLane(new LaneOptions('test', ['Topic'] as String[], 1, 1, policy))
+        def blocker = new CountDownLatch(1)
+        def executed = Collections.synchronizedList([])
+        lane.execute({ blocker.await() })
+        // Wait the first task is taken by the thread
+        while (lane.queueDepth() != 0) { Thread.sleep(10) }
+        lane.execute({ executed << 'old' })
+
+        when:
+        lane.execute({ executed << 'new' })
+        blocker.countDown()
+        lane.shutdown()
+        lane.awaitTermination(1, TimeUnit.SECONDS)
+
+        then:
+        executed == expected
+        lane.rejectedCount() == 1
+        lane.droppedCount() == dropped
+
+        where:
+        policy                      | expected          | dropped
+        OverflowPolicy.DROP_OLDEST  | ['new']           | 1
+        OverflowPolicy.DROP_NEWEST  | ['old']           | 1
+        OverflowPolicy.CALLER_RUNS  | ['new', 'old']    | 0
+    }
+
+    def 'Test block when queue is full'() {
+        given:
+        def lane = new DispatchLane(new LaneOptions('test', ['Topic'] as String[], 1, 1, OverflowPolicy.BLOCK))
+        def blocker = new CountDownLatch(1)
+        def executed = Collections.synchronizedList([])
+        lane.execute({ blocker.await() })
+        while (lane.queueDepth() != 0) { Thread.sleep(10) }
+        lane.execute({ executed << 'old' })
+
+        when:
+        def caller = Thread.start { lane.execute({ executed << 'new' }) }
+        Thread.sleep(100)
+
+        then:
+        caller.isAlive()
+        lane.queueDepth() == 1
+
+        when:
+        blocker.countDown()
+        caller.join(1000)
+        lane.shutdown()
+        lane.awaitTermination(1, TimeUnit.SECONDS)
+
+        then:
+        executed == ['old', 'new']
+        lane.rejectedCount() == 1
+        lane.droppedCount() == 0
+    }
+
+    def 'Test drop blocked task when lane is shutdown'() {
+        given:
+        def lane = new DispatchLane(new LaneOptions('test', ['Topic'] as String[], 1, 1, OverflowPolicy.BLOCK))
+        def blocker = new CountDownLatch(1)
+        def oldBlocker = new CountDownLatch(1)
+        def executed = Collections.synchronizedList([])
+        lane.execute({ blocker.await() })
+        while (lane.queueDepth() != 0) { Thread.sleep(10) }
+        lane.execute({ executed << 'old'; oldBlocker.await() })
+        def caller = Thread.start { lane.execute({ executed << 'new' }) }
+        Thread.sleep(100)
+
+        when:
+        lane.shutdown()
+        blocker.countDown()
+        caller.join(1000)
+        oldBlocker.countDown()
+        lane.awaitTermination(1, TimeUnit.SECONDS)
+
+        then:
+        ! caller.isAlive()
+        executed == ['old']
+        lane.rejectedCount() == 1
+        lane.droppedCount() == 1
+    }
+
+    def 'Test run task on lane thread when queue is full'() {
+        given:
+        def lane = new DispatchLane(new LaneOptions('test', ['Topic'] as String[], 1, 1, OverflowPolicy.BLOCK))
+        def executed = Collections.synchronizedList([])
+        def finished = new CountDownLatch(1)
+
+        when:
+        lane.execute({
+            lane.execute({ executed << 'queued' })
+            lane.execute({ executed << 'overflow' })
+            finished.countDown()
+        })
+
+        then:
+        finished.await(1, TimeUnit.SECONDS)
+        lane.rejectedCount() == 1
+
+        when:
+        lane.shutdown()
+        lane.awaitTermination(1, TimeUnit.SECONDS)
+
+        then:
+        executed == ['overflow', 'queued']
+        lane.droppedCount() == 0
+    }
+
+    def 'Test cancel dropped future'() {
+        given:
+        def lane = new DispatchLane(new LaneOptions('test', ['Topic'] as String[], 1, 1, OverflowPolicy.DROP_OLDEST))
+        def blocker = new CountDownLatch(1)
+        lane.execute({ blocker.await() })
+        while (lane.queueDepth() != 0) { Thread.sleep(10) }
+        def future = new FutureTask({ 'old' })
+        lane.execute(future)
+
+        when:
+        lane.execute({ })
+
+        then:
+        future.isCancelled()
+
+        cleanup:
+        blocker.countDown()
+        lane.shutdown()
+    }
+}
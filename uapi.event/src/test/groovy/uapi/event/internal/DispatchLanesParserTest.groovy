@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.event.internal
+
+import spock.lang.Specification
+import uapi.GeneralException
+
+/**
+ * Unit tests for DispatchLanesParser
+ */
+class DispatchLanesParserTest extends Specification {
+
+    def 'Test get name'() {
+        expect:
+        new DispatchLanesParser().getName() == DispatchLanesParser.class.getName()
+    }
+
+    def 'Test is support'() {
+        expect:
+        new DispatchLanesParser().isSupport(Map.class.canonicalName, List.class.canonicalName)
+        ! new DispatchLanesParser().isSupport(List.class.canonicalName, List.class.canonicalName)
+    }
+
+    def 'Test parse'() {
+        when:
+        def lanes = new DispatchLanesParser().parse([
+                trace: [topics: ['BehaviorTrace', 'Trace'], threads: 2, capacity: 10, overflow: 'drop-oldest'],
+                other: [topics: 'Other']
+        ])
+
+        then:
+        lanes.size() == 2
+        lanes[0].name() == 'trace'
+        lanes[0].topics() == ['BehaviorTrace', 'Trace'] as String[]
+        lanes[0].threads() == 2
+        lanes[0].capacity() == 10
+        lanes[0].overflow() == OverflowPolicy.DROP_OLDEST
+        lanes[1].name() == 'other'
+        lanes[1].topics() == ['Other'] as String[]
+        lanes[1].threads() == LaneOptions.DEFAULT_THREADS
+        lanes[1].capacity() == LaneOptions.DEFAULT_CAPACITY
+        lanes[1].overflow() == LaneOptions.DEFAULT_OVERFLOW
+    }
+
+    def 'Test parse invalid configuration'() {
+        when:
+        new DispatchLanesParser().parse(config)
+
+        then:
+        thrown(GeneralException)
+
+        where:
+        config << [
+                [trace: 'BehaviorTrace'],
+                [trace: [threads: 1]],
+                [trace: [topics: 'Trace', overflow: 'unknown']],
+                [trace: [topics: 'Trace'], other: [topics: ['Other', 'Trace']]]
+        ]
+    }
+}
@@ -11,12 +11,19 @@ package uapi.event.internal
 
 import spock.lang.Specification
 import uapi.common.IAttributed
+import uapi.common.IntervalTime
 import uapi.event.IAttributedEventHandler
+import uapi.event.IBatchEventHandler
+import uapi.event.ICoalescingPolicy
 import uapi.event.IEvent
 import uapi.event.IEventFinishCallback
 import uapi.event.IEventHandler
+import uapi.event.IKeyedEvent
 import uapi.log.ILogger
 
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
 class EventBusTest extends Specification{
 
     def 'Test fire when no event handler'() {
@@ -226,5 +233,373 @@ class EventBusTest extends Specification{
         'Topic'     | null
     }
 
+    def 'Test find handlers by topic index'() {
+        given:
+        IEventHandler handler1 = Mock(IEventHandler) {
+            topic() >> 'Topic1'
+        }
+        IEventHandler handler2 = Mock(IEventHandler) {
+            topic() >> 'Topic2'
+        }
+        IEventHandler handler3 = Mock(IEventHandler) {
+            topic() >> 'Topic1'
+        }
+        IEvent event = Mock(IEvent) {
+            topic() >> 'Topic1'
+        }
+        EventBus eventBus = new EventBus()
+        eventBus.register(handler1)
+        eventBus.register(handler2)
+        eventBus.register(handler3)
+
+        when:
+        def found = eventBus.findHandlers(event)
+
+        then:
+        found == [handler1, handler3]
+        eventBus.findHandlers(event).is(found)
+
+        when:
+        eventBus.unregister(handler1)
+        eventBus.unregister(handler3)
+
+        then:
+        eventBus.findHandlers(event).size() == 0
+        eventBus._handlerIndex.size() == 1
+    }
+
+    def 'Test index injected handlers on activation'() {
+        given:
+        IEventHandler handler = Mock(IEventHandler) {
+            topic() >> 'Topic'
+        }
+        IEvent event = Mock(IEvent) {
+            topic() >> 'Topic'
+        }
+        EventBus eventBus = new EventBus()
+        eventBus._eventHandlers.add(handler)
+
+        when:
+        eventBus.init()
+
+        then:
+        eventBus.findHandlers(event) == [handler]
+
+        when:
+        eventBus.onDependencyInject(IEventHandler.canonicalName, Mock(IEventHandler) {
+            topic() >> 'Topic'
+        })
+
+        then:
+        eventBus.findHandlers(event).size() == 2
+    }
+
+    def 'Test fire event to dispatch lane'() {
+        given:
+        IEvent event = Mock(IEvent) {
+            topic() >> 'Topic'
+        }
+        String threadName = null
+        IEventHandler handler = Mock(IEventHandler) {
+            topic() >> 'Topic'
+        }
+        IEventFinishCallback callback = Mock(IEventFinishCallback)
+        EventBus eventBus = new EventBus()
+        eventBus._logger = Mock(ILogger)
+        eventBus._laneOptions = [new LaneOptions('lane', ['Topic'] as String[], 1, 10, OverflowPolicy.BLOCK)]
+        eventBus.init()
+        eventBus.register(handler)
+
+        when:
+        eventBus.fire(event, callback, true)
+
+        then:
+        1 * handler.handle(event) >> { threadName = Thread.currentThread().getName() }
+        1 * callback.callback(event)
+        threadName == 'event-lane-lane-1'
+        eventBus.lanes().find { it.name() == 'lane' }.submittedCount() == 1
+
+        cleanup:
+        eventBus.destroy()
+    }
+
+    def 'Test fire keyed events in order'() {
+        given:
+        def keys = ['a', 'b', 'c', 'd', 'e']
+        def handled = keys.collectEntries { [(it): Collections.synchronizedList([])] }
+        IEventHandler handler = Mock(IEventHandler) {
+            topic() >> 'Topic'
+            handle(_) >> { IKeyedEvent event -> handled[event.key()] << event.seq }
+        }
+        EventBus eventBus = new EventBus()
+        eventBus._logger = Mock(ILogger)
+        eventBus._keyedPartitions = 4
+        eventBus.init()
+        eventBus.register(handler)
+
+        expect:
+        eventBus.lanes().size() == 0
+
+        when:
+        (0..<100).each { seq ->
+            keys.each { key -> eventBus.fire(new KeyedEvent(key, seq)) }
+        }
+        eventBus.destroy()
+
+        then:
+        keys.every { key -> handled[key] == (0..<100).toList() }
+        eventBus.lanes().findAll { it.name().startsWith('keyed-') }.size() == 4
+        eventBus.lanes().sum { it.submittedCount() } == 500
+    }
+
+    def 'Test fire keyed sync event from handler of same key'() {
+        given:
+        def handled = Collections.synchronizedList([])
+        def finished = new CountDownLatch(1)
+        EventBus eventBus = new EventBus()
+        IEventHandler handler = Mock(IEventHandler) {
+            topic() >> 'Topic'
+            handle(_) >> { IKeyedEvent event ->
+                handled << event.seq
+                if (event.seq == 0) {
+                    eventBus.fire(new KeyedEvent(event.key(), 1), true)
+                    finished.countDown()
+                }
+            }
+        }
+        eventBus._logger = Mock(ILogger)
+        eventBus._keyedPartitions = 1
+        eventBus.init()
+        eventBus.register(handler)
+
+        when:
+        eventBus.fire(new KeyedEvent('a', 0))
+
+        then:
+        finished.await(1, TimeUnit.SECONDS)
+        handled == [0, 1]
+
+        cleanup:
+        eventBus.destroy()
+    }
+
+    def 'Test fire keyed events to batch handler in order'() {
+        given:
+        def handled = Collections.synchronizedList([])
+        IBatchEventHandler handler = Mock(IBatchEventHandler) {
+            topic() >> 'Topic'
+            batchSize() >> 10
+            batchWindow() >> IntervalTime.parse('10s')
+            handle(_ as IKeyedEvent) >> { IKeyedEvent event -> handled << event.seq }
+        }
+        EventBus eventBus = new EventBus()
+        eventBus._logger = Mock(ILogger)
+        eventBus._keyedPartitions = 2
+        eventBus.init()
+        eventBus.register(handler)
+
+        when:
+        (0..<10).each { seq -> eventBus.fire(new KeyedEvent('a', seq)) }
+        eventBus.destroy()
+
+        then:
+        handled == (0..<10).toList()
+        eventBus._collectors.size() == 0
+        eventBus.lanes().size() == 1
+        0 * handler.handle(_ as List)
+    }
+
+    def 'Test partition of key'() {
+        expect:
+        EventBus.partitionOf(key, 4) == EventBus.partitionOf(key, 4)
+        EventBus.partitionOf(key, 4) >= 0
+        EventBus.partitionOf(key, 4) < 4
+
+        where:
+        key << ['a', 1, -1L, Integer.MIN_VALUE]
+    }
+
+    def 'Test fire all events'() {
+        given:
+        def events = (0..<5).collect { seq -> Mock(IEvent) { topic() >> (seq % 2 == 0 ? 'Topic' : 'Other') } }
+        def handled = Collections.synchronizedList([])
+        IEventHandler handler = Mock(IEventHandler) {
+            topic() >> 'Topic'
+            handle(_) >> { IEvent event -> handled << event }
+        }
+        def logger = Mock(ILogger)
+        EventBus eventBus = new EventBus()
+        eventBus._logger = logger
+        eventBus.init()
+        eventBus.register(handler)
+
+        when:
+        eventBus.fireAll(events)
+        eventBus.destroy()
+
+        then:
+        handled == [events[0], events[2], events[4]]
+        1 * logger.warn(_ as String, 'Other')
+    }
+
+    def 'Test fire events to batch handler'() {
+        given:
+        def events = (0..<5).collect { Mock(IEvent) { topic() >> 'Topic' } }
+        def batches = Collections.synchronizedList([])
+        IBatchEventHandler handler = Mock(IBatchEventHandler) {
+            topic() >> 'Topic'
+            batchSize() >> 2
+            batchWindow() >> IntervalTime.parse('10s')
+            handle(_ as List) >> { List batch -> batches << batch }
+        }
+        EventBus eventBus = new EventBus()
+        eventBus._logger = Mock(ILogger)
+        eventBus.init()
+        eventBus.register(handler)
+
+        when:
+        eventBus.fire(events[0])
+        eventBus.fireAll(events[1..4])
+        eventBus.destroy()
+
+        then:
+        batches == [events[0..1], events[2..3], [events[4]]]
+        eventBus._collectors.size() == 1
+
+        when:
+        eventBus.unregister(handler)
+
+        then:
+        eventBus._collectors.size() == 0
+    }
+
+    def 'Test fire sync or callback event to batch handler immediately'() {
+        given:
+        def events = (0..<3).collect { Mock(IEvent) { topic() >> 'Topic' } }
+        def batches = Collections.synchronizedList([])
+        IBatchEventHandler handler = Mock(IBatchEventHandler) {
+            topic() >> 'Topic'
+            batchSize() >> 10
+            batchWindow() >> IntervalTime.parse('10s')
+            handle(_ as IEvent) >> { IEvent event -> batches << [event] }
+        }
+        IEventFinishCallback callback = Mock(IEventFinishCallback)
+        EventBus eventBus = new EventBus()
+        eventBus._logger = Mock(ILogger)
+        eventBus.init()
+        eventBus.register(handler)
+
+        when:
+        eventBus.fire(events[0], true)
+        eventBus.fire(events[1], callback, true)
+
+        then:
+        batches == [[events[0]], [events[1]]]
+        1 * callback.callback(events[1])
+        eventBus._collectors.size() == 0
+
+        when:
+        eventBus.fire(events[2])
+
+        then:
+        eventBus._collectors.size() == 1
+        eventBus._collectors.values().first().pendingCount() == 1
+
+        cleanup:
+        eventBus.destroy()
+    }
+
+    def 'Test split batch handlers in topic index'() {
+        given:
+        IBatchEventHandler batchHandler = Mock(IBatchEventHandler) {
+            topic() >> 'Topic'
+        }
+        IEventHandler handler = Mock(IEventHandler) {
+            topic() >> 'Topic'
+        }
+        EventBus eventBus = new EventBus()
+        eventBus.register(batchHandler)
+        eventBus.register(handler)
+
+        when:
+        def topicHandlers = eventBus._handlerIndex.get('Topic')
+
+        then:
+        topicHandlers._handlers == [batchHandler, handler]
+        topicHandlers._plainHandlers == [handler]
+        topicHandlers._batchHandlers == [batchHandler]
+
+        when:
+        eventBus.unregister(batchHandler)
+        topicHandlers = eventBus._handlerIndex.get('Topic')
+
+        then:
+        topicHandlers._plainHandlers == [handler]
+        topicHandlers._batchHandlers == []
+    }
+
+    def 'Test coalesce events'() {
+        given:
+        def handled = Collections.synchronizedList([])
+        IEventHandler handler = Mock(IEventHandler) {
+            topic() >> 'Topic'
+            handle(_) >> { IKeyedEvent event -> handled << event }
+        }
+        ICoalescingPolicy policy = Mock(ICoalescingPolicy) {
+            topic() >> 'Topic'
+            window() >> IntervalTime.parse('10s')
+            keyOf(_) >> { IKeyedEvent event -> event.key() }
+            merge(_, _) >> { IKeyedEvent pending, IKeyedEvent newer -> newer }
+        }
+        EventBus eventBus = new EventBus()
+        eventBus._logger = Mock(ILogger)
+        eventBus.init()
+        eventBus.register(handler)
+        def applied = eventBus.coalesce(policy)
+
+        when:
+        (0..<10).each { seq ->
+            eventBus.fire(new KeyedEvent('a', seq))
+            eventBus.fire(new KeyedEvent('b', seq))
+        }
+        eventBus.fireAll([new KeyedEvent('a', 10)])
+
+        then:
+        applied
+        handled.size() == 0
+        eventBus._coalescers['Topic'].pendingCount() == 2
+
+        when:
+        eventBus.uncoalesce('Topic')
+        eventBus.fire(new KeyedEvent('a', 11))
+        eventBus.destroy()
+
+        then:
+        handled.size() == 3
+        handled.findAll { it.key == 'a' }*.seq == [10, 11]
+        handled.find { it.key == 'b' }.seq == 9
+    }
+
+    static class KeyedEvent implements IKeyedEvent {
+
+        final String key
+        final int seq
+
+        KeyedEvent(String key, int seq) {
+            this.key = key
+            this.seq = seq
+        }
+
+        @Override
+        Object key() {
+            return key
+        }
+
+        @Override
+        String topic() {
+            return 'Topic'
+        }
+    }
+
     interface IAttributedEvent extends IEvent, IAttributed {}
 }
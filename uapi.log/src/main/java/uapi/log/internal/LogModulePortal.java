@@ -9,7 +9,7 @@
 
 package uapi.log.internal;
 
-import uapi.service.IServiceModulePortal;
+import uapi.log.generated.ServiceModulePortal_Generated;
 
-public class LogModulePortal implements IServiceModulePortal {
+public class LogModulePortal extends ServiceModulePortal_Generated {
 }
@@ -260,7 +260,15 @@ class InjectParser {
         return typeArgs;
     }
 
-    private void implementGetDependenciesForClass(ClassMeta.Builder classBuilder, Template temp) {
+    /**
+     * Receive dependencies of specific class, the optional flag of the dependency is only correct after
+     * all Optional annotations are handled
+     *
+     * @param   classBuilder
+     *          The class builder
+     * @return  The dependency list
+     */
+    static List<DependencyModel> dependenciesOf(ClassMeta.Builder classBuilder) {
         // Receive service dependency id list
         List<MethodMeta.Builder> setterBuilders = classBuilder.findSetterBuilders();
         List<DependencyModel> dependencies = Looper.on(setterBuilders)
@@ -271,18 +279,26 @@ class InjectParser {
                             setterBuilder.getInjectId(),
                             setterBuilder.getInjectType());
                     depModel.setSingle(setterBuilder.getIsSingle());
+                    depModel.setOptional(setterBuilder.getIsOptional());
                     return depModel;
                 })
                 .toList();
         List<InjectMethod> injectMethods = classBuilder.getTransience(INJECT_METHODS);
         if (injectMethods != null && injectMethods.size() > 0) {
             Looper.on(injectMethods).foreach(injectMethod -> {
-                dependencies.add(new DependencyModel(
+                var depModel = new DependencyModel(
                         QualifiedServiceId.combine(injectMethod.injectId(), injectMethod.injectFrom()),
                         injectMethod.injectId(),
-                        injectMethod.injectType()));
+                        injectMethod.injectType());
+                depModel.setOptional(injectMethod.isOptional());
+                dependencies.add(depModel);
             });
         }
+        return dependencies;
+    }
+
+    private void implementGetDependenciesForClass(ClassMeta.Builder classBuilder, Template temp) {
+        var dependencies = dependenciesOf(classBuilder);
         // Check duplicated dependency
         dependencies.stream()
                 .collect(Collectors.groupingBy(p -> p, Collectors.summingInt(p -> 1)))
@@ -340,9 +356,14 @@ class InjectParser {
         if (setterModels.size() == 0) {
             return;
         }
+        // The injection is dispatched on distinct id, the first setter wins if more setters use same id
+        Set<String> injectIds = new HashSet<>();
+        var setterCases = Looper.on(setterModels)
+                .filter(setterModel -> injectIds.add(setterModel.getInjectId()))
+                .toList();
 
         var tempModel = new HashMap<String, Object>();
-        tempModel.put("setters", setterModels);
+        tempModel.put("setters", setterCases);
         classBuilder
                 .addImplement(IInjectable.class.getCanonicalName())
                 .overrideMethodBuilder(MethodMeta.builder()
@@ -465,6 +486,7 @@ class InjectParser {
         private String _svcId;
         private String _svcType;
         private boolean _single;
+        private boolean _optional;
 
         private DependencyModel(
                 final String qualifiedServiceId,
@@ -499,5 +521,13 @@ class InjectParser {
         public boolean getSingle() {
             return this._single;
         }
+
+        public void setOptional(boolean optional) {
+            this._optional = optional;
+        }
+
+        public boolean getOptional() {
+            return this._optional;
+        }
     }
 }
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.service.internal;
+
+import uapi.GeneralException;
+import uapi.common.ArgumentChecker;
+import uapi.service.QualifiedServiceId;
+
+import java.util.*;
+
+/**
+ * The dependency graph of all services in a module, it is computed at compile time.
+ * A dependency is static only if it is a single local dependency which is provided by exactly one non-prototype
+ * service in the same module, other dependencies like external, FROM_ANY, collection dependencies or the
+ * dependencies provided by other modules are discovered at runtime.
+ * The graph is resolved at first query since the service models are not completed until all handlers are
+ * finished, and any cycle in static dependencies fails the compilation.
+ */
+final class ServiceGraph {
+
+    static final int DYNAMIC    = -1;
+
+    private final List<ServiceHandler.ServiceModel> _services;
+
+    // The provider index of each dependency of each service, DYNAMIC means the dependency is discovered at runtime
+    private List<List<Integer>> _staticDeps;
+    // The transitive static dependencies of each service in activation order
+    private List<List<Integer>> _activationOrders;
+
+    ServiceGraph(final List<ServiceHandler.ServiceModel> services) {
+        ArgumentChecker.required(services, "services");
+        this._services = services;
+    }
+
+    /**
+     * Get the provider index of each dependency of specific service
+     *
+     * @param   index
+     *          The service index
+     * @return  The provider index list which is aligned with the dependencies of the service, the item is
+     *          DYNAMIC if the dependency is discovered at runtime
+     */
+    List<Integer> staticDependenciesOf(final int index) {
+        resolve();
+        return this._staticDeps.get(index);
+    }
+
+    /**
+     * Get all static dependencies of specific service in activation order, a service is always placed after
+     * all its static dependencies
+     *
+     * @param   index
+     *          The service index
+     * @return  Indexes of the transitive static dependencies, the service itself is not included
+     */
+    List<Integer> activationOrderOf(final int index) {
+        resolve();
+        return this._activationOrders.get(index);
+    }
+
+    private void resolve() {
+        if (this._staticDeps != null) {
+            return;
+        }
+        var svcCount = this._services.size();
+
+        // Map service id to the only service which provides it
+        Map<String, Integer> providers = new HashMap<>();
+        Set<String> ambiguousIds = new HashSet<>();
+        for (int i = 0; i < svcCount; i++) {
+            var svc = this._services.get(i);
+            if (svc.getPrototype()) {
+                // The prototype is injected by instance which is created at runtime
+                continue;
+            }
+            for (var svcId : svc.getIds()) {
+                if (providers.putIfAbsent(svcId, i) != null) {
+                    ambiguousIds.add(svcId);
+                }
+            }
+        }
+        ambiguousIds.forEach(providers::remove);
+
+        List<List<Integer>> staticDeps = new ArrayList<>(svcCount);
+        for (int i = 0; i < svcCount; i++) {
+            List<Integer> svcDeps = new ArrayList<>();
+            for (var dependency : this._services.get(i).getDependencies()) {
+                var qsId = QualifiedServiceId.splitTo(dependency.getQualifiedServiceId());
+                var provider = providers.get(qsId.getId());
+                if (provider == null || provider == i || ! dependency.getSingle()
+                        || ! QualifiedServiceId.FROM_LOCAL.equals(qsId.getFrom())) {
+                    svcDeps.add(DYNAMIC);
+                } else {
+                    svcDeps.add(provider);
+                }
+            }
+            staticDeps.add(svcDeps);
+        }
+
+        // Visit the graph in depth first order to make out activation order and check cycle dependency
+        List<List<Integer>> activationOrders = new ArrayList<>(svcCount);
+        for (int i = 0; i < svcCount; i++) {
+            List<Integer> order = new ArrayList<>();
+            visit(i, staticDeps, new LinkedList<>(), new boolean[svcCount], order);
+            order.remove(order.size() - 1);
+            activationOrders.add(Collections.unmodifiableList(order));
+        }
+        this._activationOrders = activationOrders;
+        this._staticDeps = staticDeps;
+    }
+
+    private void visit(
+            final int index,
+            final List<List<Integer>> staticDeps,
+            final LinkedList<Integer> path,
+            final boolean[] visited,
+            final List<Integer> order
+    ) {
+        if (path.contains(index)) {
+            var cycle = new StringBuilder();
+            for (var svcIdx : path.subList(path.indexOf(index), path.size())) {
+                cycle.append(this._services.get(svcIdx).getClassName()).append(" -> ");
+            }
+            cycle.append(this._services.get(index).getClassName());
+            throw new GeneralException("Found cycle dependency in services - {}", cycle.toString());
+        }
+        if (visited[index]) {
+            return;
+        }
+        path.addLast(index);
+        for (var depIdx : staticDeps.get(index)) {
+            if (depIdx != DYNAMIC) {
+                visit(depIdx, staticDeps, path, visited, order);
+            }
+        }
+        path.removeLast();
+        visited[index] = true;
+        order.add(index);
+    }
+}
@@ -36,6 +36,8 @@ import java.util.*;
 public final class ServiceHandler extends AnnotationsHandler {
 
     private static final String GEN_PKG_NAME    = "uapi.generated";
+    private static final String GEN_PKG_SUFFIX  = ".generated";
+    private static final String PORTAL_CLASS_NAME   = "ServiceModulePortal_Generated";
 
     @SuppressWarnings("unchecked")
     private static final Class<? extends Annotation>[] orderedAnnotations = new Class[] {
@@ -46,11 +48,14 @@ public final class ServiceHandler extends AnnotationsHandler {
     private static final String TEMPLATE_REQ_ATTRS          = "template/requiredAttributes_method.ftl";
     private static final String TEMPLATE_INST_CONSTRUCTOR   = "template/instance_constructor.ftl";
     private static final String TEMPLATE_ATTRS              = "template/attributes_method.ftl";
+    private static final String TEMPLATE_SVC_DESCRIPTORS    = "template/serviceDescriptors_method.ftl";
+    private static final String TEMPLATE_NEW_SERVICE        = "template/newService_method.ftl";
 
     private static final String MODEL_GET_IDS               = "ModelGetId";
     private static final String MODEL_REQ_ATTRS             = "ModelRequiredAttributes";
     private static final String VAR_SVC_IDS                 = "serviceIds";
     private static final String VAR_ATTRS                   = "attrs";
+    private static final String VAR_SERVICES                = "services";
 
     // Below variable is store to class build to indicate prototype service information
     static final String VAR_IS_PROTOTYPE                    = "isPrototype";
@@ -60,6 +65,11 @@ public final class ServiceHandler extends AnnotationsHandler {
 
     private IResourceFile _svcResFile;
 
+    // The generated module portal which creates all services in the module without reflection
+    private ClassMeta.Builder _portalBuilder;
+    private final List<ServiceModel> _portalSvcs = new ArrayList<>();
+    private final ServiceGraph _svcGraph = new ServiceGraph(this._portalSvcs);
+
     @Override
     protected Class<? extends Annotation>[] getOrderedAnnotations() {
         return orderedAnnotations;
@@ -170,6 +180,7 @@ public final class ServiceHandler extends AnnotationsHandler {
                         classElement.getSimpleName().toString(), serviceIds);
             }
             this._helper.addServiceId(classBuilder, serviceIds);
+            newPortalIfAbsent(builderCtx, classElement);
 
             // Build class builder
             if (svcType == ServiceType.Prototype) {
@@ -297,8 +308,9 @@ public final class ServiceHandler extends AnnotationsHandler {
         instClassBuilder.putTransience(VAR_IS_PROTOTYPE, true);
         instClassBuilder.putTransience(VAR_PROTOTYPE_CLASS_NAME, prototypeBuilder.getQualifiedClassName());
 
-        // Add service to service file
+        // Add service to service file and module portal
         this._svcResFile.appendContent(prototypeBuilder.getQualifiedClassName() + "\n");
+        addPortalService(builderContext, prototypeBuilder, new String[] { prototypeId }, false, true);
     }
 
     private void constructService(
@@ -336,8 +348,71 @@ public final class ServiceHandler extends AnnotationsHandler {
                         .addCodeBuilder(CodeMeta.builder()
                                 .addRawCode(StringHelper.makeString("return {};", autoActive))));
 
-        // Add service to service file
+        // Add service to service file and module portal
         this._svcResFile.appendContent(classBuilder.getQualifiedClassName() + "\n");
+        addPortalService(builderCtx, classBuilder, null, autoActive, false);
+    }
+
+    /**
+     * Create the module portal class, it is generated into the generated package of the module which
+     * contains specific element.
+     */
+    private void newPortalIfAbsent(
+            final IBuilderContext builderCtx,
+            final Element element
+    ) {
+        if (this._portalBuilder != null) {
+            return;
+        }
+        var pkgName = GEN_PKG_NAME;
+        var module = element == null ? null : builderCtx.getElementUtils().getModuleOf(element);
+        if (module != null && ! module.isUnnamed()) {
+            pkgName = module.getQualifiedName().toString() + GEN_PKG_SUFFIX;
+        }
+        var tempSvcDescs = builderCtx.loadTemplate(Module.name, TEMPLATE_SVC_DESCRIPTORS);
+        var tempNewSvc = builderCtx.loadTemplate(Module.name, TEMPLATE_NEW_SERVICE);
+        // The service models are evaluated when the portal is generated, all handlers are finished at that time
+        var model = new HashMap<String, Object>();
+        model.put(VAR_SERVICES, this._portalSvcs);
+        this._portalBuilder = builderCtx.newClassBuilder(pkgName, PORTAL_CLASS_NAME);
+        this._portalBuilder
+                .addImplement(IServiceModulePortal.class.getCanonicalName())
+                .addMethodBuilder(MethodMeta.builder()
+                        .addAnnotationBuilder(AnnotationMeta.builder()
+                                .setName(AnnotationMeta.OVERRIDE))
+                        .setName("serviceDescriptors")
+                        .addModifier(Modifier.PUBLIC)
+                        .setReturnTypeName(StringHelper.makeString(
+                                "java.util.List<{}>", ServiceDescriptor.class.getCanonicalName()))
+                        .addCodeBuilder(CodeMeta.builder()
+                                .setTemplate(tempSvcDescs)
+                                .setModel(model)))
+                .addMethodBuilder(MethodMeta.builder()
+                        .setName("newService")
+                        .addModifier(Modifier.PRIVATE)
+                        .setReturnTypeName(IService.class.getCanonicalName())
+                        .addParameterBuilder(ParameterMeta.builder()
+                                .addModifier(Modifier.FINAL)
+                                .setName("index")
+                                .setType("int"))
+                        .addCodeBuilder(CodeMeta.builder()
+                                .setTemplate(tempNewSvc)
+                                .setModel(model)));
+    }
+
+    private void addPortalService(
+            final IBuilderContext builderCtx,
+            final ClassMeta.Builder classBuilder,
+            final String[] serviceIds,
+            final boolean autoActive,
+            final boolean prototype
+    ) {
+        newPortalIfAbsent(builderCtx, null);
+        if (Looper.on(this._portalSvcs).filter(svc -> svc._classBuilder == classBuilder).first(null) != null) {
+            return;
+        }
+        this._portalSvcs.add(new ServiceModel(
+                classBuilder, serviceIds, autoActive, prototype, this._portalSvcs.size(), this._svcGraph));
     }
 
     public static final class AttributeMode {
@@ -373,6 +448,90 @@ public final class ServiceHandler extends AnnotationsHandler {
         }
     }
 
+    /**
+     * The model of service in generated module portal, the service information is read from class builder
+     * lazily since it may be changed by other handlers
+     */
+    public static final class ServiceModel {
+
+        private final ClassMeta.Builder _classBuilder;
+        private final String[] _ids;
+        private final boolean _autoActive;
+        private final boolean _prototype;
+        private final int _index;
+        private final ServiceGraph _graph;
+
+        private ServiceModel(
+                final ClassMeta.Builder classBuilder,
+                final String[] serviceIds,
+                final boolean autoActive,
+                final boolean prototype,
+                final int index,
+                final ServiceGraph graph
+        ) {
+            this._classBuilder = classBuilder;
+            this._ids = serviceIds;
+            this._autoActive = autoActive;
+            this._prototype = prototype;
+            this._index = index;
+            this._graph = graph;
+        }
+
+        public String getClassName() {
+            return this._classBuilder.getQualifiedClassName();
+        }
+
+        @SuppressWarnings("unchecked")
+        public String[] getIds() {
+            if (this._ids != null) {
+                return this._ids;
+            }
+            Map<String, Object> modelGetIds = this._classBuilder.getTransience(MODEL_GET_IDS);
+            var ids = modelGetIds == null ? null : (String[]) modelGetIds.get(VAR_SVC_IDS);
+            return ids == null ? new String[0] : ids;
+        }
+
+        public String[] getTags() {
+            String[] tags = this._classBuilder.getTransience(TagHandler.VAR_SERVICE_TAGS);
+            return tags == null ? new String[0] : tags;
+        }
+
+        public List<InjectParser.DependencyModel> getDependencies() {
+            return InjectParser.dependenciesOf(this._classBuilder);
+        }
+
+        public boolean getAutoActive() {
+            return this._autoActive;
+        }
+
+        public boolean getPrototype() {
+            return this._prototype;
+        }
+
+        public int getIndex() {
+            return this._index;
+        }
+
+        /**
+         * Get the index of the service which provides each dependency in the module
+         *
+         * @return  The provider indexes which are aligned with dependencies, -1 means the dependency is
+         *          discovered at runtime
+         */
+        public List<Integer> getStaticDependencies() {
+            return this._graph.staticDependenciesOf(this._index);
+        }
+
+        /**
+         * Get the indexes of all static dependencies in activation order
+         *
+         * @return  The indexes of static dependencies, the service itself is not included
+         */
+        public List<Integer> getActivationOrder() {
+            return this._graph.activationOrderOf(this._index);
+        }
+    }
+
     private final class ServiceHandlerHelper implements IServiceHandlerHelper {
 
         private ServiceHandlerHelper() { }
@@ -35,6 +35,9 @@ public class TagHandler extends AnnotationsHandler {
     private static final String TEMPLATE_GET_TAGS   = "template/getTags_method.ftl";
     private static final String VAR_TAGS            = "tags";
 
+    // Below variable is store to class build to indicate service tags
+    static final String VAR_SERVICE_TAGS            = "serviceTags";
+
     @SuppressWarnings("unchecked")
     @Override
     protected Class<? extends Annotation>[] getOrderedAnnotations() {
@@ -69,6 +72,7 @@ public class TagHandler extends AnnotationsHandler {
                     throw new GeneralException("The prototype of service was not found in context - {}", prototypeClassName);
                 }
             }
+            classBuilder.putTransience(VAR_SERVICE_TAGS, tag.value());
             classBuilder
                     .addImplement(ITagged.class.getCanonicalName())
                     .addMethodBuilder(MethodMeta.builder()
@@ -1,14 +1,15 @@
 uapi.common.ArgumentChecker.notNull(injection, "injection");
+        switch (injection.getId()) {
 <#list setters as setter>
-        if (injection.getId().equals("${setter.injectId}")) {
-            if (! (injection.getObject() instanceof ${setter.injectType})) {
-                throw new uapi.InvalidArgumentException(
-                        "The injected object {} can't be converted to {}",
-                        injection.getObject(), "${setter.injectType}");
-            }
-            // injection.checkType(${setter.injectType}.class);
-            ${setter.name}((${setter.injectType}) injection.getObject());
-            return;
-        }
+            case "${setter.injectId}":
+                if (! (injection.getObject() instanceof ${setter.injectType})) {
+                    throw new uapi.InvalidArgumentException(
+                            "The injected object {} can't be converted to {}",
+                            injection.getObject(), "${setter.injectType}");
+                }
+                ${setter.name}((${setter.injectType}) injection.getObject());
+                return;
 </#list>
-        throw new uapi.GeneralException("Can't inject object {} into service {}", injection, this);
\ No newline at end of file
+            default:
+                throw new uapi.GeneralException("Can't inject object {} into service {}", injection, this);
+        }
\ No newline at end of file
@@ -0,0 +1,8 @@
+switch (index) {
+<#list services as service>
+            case ${service.index?c}:
+                return new ${service.className}();
+</#list>
+            default:
+                throw new uapi.InvalidArgumentException("No service is defined at index {}", index);
+        }
\ No newline at end of file
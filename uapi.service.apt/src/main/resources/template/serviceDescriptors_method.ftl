@@ -0,0 +1,17 @@
+java.util.function.IntFunction<uapi.service.IService> factory = this::newService;
+        return uapi.service.ServiceDescriptor.link(java.util.List.of(
+<#list services as service>
+            new uapi.service.ServiceDescriptor(
+                    "${service.className}",
+                    new String[] { <#list service.ids as id>"${id}"<#sep>, </#sep></#list> },
+                    new String[] { <#list service.tags as tag>"${tag}"<#sep>, </#sep></#list> },
+                    new uapi.service.Dependency[] {
+<#list service.dependencies as dependency>
+                        new uapi.service.Dependency("${dependency.qualifiedServiceId}", ${dependency.serviceType}.class, ${dependency.single?c}, ${dependency.optional?c})<#sep>, </#sep>
+</#list>
+                    },
+                    factory, ${service.index?c}, ${service.autoActive?c}, ${service.prototype?c},
+                    new int[] { <#list service.staticDependencies as depIdx>${depIdx?c}<#sep>, </#sep></#list> },
+                    new int[] { <#list service.activationOrder as svcIdx>${svcIdx?c}<#sep>, </#sep></#list> })<#sep>, </#sep>
+</#list>
+        ));
\ No newline at end of file
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.service.internal
+
+import spock.lang.Specification
+import uapi.GeneralException
+import uapi.codegen.ClassMeta
+import uapi.service.SetterMeta
+
+/**
+ * Unit tests for ServiceGraph
+ */
+class ServiceGraphTest extends Specification {
+
+    def 'Test activation order'() {
+        given:
+        def services = []
+        def graph = new ServiceGraph(services)
+        addService(services, graph, 'A', ['a'], false, [['b', 'Local', true], ['c', 'Local', true]])
+        addService(services, graph, 'B', ['b'], false, [['c', 'Local', true]])
+        addService(services, graph, 'C', ['c'], false, [])
+
+        expect:
+        graph.staticDependenciesOf(0) == [1, 2]
+        graph.staticDependenciesOf(1) == [2]
+        graph.staticDependenciesOf(2) == []
+        graph.activationOrderOf(0) == [2, 1]
+        graph.activationOrderOf(1) == [2]
+        graph.activationOrderOf(2) == []
+    }
+
+    def 'Test dynamic dependency'() {
+        given:
+        def services = []
+        def graph = new ServiceGraph(services)
+        addService(services, graph, 'A', ['a'], false, [
+                ['b', 'Any', true], ['b', 'Local', false], ['ext', 'Local', true], ['p', 'Local', true], ['d', 'Local', true]])
+        addService(services, graph, 'B', ['b'], false, [])
+        addService(services, graph, 'P', ['p'], true, [])
+        addService(services, graph, 'D1', ['d'], false, [])
+        addService(services, graph, 'D2', ['d'], false, [])
+
+        expect:
+        graph.staticDependenciesOf(0) == [ServiceGraph.DYNAMIC] * 5
+        graph.activationOrderOf(0) == []
+    }
+
+    def 'Test cycle dependency'() {
+        given:
+        def services = []
+        def graph = new ServiceGraph(services)
+        addService(services, graph, 'A', ['a'], false, [['b', 'Local', true]])
+        addService(services, graph, 'B', ['b'], false, [['a', 'Local', true]])
+
+        when:
+        graph.activationOrderOf(0)
+
+        then:
+        def ex = thrown(GeneralException)
+        ex.message.contains('A -> B -> A')
+    }
+
+    private void addService(
+            List services,
+            ServiceGraph graph,
+            String className,
+            List<String> ids,
+            boolean prototype,
+            List<List> dependencies
+    ) {
+        def setterBuilders = dependencies.collect { dep ->
+            Mock(SetterMeta.Builder) {
+                getInjectId() >> dep[0]
+                getInjectFrom() >> dep[1]
+                getIsSingle() >> dep[2]
+                getInjectType() >> 'Object'
+            }
+        }
+        def classBuilder = Mock(ClassMeta.Builder) {
+            getQualifiedClassName() >> className
+            findSetterBuilders() >> setterBuilders
+        }
+        services << new ServiceHandler.ServiceModel(
+                classBuilder, ids as String[], false, prototype, services.size(), graph)
+    }
+}
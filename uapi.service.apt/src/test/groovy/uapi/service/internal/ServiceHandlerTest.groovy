@@ -150,9 +150,13 @@ class ServiceHandlerTest extends Specification {
         classBudr.addImplement(_) >> classBudr
         classBudr.addMethodBuilder(_) >> classBudr
         classBudr.getTransience(_) >> new Object()
+        def portalBudr = Mock(ClassMeta.Builder)
+        portalBudr.addImplement(_) >> portalBudr
+        portalBudr.addMethodBuilder(_) >> portalBudr
 
         def budrCtx = Mock(IBuilderContext) {
             findClassBuilder(classElem) >> classBudr
+            newClassBuilder(_, _) >> portalBudr
             loadTemplate(_, _) >> Mock(Template)
             getLogger() >> Mock(LogSupport)
             getElementUtils() >> Mock(Elements) {
@@ -277,10 +281,14 @@ class ServiceHandlerTest extends Specification {
         def protoClsBudr = Mock(ClassMeta.Builder)
         1 * protoClsBudr.addImplement(_) >> protoClsBudr
         4 * protoClsBudr.addMethodBuilder(_) >> protoClsBudr
+        def portalBudr = Mock(ClassMeta.Builder)
+        1 * portalBudr.addImplement(_) >> portalBudr
+        2 * portalBudr.addMethodBuilder(_) >> portalBudr
         def budrCtx = Mock(IBuilderContext) {
-            4 * loadTemplate(_, _) >> Mock(Template)
+            6 * loadTemplate(_, _) >> Mock(Template)
             findClassBuilder(clsElemt) >> instClsBudr
-            1 * newClassBuilder(_, _) >> protoClsBudr
+            1 * newClassBuilder(_, 'className_Prototype_Generated') >> protoClsBudr
+            1 * newClassBuilder(_, 'ServiceModulePortal_Generated') >> portalBudr
             getLogger() >> Mock(LogSupport)
             getElementUtils() >> Mock(Elements) {
                 getPackageOf(clsElemt) >> Mock(PackageElement) {
@@ -301,6 +309,10 @@ class ServiceHandlerTest extends Specification {
 
         then:
         noExceptionThrown()
+        svcHandler._portalSvcs.size() == 1
+        svcHandler._portalSvcs[0].ids == ['PrototypeService'] as String[]
+        svcHandler._portalSvcs[0].prototype
+        ! svcHandler._portalSvcs[0].autoActive
 
 //        where:
 //        elemKind                | elemName
@@ -352,4 +364,77 @@ class ServiceHandlerTest extends Specification {
         elemKind                | elemName
         ElementKind.FIELD       | 'name'
     }
+
+    def 'Test generate module portal'() {
+        given:
+        def classElem = Mock(TypeElement) {
+            getKind() >> ElementKind.CLASS
+            getSimpleName() >> Mock(Name) {
+                toString() >> 'name'
+            }
+            getAnnotation(Service.class) >> Mock(Service) {
+                value() >> new Class[0]
+                ids() >> { def str = new String[1]; str[0] = "TestService"; return str }
+                autoActive() >> false
+                type() >> ServiceType.Singleton
+            }
+            getInterfaces() >> []
+            getAnnotationMirrors() >> [Mock(AnnotationMirror) {
+                getAnnotationType() >> Mock(DeclaredType) {
+                    asElement() >> Mock(Element) {
+                        accept(_, _) >> Mock(TypeElement) {
+                            getQualifiedName() >> Mock(Name) {
+                                contentEquals(_) >> true
+                            }
+                        }
+                    }
+                }
+                getElementValues() >> [:]
+            }]
+        }
+        def idsModel = new HashMap<String, Object>()
+        def classBudr = Mock(ClassMeta.Builder)
+        classBudr.createTransienceIfAbsent(_, _) >> idsModel
+        classBudr.addImplement(_) >> classBudr
+        classBudr.addMethodBuilder(_) >> classBudr
+        classBudr.getTransience('ModelGetId') >> idsModel
+        classBudr.getTransience(TagHandler.VAR_SERVICE_TAGS) >> (['tag'] as String[])
+        classBudr.getQualifiedClassName() >> 'uapi.test.TestService_Generated'
+        classBudr.findSetterBuilders() >> []
+        def portalBudr = Mock(ClassMeta.Builder)
+        portalBudr.addImplement(_) >> portalBudr
+        portalBudr.addMethodBuilder(_) >> portalBudr
+        def budrCtx = Mock(IBuilderContext) {
+            findClassBuilder(classElem) >> classBudr
+            loadTemplate(_, _) >> Mock(Template)
+            getElementUtils() >> Mock(Elements) {
+                getModuleOf(classElem) >> Mock(ModuleElement) {
+                    isUnnamed() >> false
+                    getQualifiedName() >> Mock(Name) {
+                        toString() >> 'uapi.test'
+                    }
+                }
+            }
+            newResourceFile(_, _) >> Mock(IResourceFile)
+        }
+        def svcHandler = new ServiceHandler()
+        svcHandler.init(budrCtx)
+
+        when:
+        svcHandler.handleAnnotatedElements(budrCtx, Service.class, [classElem] as Set)
+        svcHandler.getHelper().becomeService(budrCtx, classBudr, 'OtherService')
+
+        then:
+        noExceptionThrown()
+        1 * budrCtx.newClassBuilder('uapi.test.generated', 'ServiceModulePortal_Generated') >> portalBudr
+        1 * portalBudr.addImplement('uapi.service.IServiceModulePortal') >> portalBudr
+        svcHandler._portalSvcs.size() == 1
+        svcHandler._portalSvcs[0].className == 'uapi.test.TestService_Generated'
+        svcHandler._portalSvcs[0].ids == ['TestService', 'OtherService'] as String[]
+        svcHandler._portalSvcs[0].tags == ['tag'] as String[]
+        svcHandler._portalSvcs[0].dependencies == []
+        svcHandler._portalSvcs[0].index == 0
+        ! svcHandler._portalSvcs[0].autoActive
+        ! svcHandler._portalSvcs[0].prototype
+    }
 }
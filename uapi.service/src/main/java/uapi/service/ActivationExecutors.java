@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.service;
+
+import uapi.common.ArgumentChecker;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Factory methods for creating executors which are used to activate services.
+ */
+public final class ActivationExecutors {
+
+    private static final Method NEW_VIRTUAL_EXECUTOR;
+
+    static {
+        Method method;
+        try {
+            method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException ex) {
+            method = null;
+        }
+        NEW_VIRTUAL_EXECUTOR = method;
+    }
+
+    private ActivationExecutors() { }
+
+    /**
+     * Create a bounded platform thread pool.
+     * The task which is submitted by other threads waits in the queue when all threads in the pool are busy,
+     * so the caller which waits the task with a timeout is never blocked by the submission.
+     * The task which is submitted by a thread of the pool runs in that thread when all threads are busy,
+     * so nested activation never waits for a thread which is held by its parent activation.
+     *
+     * @param   name
+     *          The prefix of thread name
+     * @param   poolSize
+     *          Max thread count of the thread pool
+     * @return  The executor
+     */
+    public static ExecutorService newPlatformExecutor(
+            final String name,
+            final int poolSize
+    ) {
+        ArgumentChecker.required(name, "name");
+        ArgumentChecker.checkInt(poolSize, "poolSize", 1, Integer.MAX_VALUE);
+        var executor = new PlatformExecutor(poolSize, newThreadFactory(name));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Create an executor which starts a virtual thread for each task.
+     * On the JVM which does not support virtual thread, a bounded platform thread pool is created instead, so
+     * a large activation graph does not start a platform thread for each service.
+     *
+     * @param   name
+     *          The prefix of thread name, only used for platform thread
+     * @param   fallbackPoolSize
+     *          Max thread count of the platform thread pool which is used when virtual thread is not supported
+     * @return  The executor
+     */
+    public static ExecutorService newVirtualExecutor(
+            final String name,
+            final int fallbackPoolSize
+    ) {
+        ArgumentChecker.required(name, "name");
+        ArgumentChecker.checkInt(fallbackPoolSize, "fallbackPoolSize", 1, Integer.MAX_VALUE);
+        if (NEW_VIRTUAL_EXECUTOR != null) {
+            try {
+                return (ExecutorService) NEW_VIRTUAL_EXECUTOR.invoke(null);
+            } catch (ReflectiveOperationException ex) {
+                // Fall back to platform thread
+            }
+        }
+        return newPlatformExecutor(name, fallbackPoolSize);
+    }
+
+    /**
+     * Check whether the JVM supports virtual thread
+     *
+     * @return  True means virtual thread is supported otherwise return false
+     */
+    public static boolean isVirtualThreadSupported() {
+        return NEW_VIRTUAL_EXECUTOR != null;
+    }
+
+    private static ThreadFactory newThreadFactory(final String name) {
+        var threadIdx = new AtomicInteger(0);
+        return runnable -> {
+            var thread = new Thread(runnable, name + "-" + threadIdx.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class PlatformExecutor extends ThreadPoolExecutor {
+
+        // The pool which current thread belongs to, used to detect the task which is submitted by the pool itself
+        private static final ThreadLocal<PlatformExecutor> CURRENT_POOL = new ThreadLocal<>();
+
+        private PlatformExecutor(
+                final int poolSize,
+                final ThreadFactory threadFactory
+        ) {
+            super(poolSize, poolSize, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+            setThreadFactory(runnable -> threadFactory.newThread(() -> {
+                CURRENT_POOL.set(this);
+                runnable.run();
+            }));
+        }
+
+        @Override
+        public void execute(final Runnable command) {
+            if (CURRENT_POOL.get() == this && getActiveCount() >= getMaximumPoolSize()) {
+                command.run();
+                return;
+            }
+            super.execute(command);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.service;
+
+import uapi.common.ArgumentChecker;
+import uapi.common.StringHelper;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The result of deactivating a group of services within a deadline
+ */
+public final class DeactivationReport {
+
+    private final List<String> _deactivated;
+    private final List<String> _missed;
+    private final Map<String, Throwable> _failed;
+    private final long _elapsed;
+
+    /**
+     * Construct deactivation report
+     *
+     * @param   deactivated
+     *          The ids of services which were deactivated in time
+     * @param   missed
+     *          The ids of services which were not deactivated before the deadline
+     * @param   failed
+     *          The ids of services which were failed on deactivating and the failure cause
+     * @param   elapsed
+     *          The elapsed time in milliseconds
+     */
+    public DeactivationReport(
+            final List<String> deactivated,
+            final List<String> missed,
+            final Map<String, Throwable> failed,
+            final long elapsed
+    ) {
+        ArgumentChecker.required(deactivated, "deactivated");
+        ArgumentChecker.required(missed, "missed");
+        ArgumentChecker.required(failed, "failed");
+        this._deactivated = Collections.unmodifiableList(deactivated);
+        this._missed = Collections.unmodifiableList(missed);
+        this._failed = Collections.unmodifiableMap(failed);
+        this._elapsed = elapsed;
+    }
+
+    public List<String> deactivated() {
+        return this._deactivated;
+    }
+
+    public List<String> missed() {
+        return this._missed;
+    }
+
+    public Map<String, Throwable> failed() {
+        return this._failed;
+    }
+
+    public long elapsed() {
+        return this._elapsed;
+    }
+
+    /**
+     * Check whether all services were deactivated successfully before the deadline
+     *
+     * @return  True means all services were deactivated in time
+     */
+    public boolean isCompleted() {
+        return this._missed.size() == 0 && this._failed.size() == 0;
+    }
+
+    @Override
+    public String toString() {
+        return StringHelper.makeString("DeactivationReport[deactivated={}, missed={}, failed={}, elapsed={}ms]",
+                this._deactivated, this._missed, this._failed.keySet(), this._elapsed);
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.service;
+
+import uapi.common.IntervalTime;
+
+import java.util.concurrent.Executor;
+
+/**
+ * The activation executor decides where the service activation and deactivation tasks are run and how long
+ * the registry waits for them.
+ * The registry picks up the activation executor once it is activated, before that the registry uses a
+ * dedicated bounded thread pool and default timeout.
+ */
+public interface IActivationExecutor {
+
+    /**
+     * Retrieve the executor which is used to run service activation and deactivation tasks
+     *
+     * @return  The executor or null means use default executor
+     */
+    Executor executor();
+
+    /**
+     * Retrieve the timeout of activating specific service
+     *
+     * @param   serviceId
+     *          The service id
+     * @return  The timeout or null means use default timeout
+     */
+    IntervalTime activationTimeout(String serviceId);
+
+    /**
+     * Retrieve the timeout of deactivating specific service
+     *
+     * @param   serviceId
+     *          The service id
+     * @return  The timeout or null means use default timeout
+     */
+    IntervalTime deactivationTimeout(String serviceId);
+}
@@ -10,6 +10,7 @@
 package uapi.service;
 
 import uapi.InvalidArgumentException;
+import uapi.common.IntervalTime;
 
 import java.util.List;
 import java.util.Map;
@@ -45,6 +46,19 @@ public interface IRegistry {
             final IService... services
     ) throws InvalidArgumentException;
 
+    /**
+     * Register local services by their descriptors, the service is not created until it is activated
+     * except prototype service
+     *
+     * @param   descriptors
+     *          The service descriptors which will be registered
+     * @throws  InvalidArgumentException
+     *          The exception will be thrown when the descriptors is null
+     */
+    void register(
+            final List<ServiceDescriptor> descriptors
+    ) throws InvalidArgumentException;
+
     /**
      * Register a generic object as a local service
      *
@@ -183,6 +197,30 @@ public interface IRegistry {
      */
     <T> List<T> findServices(final Class<T> serviceType);
 
+    /**
+     * Get a handle of service by specific service id, the handle resolves the service at first access and
+     * caches it until the service is deactivated or replaced.
+     *
+     * @param   serviceId
+     *          The service id
+     * @param   <T>
+     *          The service type
+     * @return  The service handle
+     */
+    <T> IServiceHandle<T> handle(final String serviceId);
+
+    /**
+     * Get a handle of service by specific service type, the handle resolves the service at first access
+     * and caches it until the service is deactivated or replaced.
+     *
+     * @param   serviceType
+     *          The service type
+     * @param   <T>
+     *          The service type
+     * @return  The service handle
+     */
+    <T> IServiceHandle<T> handle(final Class<T> serviceType);
+
     /**
      * Activate service(s) by specific tag
      *
@@ -199,6 +237,17 @@ public interface IRegistry {
      */
     void deactivateTaggedService(final String tag);
 
+    /**
+     * Deactivate service(s) by specific tag in reverse dependency order within the deadline
+     *
+     * @param   tag
+     *          The tags
+     * @param   deadline
+     *          The overall deadline of deactivating all services, default deadline is used if it is null
+     * @return  The report which contains services which missed the deadline
+     */
+    DeactivationReport deactivateTaggedService(final String tag, final IntervalTime deadline);
+
     /**
      * Deactivate service(s) by specific id
      *
@@ -206,4 +255,24 @@ public interface IRegistry {
      *          Service id array
      */
     void deactivateServices(String[] serviceIds);
+
+    /**
+     * Deactivate service(s) by specific id in reverse dependency order within the deadline, a service is
+     * deactivated after all services which depend on it are deactivated
+     *
+     * @param   serviceIds
+     *          Service id array
+     * @param   deadline
+     *          The overall deadline of deactivating all services, default deadline is used if it is null
+     * @return  The report which contains services which missed the deadline
+     */
+    DeactivationReport deactivateServices(String[] serviceIds, IntervalTime deadline);
+
+    /**
+     * Open a new service scope, the instances which are created in the scope are not registered in the
+     * registry and they are released when the scope is closed
+     *
+     * @return  The new service scope
+     */
+    IServiceScope openScope();
 }
@@ -25,4 +25,44 @@ public interface ISatisfyHook {
      * @return  true means the service is satisfied otherwise will return false
      */
     boolean isSatisfied(IServiceReference serviceReference);
+
+    /**
+     * Indicate whether the decisions of this hook can be cached by the registry.
+     * The hook which returns true must invalidate the cached decision by the decision cache when the decision
+     * of a service may be changed, otherwise the service will keep the stale decision.
+     *
+     * @return  True means the decisions can be cached, the default is false
+     */
+    default boolean isCacheable() {
+        return false;
+    }
+
+    /**
+     * Set the decision cache which is used to cache decisions of this hook, it is only invoked on cacheable hook
+     *
+     * @param   decisionCache
+     *          The decision cache of this hook
+     */
+    default void setDecisionCache(IDecisionCache decisionCache) {
+        // Do nothing by default
+    }
+
+    /**
+     * The cache of satisfy decisions which are made by a hook
+     */
+    interface IDecisionCache {
+
+        /**
+         * Invalidate the cached decision of specific service, the hook will be asked again on next check
+         *
+         * @param   serviceReference
+         *          The service reference whose decision is invalidated
+         */
+        void invalidate(IServiceReference serviceReference);
+
+        /**
+         * Invalidate all cached decisions of the hook
+         */
+        void invalidateAll();
+    }
 }
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.service;
+
+/**
+ * A service handle is a pre-resolved reference to a service which is retrieved from registry.
+ * The handle resolves and activates the service at first access, subsequent access will return cached
+ * service instance directly until the service is deactivated or replaced in the registry.
+ *
+ * @param   <T>
+ *          The service type
+ */
+public interface IServiceHandle<T> {
+
+    /**
+     * Retrieve the service id which is referenced by this handle
+     *
+     * @return  The service id
+     */
+    String serviceId();
+
+    /**
+     * Retrieve the service instance, the service will be resolved and activated if it is the first
+     * access or the cached service is invalidated.
+     *
+     * @return  The service instance
+     * @throws  ServiceException
+     *          The service can't be found
+     */
+    T get() throws ServiceException;
+
+    /**
+     * Check whether the service instance is resolved and cached in this handle
+     *
+     * @return  True means the service is cached otherwise it will be resolved at next access
+     */
+    boolean isResolved();
+}
@@ -10,6 +10,11 @@
 package uapi.service;
 
 import uapi.IIdentifiable;
+import uapi.common.IntervalTime;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 
 /**
  * A service loader used to load external service
@@ -55,6 +60,40 @@ public interface IServiceLoader extends Comparable<IServiceLoader>, IIdentifiabl
      */
     <T> T load(final String serviceId, final Class<?> serviceType);
 
+    /**
+     * Load service by id and type asynchronously, the registry asks all loaders concurrently and takes the
+     * result by the priority of the loaders.
+     * The default implementation invokes blocking load method on specific executor, the loader which supports
+     * non-blocking loading should override it.
+     *
+     * @param   serviceId
+     *          The service id
+     * @param   serviceType
+     *          The service type
+     * @param   executor
+     *          The executor which can be used to run blocking loading
+     * @param   <T>
+     *          The service instance type
+     * @return  The stage which is completed with the service instance or null
+     */
+    default <T> CompletionStage<T> loadAsync(
+            final String serviceId,
+            final Class<?> serviceType,
+            final Executor executor
+    ) {
+        return CompletableFuture.supplyAsync(() -> load(serviceId, serviceType), executor);
+    }
+
+    /**
+     * Get the max time to wait this loader to load a service, the default timeout of registry is used if it
+     * returns null
+     *
+     * @return  The load timeout or null
+     */
+    default IntervalTime getLoadTimeout() {
+        return null;
+    }
+
     /**
      * Register service ready listener
      * The listener will be invoked when specific service is ready to use
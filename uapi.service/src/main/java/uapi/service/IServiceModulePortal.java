@@ -26,7 +26,18 @@ public interface IServiceModulePortal extends IModulePortal {
     String SERVICE_FILE_NAME = "META-INF/uapi/services";
 
     /**
-     * Load all service from this module
+     * Retrieve descriptors of all services in this module, the descriptors are generated by the annotation
+     * processor at compile time.
+     *
+     * @return  The service descriptors or null if this module has no generated service descriptor
+     */
+    default List<ServiceDescriptor> serviceDescriptors() {
+        return null;
+    }
+
+    /**
+     * Load all service from this module, the services are created by generated service descriptors if they are
+     * available otherwise they are created by reflection according to the service file
      *
      * @return  All services
      */
@@ -34,6 +45,23 @@ public interface IServiceModulePortal extends IModulePortal {
         List<IService> services = new ArrayList<>();
         Module module = this.getClass().getModule();
 
+        var svcDescs = serviceDescriptors();
+        if (svcDescs != null) {
+            return Looper.on(svcDescs).map(svcDesc -> {
+                try {
+                    return svcDesc.newService();
+                } catch (Exception ex) {
+                    throw ServiceException.builder()
+                            .cause(ex)
+                            .errorCode(ServiceErrors.CREATE_SERVICE_FAILED)
+                            .variables(new ServiceErrors.CreateServiceFailed()
+                                    .serviceName(svcDesc.getType())
+                                    .moduleName(module.getName()))
+                            .build();
+                }
+            }).toList(services);
+        }
+
         ArrayList<String> svcNames = new ArrayList<>();
         try (var is = module.getResourceAsStream(SERVICE_FILE_NAME)) {
             if (is == null) {
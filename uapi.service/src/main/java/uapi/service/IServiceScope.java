@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.service;
+
+import java.util.Map;
+
+/**
+ * A scope holds instance services which are only used in a short period, like one behavior execution or one
+ * command run.
+ * The scoped instance is created from its prototype by a pre-wired template, it is never registered in the
+ * registry and all scoped instances are deactivated in bulk when the scope is closed.
+ */
+public interface IServiceScope extends AutoCloseable {
+
+    /**
+     * Find or create scoped instance by prototype service id and specific attributes, same instance is returned
+     * for same id and attributes in the scope
+     *
+     * @param   serviceId
+     *          The prototype service id
+     * @param   attributes
+     *          The attributes which used for creating instance service
+     * @param   <T>
+     *          The service type
+     * @return  The scoped instance
+     * @throws  ServiceException
+     *          The prototype service can't be found, creating instance failed or the scope is closed
+     */
+    <T> T findService(
+            final String serviceId,
+            final Map<String, ?> attributes
+    ) throws ServiceException;
+
+    /**
+     * Find or create scoped instance by prototype service type and specific attributes
+     *
+     * @param   serviceType
+     *          The prototype service type
+     * @param   attributes
+     *          The attributes which used for creating instance service
+     * @param   <T>
+     *          The service type
+     * @return  The scoped instance
+     * @throws  ServiceException
+     *          The prototype service can't be found, creating instance failed or the scope is closed
+     */
+    default <T> T findService(
+            final Class<?> serviceType,
+            final Map<String, ?> attributes
+    ) throws ServiceException {
+        return findService(serviceType.getName(), attributes);
+    }
+
+    /**
+     * Get count of instances in the scope
+     *
+     * @return  The instance count
+     */
+    int size();
+
+    /**
+     * Deactivate all instances in the scope in reverse creation order, the scope can't be used any more
+     */
+    @Override
+    void close();
+}
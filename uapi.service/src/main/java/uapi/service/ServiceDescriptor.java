@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.service;
+
+import uapi.InvalidArgumentException;
+import uapi.common.ArgumentChecker;
+import uapi.common.StringHelper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * A service descriptor contains service information which is computed at compile time, the service instance
+ * is created by the factory of the module portal which generated the descriptor.
+ */
+public final class ServiceDescriptor {
+
+    private final String _type;
+    private final String[] _ids;
+    private final String[] _tags;
+    private final Dependency[] _dependencies;
+    private final IntFunction<IService> _factory;
+    private final int _index;
+    private final boolean _autoActive;
+    private final boolean _prototype;
+    // The index of the service which provides each dependency in same module, -1 means it is discovered at runtime
+    private final int[] _staticDeps;
+    // The indexes of all static dependencies in activation order
+    private final int[] _activationOrder;
+    // All descriptors of the module, it is set when the descriptors are linked
+    private List<ServiceDescriptor> _module;
+
+    /**
+     * Construct service descriptor
+     *
+     * @param   type
+     *          The class name of the service
+     * @param   ids
+     *          The service ids
+     * @param   tags
+     *          The service tags
+     * @param   dependencies
+     *          The service dependencies
+     * @param   factory
+     *          The factory which creates service by its index
+     * @param   index
+     *          The index of the service in the factory
+     */
+    public ServiceDescriptor(
+            final String type,
+            final String[] ids,
+            final String[] tags,
+            final Dependency[] dependencies,
+            final IntFunction<IService> factory,
+            final int index
+    ) {
+        this(type, ids, tags, dependencies, factory, index, false, false);
+    }
+
+    /**
+     * Construct service descriptor
+     *
+     * @param   type
+     *          The class name of the service
+     * @param   ids
+     *          The service ids
+     * @param   tags
+     *          The service tags
+     * @param   dependencies
+     *          The service dependencies
+     * @param   factory
+     *          The factory which creates service by its index
+     * @param   index
+     *          The index of the service in the factory
+     * @param   autoActive
+     *          Whether the service should be activated when the application is started up
+     * @param   prototype
+     *          Whether the service is a prototype service
+     */
+    public ServiceDescriptor(
+            final String type,
+            final String[] ids,
+            final String[] tags,
+            final Dependency[] dependencies,
+            final IntFunction<IService> factory,
+            final int index,
+            final boolean autoActive,
+            final boolean prototype
+    ) {
+        this(type, ids, tags, dependencies, factory, index, autoActive, prototype, null, null);
+    }
+
+    /**
+     * Construct service descriptor with the static activation plan which is computed at compile time
+     *
+     * @param   type
+     *          The class name of the service
+     * @param   ids
+     *          The service ids
+     * @param   tags
+     *          The service tags
+     * @param   dependencies
+     *          The service dependencies
+     * @param   factory
+     *          The factory which creates service by its index
+     * @param   index
+     *          The index of the service in the factory
+     * @param   autoActive
+     *          Whether the service should be activated when the application is started up
+     * @param   prototype
+     *          Whether the service is a prototype service
+     * @param   staticDependencies
+     *          The index of the service which provides each dependency in the module, -1 means the
+     *          dependency is discovered at runtime
+     * @param   activationOrder
+     *          The indexes of all static dependencies in activation order
+     */
+    public ServiceDescriptor(
+            final String type,
+            final String[] ids,
+            final String[] tags,
+            final Dependency[] dependencies,
+            final IntFunction<IService> factory,
+            final int index,
+            final boolean autoActive,
+            final boolean prototype,
+            final int[] staticDependencies,
+            final int[] activationOrder
+    ) {
+        ArgumentChecker.required(type, "type");
+        ArgumentChecker.required(ids, "ids");
+        ArgumentChecker.required(factory, "factory");
+        this._type = type;
+        this._ids = ids;
+        this._tags = tags == null ? new String[0] : tags;
+        this._dependencies = dependencies == null ? new Dependency[0] : dependencies;
+        this._factory = factory;
+        this._index = index;
+        this._autoActive = autoActive;
+        this._prototype = prototype;
+        this._staticDeps = staticDependencies;
+        this._activationOrder = activationOrder;
+        if (staticDependencies != null && staticDependencies.length != this._dependencies.length) {
+            throw new InvalidArgumentException(
+                    "The static dependencies does not match dependencies of service - {}", type);
+        }
+    }
+
+    /**
+     * Link all descriptors of a module, so the static dependencies can be resolved to descriptors, the index
+     * of each descriptor must be its position in the list
+     *
+     * @param   descriptors
+     *          All descriptors of a module
+     * @return  The descriptors
+     */
+    public static List<ServiceDescriptor> link(
+            final List<ServiceDescriptor> descriptors
+    ) {
+        ArgumentChecker.required(descriptors, "descriptors");
+        for (int i = 0; i < descriptors.size(); i++) {
+            var descriptor = descriptors.get(i);
+            if (descriptor._index != i) {
+                throw new InvalidArgumentException(
+                        "The descriptor index {} does not match its position {} - {}", descriptor._index, i, descriptor);
+            }
+            descriptor._module = descriptors;
+        }
+        return descriptors;
+    }
+
+    public String getType() {
+        return this._type;
+    }
+
+    public String[] getIds() {
+        return this._ids;
+    }
+
+    public String[] getTags() {
+        return this._tags;
+    }
+
+    public Dependency[] getDependencies() {
+        return this._dependencies;
+    }
+
+    public boolean isAutoActive() {
+        return this._autoActive;
+    }
+
+    public boolean isPrototype() {
+        return this._prototype;
+    }
+
+    /**
+     * Check whether the descriptor has static activation plan which is computed at compile time
+     *
+     * @return  True means the activation plan is available
+     */
+    public boolean hasActivationPlan() {
+        return this._module != null && this._staticDeps != null && this._activationOrder != null;
+    }
+
+    /**
+     * Get the descriptor of the service which provides specific dependency in same module
+     *
+     * @param   slot
+     *          The index of the dependency
+     * @return  The provider descriptor or null if the dependency is discovered at runtime
+     */
+    public ServiceDescriptor staticDependency(final int slot) {
+        if (! hasActivationPlan()) {
+            return null;
+        }
+        ArgumentChecker.checkInt(slot, "slot", 0, this._staticDeps.length - 1);
+        var depIdx = this._staticDeps[slot];
+        return depIdx < 0 ? null : this._module.get(depIdx);
+    }
+
+    /**
+     * Get the descriptors of all static dependencies in activation order, the dependency is always placed
+     * before the services which depend on it
+     *
+     * @return  The descriptors, it is empty if the descriptor has no activation plan
+     */
+    public List<ServiceDescriptor> activationOrder() {
+        if (! hasActivationPlan() || this._activationOrder.length == 0) {
+            return Collections.emptyList();
+        }
+        List<ServiceDescriptor> order = new ArrayList<>(this._activationOrder.length);
+        for (var svcIdx : this._activationOrder) {
+            order.add(this._module.get(svcIdx));
+        }
+        return order;
+    }
+
+    /**
+     * Create new service instance
+     *
+     * @return  The service instance
+     */
+    public IService newService() {
+        return this._factory.apply(this._index);
+    }
+
+    @Override
+    public String toString() {
+        return StringHelper.makeString("ServiceDescriptor[type={}, ids={}, tags={}]",
+                this._type, this._ids, this._tags);
+    }
+}
@@ -51,6 +51,8 @@ public class ServiceErrors extends FileBasedExceptionErrors<ServiceException> {
     public static final int NO_DEFAULT_CONSTRUCTOR_IN_SERVICE   = 24;
     public static final int CREATE_SERVICE_FAILED               = 25;
     public static final int SERVICE_IS_NOT_ISERVICE_TYPE        = 26;
+    public static final int SERVICE_SCOPE_IS_CLOSED             = 27;
+    public static final int UNSUPPORTED_SCOPED_DEPENDENCY       = 28;
 
     private static final Map<Integer, String> keyCodeMapping;
 
@@ -82,6 +84,8 @@ public class ServiceErrors extends FileBasedExceptionErrors<ServiceException> {
         keyCodeMapping.put(NO_DEFAULT_CONSTRUCTOR_IN_SERVICE, NoDefaultConstructorInService.KEY);
         keyCodeMapping.put(CREATE_SERVICE_FAILED, CreateServiceFailed.KEY);
         keyCodeMapping.put(SERVICE_IS_NOT_ISERVICE_TYPE, ServiceIsNotIServiceType.KEY);
+        keyCodeMapping.put(SERVICE_SCOPE_IS_CLOSED, ServiceScopeIsClosed.KEY);
+        keyCodeMapping.put(UNSUPPORTED_SCOPED_DEPENDENCY, UnsupportedScopedDependency.KEY);
     }
 
     @Override
@@ -694,4 +698,52 @@ public class ServiceErrors extends FileBasedExceptionErrors<ServiceException> {
             return new Object[] { this._svcName, this._moduleName };
         }
     }
+
+    /**
+     * Error string template:
+     *      The service scope is closed, can't create scoped service - {}
+     */
+    public static final class ServiceScopeIsClosed extends IndexedParameters<ServiceScopeIsClosed> {
+
+        private static final String KEY = "ServiceScopeIsClosed";
+
+        private String _svcId;
+
+        public ServiceScopeIsClosed serviceId(final String serviceId) {
+            this._svcId = serviceId;
+            return this;
+        }
+
+        @Override
+        public Object[] get() {
+            return new Object[] { this._svcId };
+        }
+    }
+
+    /**
+     * Error string template:
+     *      The scoped service {} can't depend on prototype service {}
+     */
+    public static final class UnsupportedScopedDependency extends IndexedParameters<UnsupportedScopedDependency> {
+
+        private static final String KEY = "UnsupportedScopedDependency";
+
+        private String _svcId;
+        private String _depId;
+
+        public UnsupportedScopedDependency serviceId(final String serviceId) {
+            this._svcId = serviceId;
+            return this;
+        }
+
+        public UnsupportedScopedDependency dependencyId(final String dependencyId) {
+            this._depId = dependencyId;
+            return this;
+        }
+
+        @Override
+        public Object[] get() {
+            return new Object[] { this._svcId, this._depId };
+        }
+    }
 }
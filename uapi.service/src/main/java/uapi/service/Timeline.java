@@ -0,0 +1,324 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.service;
+
+import uapi.common.ArgumentChecker;
+import uapi.common.CollectionHelper;
+import uapi.common.StringHelper;
+import uapi.rx.Looper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The timeline records how long each service spends in each lifecycle phase.
+ * The startup timeline is enabled by system property uapi.timeline.enabled, all instrumentation points check
+ * the ENABLED constant first, so the JIT removes them entirely when the timeline is disabled.
+ * The recorded timeline can be written as Chrome trace format which can be opened by chrome://tracing
+ */
+public final class Timeline {
+
+    public static final String PROP_ENABLED     = "uapi.timeline.enabled";
+    public static final String PROP_OUTPUT      = "uapi.timeline.output";
+    public static final String DEFAULT_OUTPUT   = "uapi-startup-timeline.json";
+
+    public static final boolean ENABLED         = Boolean.getBoolean(PROP_ENABLED);
+
+    public static final Timeline STARTUP        = new Timeline();
+
+    // Time spent on waiting dependencies are activated
+    public static final String PHASE_WAIT           = "wait";
+    public static final String PHASE_INSTANTIATE    = "instantiate";
+    public static final String PHASE_RESOLVE        = "resolve";
+    public static final String PHASE_INJECT         = "inject";
+    public static final String PHASE_SATISFY        = "satisfy";
+    // Time spent in the service's own activation callback
+    public static final String PHASE_ACTIVATE       = "activate";
+    public static final String PHASE_BOOT           = "boot";
+
+    private static final String[] OWN_PHASES = new String[] {
+            PHASE_INSTANTIATE, PHASE_RESOLVE, PHASE_INJECT, PHASE_SATISFY, PHASE_ACTIVATE
+    };
+
+    private final long _origin;
+    private final Queue<Span> _spans = new ConcurrentLinkedQueue<>();
+    private final Map<String, List<String>> _dependencies = new ConcurrentHashMap<>();
+
+    public Timeline() {
+        this._origin = System.nanoTime();
+    }
+
+    /**
+     * Record a span which is ended at now
+     *
+     * @param   name
+     *          The span name, normally it is service id
+     * @param   phase
+     *          The phase of the span
+     * @param   startTime
+     *          The start time of the span in nanoseconds, it should come from System.nanoTime()
+     */
+    public void record(
+            final String name,
+            final String phase,
+            final long startTime
+    ) {
+        record(name, phase, startTime, System.nanoTime());
+    }
+
+    /**
+     * Record a span
+     *
+     * @param   name
+     *          The span name, normally it is service id
+     * @param   phase
+     *          The phase of the span
+     * @param   startTime
+     *          The start time of the span in nanoseconds
+     * @param   endTime
+     *          The end time of the span in nanoseconds
+     */
+    public void record(
+            final String name,
+            final String phase,
+            final long startTime,
+            final long endTime
+    ) {
+        ArgumentChecker.required(name, "name");
+        ArgumentChecker.required(phase, "phase");
+        var thread = Thread.currentThread();
+        this._spans.add(new Span(name, phase, thread.getId(), thread.getName(), startTime, endTime));
+    }
+
+    /**
+     * Record the dependencies of specific service, it is used to compute critical path
+     *
+     * @param   serviceId
+     *          The service id
+     * @param   dependencyIds
+     *          The dependency service ids
+     */
+    public void dependsOn(
+            final String serviceId,
+            final List<String> dependencyIds
+    ) {
+        ArgumentChecker.required(serviceId, "serviceId");
+        ArgumentChecker.required(dependencyIds, "dependencyIds");
+        this._dependencies.put(serviceId, dependencyIds);
+    }
+
+    public List<Span> spans() {
+        return new ArrayList<>(this._spans);
+    }
+
+    public void clear() {
+        this._spans.clear();
+        this._dependencies.clear();
+    }
+
+    /**
+     * Compute the critical path which is the dependency chain ending at the last activated service, each
+     * service in the chain is the latest activated dependency of its successor.
+     *
+     * @return  Service ids of the critical path, the first one is activated first
+     */
+    public List<String> criticalPath() {
+        var activatedTimes = new HashMap<String, Long>();
+        Looper.on(this._spans)
+                .filter(span -> PHASE_ACTIVATE.equals(span._phase))
+                .foreach(span -> activatedTimes.merge(span._name, span._endTime, Math::max));
+        var path = new LinkedList<String>();
+        var svcId = latest(activatedTimes.keySet(), activatedTimes);
+        while (svcId != null && ! path.contains(svcId)) {
+            path.addFirst(svcId);
+            svcId = latest(this._dependencies.getOrDefault(svcId, Collections.emptyList()), activatedTimes);
+        }
+        return path;
+    }
+
+    /**
+     * Generate human readable summary which contains the critical path, own time and waiting time of each
+     * service on the path
+     *
+     * @return  The summary
+     */
+    public String summary() {
+        var path = criticalPath();
+        var spans = spans();
+        var bootTime = sum(spans, null, PHASE_BOOT);
+        var buffer = new StringBuilder();
+        buffer.append(StringHelper.makeString("Startup timeline - boot {}ms, {} spans, critical path has {} services",
+                toMillis(bootTime), spans.size(), path.size()));
+        Looper.on(path).foreach(svcId -> buffer.append(StringHelper.makeString(
+                "\n  -> {} - own {}ms, wait {}ms",
+                svcId, toMillis(sum(spans, svcId, OWN_PHASES)), toMillis(sum(spans, svcId, PHASE_WAIT)))));
+        return buffer.toString();
+    }
+
+    /**
+     * Generate Chrome trace format of the timeline
+     *
+     * @return  The JSON string in Chrome trace format
+     */
+    public String toChromeTrace() {
+        var buffer = new StringBuilder();
+        buffer.append("{\"traceEvents\":[");
+        var first = true;
+        for (var span : spans()) {
+            if (! first) {
+                buffer.append(",");
+            }
+            first = false;
+            buffer.append("\n{\"name\":\"").append(escape(span._name))
+                    .append("\",\"cat\":\"").append(escape(span._phase))
+                    .append("\",\"ph\":\"X\",\"pid\":1,\"tid\":").append(span._threadId)
+                    .append(",\"ts\":").append(TimeUnit.NANOSECONDS.toMicros(span._startTime - this._origin))
+                    .append(",\"dur\":").append(TimeUnit.NANOSECONDS.toMicros(span.duration()))
+                    .append(",\"args\":{\"thread\":\"").append(escape(span._threadName)).append("\"}}");
+        }
+        buffer.append("\n],\"displayTimeUnit\":\"ms\"}");
+        return buffer.toString();
+    }
+
+    /**
+     * Write the timeline to specific file in Chrome trace format
+     *
+     * @param   file
+     *          The output file
+     * @throws  IOException
+     *          Write file failed
+     */
+    public void writeChromeTrace(
+            final Path file
+    ) throws IOException {
+        ArgumentChecker.required(file, "file");
+        Files.write(file, toChromeTrace().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long sum(
+            final List<Span> spans,
+            final String name,
+            final String... phases
+    ) {
+        long total = 0L;
+        for (var span : spans) {
+            if ((name == null || name.equals(span._name)) && CollectionHelper.isContains(phases, span._phase)) {
+                total += span.duration();
+            }
+        }
+        return total;
+    }
+
+    private static String latest(
+            final Collection<String> serviceIds,
+            final Map<String, Long> activatedTimes
+    ) {
+        String latest = null;
+        long latestTime = Long.MIN_VALUE;
+        for (var svcId : serviceIds) {
+            var time = activatedTimes.get(svcId);
+            if (time != null && time > latestTime) {
+                latest = svcId;
+                latestTime = time;
+            }
+        }
+        return latest;
+    }
+
+    private static long toMillis(final long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static String escape(final String value) {
+        var buffer = new StringBuilder(value.length());
+        for (var ch : value.toCharArray()) {
+            switch (ch) {
+                case '"':
+                    buffer.append("\\\"");
+                    break;
+                case '\\':
+                    buffer.append("\\\\");
+                    break;
+                default:
+                    if (ch < 0x20) {
+                        buffer.append(String.format("\\u%04x", (int) ch));
+                    } else {
+                        buffer.append(ch);
+                    }
+            }
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * A span represents a phase of a service
+     */
+    public static final class Span {
+
+        private final String _name;
+        private final String _phase;
+        private final long _threadId;
+        private final String _threadName;
+        private final long _startTime;
+        private final long _endTime;
+
+        private Span(
+                final String name,
+                final String phase,
+                final long threadId,
+                final String threadName,
+                final long startTime,
+                final long endTime
+        ) {
+            this._name = name;
+            this._phase = phase;
+            this._threadId = threadId;
+            this._threadName = threadName;
+            this._startTime = startTime;
+            this._endTime = endTime;
+        }
+
+        public String name() {
+            return this._name;
+        }
+
+        public String phase() {
+            return this._phase;
+        }
+
+        public String threadName() {
+            return this._threadName;
+        }
+
+        public long startTime() {
+            return this._startTime;
+        }
+
+        public long endTime() {
+            return this._endTime;
+        }
+
+        public long duration() {
+            return this._endTime - this._startTime;
+        }
+
+        @Override
+        public String toString() {
+            return StringHelper.makeString("Span[name={}, phase={}, thread={}, duration={}ns]",
+                    this._name, this._phase, this._threadName, duration());
+        }
+    }
+}
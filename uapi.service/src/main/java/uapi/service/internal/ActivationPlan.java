@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.service.internal;
+
+import uapi.InvalidArgumentException;
+import uapi.common.ArgumentChecker;
+import uapi.service.Dependency;
+
+/**
+ * The static activation plan of a service which is computed at compile time, it contains the holders of all
+ * static dependencies of the service in activation order, so the activator does not need to discover them at
+ * runtime.
+ */
+final class ActivationPlan {
+
+    private final ServiceHolder[] _holders;
+    // The dependency which each holder is injected through
+    private final Dependency[] _dependencies;
+
+    ActivationPlan(
+            final ServiceHolder[] holders,
+            final Dependency[] dependencies
+    ) {
+        ArgumentChecker.required(holders, "holders");
+        ArgumentChecker.required(dependencies, "dependencies");
+        if (holders.length != dependencies.length) {
+            throw new InvalidArgumentException(
+                    "The holders size {} does not match dependencies size {}", holders.length, dependencies.length);
+        }
+        this._holders = holders;
+        this._dependencies = dependencies;
+    }
+
+    int size() {
+        return this._holders.length;
+    }
+
+    ServiceHolder holder(final int index) {
+        return this._holders[index];
+    }
+
+    Dependency dependency(final int index) {
+        return this._dependencies[index];
+    }
+
+    /**
+     * Check whether specific holder is activated by this plan
+     *
+     * @param   holder
+     *          The service holder
+     * @return  True means the holder is in the plan
+     */
+    boolean contains(final ServiceHolder holder) {
+        for (var plannedHolder : this._holders) {
+            if (plannedHolder == holder) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
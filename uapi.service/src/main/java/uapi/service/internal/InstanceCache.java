@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.service.internal;
+
+import uapi.common.ArgumentChecker;
+import uapi.service.IInstance;
+
+import java.util.*;
+
+/**
+ * Cache instances which are created from a prototype, the instances are keyed by the attributes which are used
+ * to create them.
+ * The instance which is injected into other service is referenced and it is never evicted, other instances are
+ * evicted in least recently used order when the cache exceeds its capacity.
+ * The cache is not thread safe, the caller should synchronize on it.
+ */
+final class InstanceCache {
+
+    static final int DEFAULT_CAPACITY   = 256;
+
+    private final int _capacity;
+    private final LinkedHashMap<Map<String, ?>, Entry> _entries;
+
+    InstanceCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    InstanceCache(final int capacity) {
+        ArgumentChecker.checkInt(capacity, "capacity", 1, Integer.MAX_VALUE);
+        this._capacity = capacity;
+        this._entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Get cached instance by attributes
+     *
+     * @param   attributes
+     *          The attributes which is used to create the instance
+     * @param   reference
+     *          Whether the instance is referenced by the caller, the referenced instance is never evicted
+     * @return  The cached instance or null if no such instance
+     */
+    IInstance get(
+            final Map<String, ?> attributes,
+            final boolean reference
+    ) {
+        var entry = this._entries.get(normalize(attributes));
+        if (entry == null) {
+            return null;
+        }
+        if (reference) {
+            entry._refCount++;
+        }
+        return entry._instance;
+    }
+
+    /**
+     * Put new instance into the cache
+     *
+     * @param   attributes
+     *          The attributes which is used to create the instance
+     * @param   instance
+     *          The instance
+     * @param   reference
+     *          Whether the instance is referenced by the caller, the referenced instance is never evicted
+     * @return  The instances which are evicted from the cache
+     */
+    List<IInstance> put(
+            final Map<String, ?> attributes,
+            final IInstance instance,
+            final boolean reference
+    ) {
+        ArgumentChecker.required(instance, "instance");
+        var entry = new Entry(instance);
+        if (reference) {
+            entry._refCount++;
+        }
+        this._entries.put(normalize(attributes), entry);
+        return evict();
+    }
+
+    /**
+     * Put new instance into the cache if no instance is cached for the attributes
+     *
+     * @param   attributes
+     *          The attributes which is used to create the instance
+     * @param   instance
+     *          The instance
+     * @param   reference
+     *          Whether the instance is referenced by the caller, the referenced instance is never evicted
+     * @return  The instance which is cached for the attributes before or null if the new instance is put
+     */
+    IInstance putIfAbsent(
+            final Map<String, ?> attributes,
+            final IInstance instance,
+            final boolean reference
+    ) {
+        ArgumentChecker.required(instance, "instance");
+        var key = normalize(attributes);
+        var entry = this._entries.get(key);
+        if (entry != null) {
+            if (reference) {
+                entry._refCount++;
+            }
+            return entry._instance;
+        }
+        entry = new Entry(instance);
+        if (reference) {
+            entry._refCount++;
+        }
+        this._entries.put(key, entry);
+        return null;
+    }
+
+    /**
+     * Evict unreferenced instances in least recently used order until the cache does not exceed its capacity,
+     * the most recently used instance is never evicted
+     *
+     * @return  The instances which are evicted from the cache
+     */
+    List<IInstance> evict() {
+        if (this._entries.size() <= this._capacity) {
+            return Collections.emptyList();
+        }
+        List<IInstance> evicted = new ArrayList<>();
+        var iterator = this._entries.values().iterator();
+        while (this._entries.size() > this._capacity && iterator.hasNext()) {
+            var eldest = iterator.next();
+            if (eldest._refCount == 0 && iterator.hasNext()) {
+                iterator.remove();
+                evicted.add(eldest._instance);
+            }
+        }
+        return evicted;
+    }
+
+    int size() {
+        return this._entries.size();
+    }
+
+    /**
+     * Normalize the attributes to a sorted map which has value based equality, so the attributes map which has
+     * different type or order maps to same cache key
+     */
+    private static Map<String, ?> normalize(final Map<String, ?> attributes) {
+        ArgumentChecker.required(attributes, "attributes");
+        if (attributes.size() == 0) {
+            return Collections.emptyMap();
+        }
+        return new TreeMap<>(attributes);
+    }
+
+    private static final class Entry {
+
+        private final IInstance _instance;
+        private int _refCount;
+
+        private Entry(final IInstance instance) {
+            this._instance = instance;
+        }
+    }
+}
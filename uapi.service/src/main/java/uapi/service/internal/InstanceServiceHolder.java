@@ -24,7 +24,16 @@ public class InstanceServiceHolder extends ServiceHolder {
             final String serviceId,
             final Dependency[] dependencies,
             final ISatisfyHook satisfyHook) {
-        super(from, instance, serviceId, dependencies, satisfyHook);
+        this(from, instance, new String[] { serviceId }, dependencies, satisfyHook);
+    }
+
+    InstanceServiceHolder(
+            final String from,
+            final IInstance instance,
+            final String[] serviceIds,
+            final Dependency[] dependencies,
+            final ISatisfyHook satisfyHook) {
+        super(from, instance, serviceIds, dependencies, satisfyHook);
         this._prototypeId = new QualifiedServiceId(instance.prototypeId(), QualifiedServiceId.FROM_LOCAL);
     }
 
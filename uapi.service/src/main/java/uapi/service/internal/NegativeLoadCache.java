@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.service.internal;
+
+import uapi.common.ArgumentChecker;
+import uapi.common.IntervalTime;
+import uapi.service.IServiceLoader;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remember which service loader was failed to load specific service, so the loader is not asked for the service
+ * again until the failure is expired.
+ * The failure of a service is forgot when the service is reported ready by any loader, all failures are forgot
+ * when a new loader is added.
+ * The cache is bounded, the expired failures are purged when it is full and all failures are forgot if it is
+ * still full.
+ */
+final class NegativeLoadCache {
+
+    static final IntervalTime DEFAULT_TTL   = IntervalTime.parse("30s");
+    static final int DEFAULT_MAX_SIZE       = 1024;
+
+    private final long _ttl;
+    private final int _maxSize;
+    // The expiry time in nanoseconds of each failure
+    private final Map<Key, Long> _failures;
+
+    NegativeLoadCache() {
+        this(DEFAULT_TTL);
+    }
+
+    NegativeLoadCache(final IntervalTime ttl) {
+        this(ttl, DEFAULT_MAX_SIZE);
+    }
+
+    NegativeLoadCache(
+            final IntervalTime ttl,
+            final int maxSize
+    ) {
+        ArgumentChecker.required(ttl, "ttl");
+        ArgumentChecker.checkInt(maxSize, "maxSize", 1, Integer.MAX_VALUE);
+        this._ttl = TimeUnit.MILLISECONDS.toNanos(ttl.milliseconds());
+        this._maxSize = maxSize;
+        this._failures = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Check whether the loader was failed to load the service and the failure is not expired
+     *
+     * @param   serviceId
+     *          The service id
+     * @param   loader
+     *          The service loader
+     * @return  True means the loader should not be asked for the service
+     */
+    boolean isFailed(
+            final String serviceId,
+            final IServiceLoader loader
+    ) {
+        var key = new Key(serviceId, loader);
+        var expiry = this._failures.get(key);
+        if (expiry == null) {
+            return false;
+        }
+        if (System.nanoTime() - expiry >= 0) {
+            this._failures.remove(key, expiry);
+            return false;
+        }
+        return true;
+    }
+
+    void failed(
+            final String serviceId,
+            final IServiceLoader loader
+    ) {
+        var now = System.nanoTime();
+        if (this._failures.size() >= this._maxSize) {
+            this._failures.values().removeIf(expiry -> now - expiry >= 0);
+            if (this._failures.size() >= this._maxSize) {
+                this._failures.clear();
+            }
+        }
+        this._failures.put(new Key(serviceId, loader), now + this._ttl);
+    }
+
+    /**
+     * Forget all failures of the service
+     *
+     * @param   serviceId
+     *          The service id
+     */
+    void forget(final String serviceId) {
+        this._failures.keySet().removeIf(key -> key._svcId.equals(serviceId));
+    }
+
+    /**
+     * Forget all failures
+     */
+    void clear() {
+        this._failures.clear();
+    }
+
+    int size() {
+        return this._failures.size();
+    }
+
+    private static final class Key {
+
+        private final String _svcId;
+        private final IServiceLoader _loader;
+
+        private Key(final String serviceId, final IServiceLoader loader) {
+            ArgumentChecker.required(serviceId, "serviceId");
+            ArgumentChecker.required(loader, "loader");
+            this._svcId = serviceId;
+            this._loader = loader;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (! (other instanceof Key)) {
+                return false;
+            }
+            var otherKey = (Key) other;
+            // The loader is compared by identity since it may not implement equals
+            return this._svcId.equals(otherKey._svcId) && this._loader == otherKey._loader;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * this._svcId.hashCode() + System.identityHashCode(this._loader);
+        }
+    }
+}
@@ -16,6 +16,11 @@ import java.util.Map;
 
 public class PrototypeServiceHolder extends ServiceHolder {
 
+    // The instances which are created from this prototype
+    private final InstanceCache _instances = new InstanceCache();
+    // The template which is used to create scoped instances, it is built at first scoped creation
+    private volatile ScopeTemplate _scopeTemplate;
+
     PrototypeServiceHolder(
             final String from,
             final IPrototype service,
@@ -25,6 +30,15 @@ public class PrototypeServiceHolder extends ServiceHolder {
         super(from, service, serviceId, dependencies, satisfyHook);
     }
 
+    PrototypeServiceHolder(
+            final String from,
+            final IPrototype service,
+            final String[] serviceIds,
+            final Dependency[] dependencies,
+            final ISatisfyHook satisfyHook) {
+        super(from, service, serviceIds, dependencies, satisfyHook);
+    }
+
     IInstance newInstance(
             final Map<String, ?> attributes
     ) {
@@ -33,4 +47,16 @@ public class PrototypeServiceHolder extends ServiceHolder {
         IPrototype prototype = (IPrototype) getService();
         return prototype.newInstance(attributes);
     }
+
+    InstanceCache instanceCache() {
+        return this._instances;
+    }
+
+    ScopeTemplate scopeTemplate() {
+        return this._scopeTemplate;
+    }
+
+    void setScopeTemplate(final ScopeTemplate scopeTemplate) {
+        this._scopeTemplate = scopeTemplate;
+    }
 }
@@ -9,15 +9,13 @@
 
 package uapi.service.internal;
 
-import com.google.common.collect.LinkedListMultimap;
-import com.google.common.collect.Multimap;
 import uapi.GeneralException;
 import uapi.InvalidArgumentException;
 import uapi.service.Tags;
 import uapi.codegen.IGenerated;
 import uapi.common.ArgumentChecker;
-import uapi.common.CollectionHelper;
 import uapi.common.Guarder;
+import uapi.common.IntervalTime;
 import uapi.common.StringHelper;
 import uapi.log.ConsoleLogger;
 import uapi.rx.Looper;
@@ -26,25 +24,37 @@ import uapi.log.ILogger;
 
 import java.lang.ref.WeakReference;
 import java.util.*;
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.stream.Stream;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Implementation of IRegistry
  */
-public class Registry implements IRegistry, IService, ITagged, IInjectable {
+public class Registry implements IRegistry, IService, ITagged, IInjectable, IServiceLifecycle {
 
     private static final String[] tags = new String[] {Tags.REGISTRY };
 
-    private final ReadWriteLock _svcRepoLock;
+    private static final IntervalTime DEFAULT_LOAD_TIMEOUT  = IntervalTime.parse("5s");
+    private static final int LOAD_POOL_SIZE                 = 4;
+
+    // Only used to serialize modifications on the service index, reading the index does not need lock
+    private final Lock _svcRepoLock;
     private final SatisfyDecider _satisfyDecider;
-    private final Multimap<String, ServiceHolder> _svcRepo;
+    private final ServiceIndex _svcIndex;
+    // Increased when services are published, removed or deactivated, it is only updated under the repo lock
+    private volatile long _generation;
     private final List<WeakReference<ISatisfyHook>> _satisfyHooks;
+    private final SatisfyCache _satisfyCache;
     private Map<String, IServiceLoader> _svcLoaders;
     private final SortedSet<IServiceLoader> _orderedSvcLoaders;
+    // The loaders which were failed to load specific service recently
+    private final NegativeLoadCache _negativeLoads;
+    // The executor which runs blocking service loading, it is separated from the activation executor since
+    // the activation threads wait on the loading, created at first use
+    private volatile ExecutorService _loadExecutor;
     private final ServiceActivator _svcActivator;
+    private final Map<String, ServiceHandle<?>> _svcHandles;
 
     private ILogger _logger;
     private final ILogger _defaultLogger;
@@ -52,64 +62,22 @@ public class Registry implements IRegistry, IService, ITagged, IInjectable {
     private final IServiceLoader.IServiceReadyListener _svcReadyListener;
 
     public Registry() {
-        this._svcRepoLock = new ReentrantReadWriteLock();
-        this._svcRepo = LinkedListMultimap.create();
+        this._svcRepoLock = new ReentrantLock();
+        this._svcIndex = new ServiceIndex();
+        this._svcHandles = new ConcurrentHashMap<>();
         this._satisfyHooks = new CopyOnWriteArrayList<>();
+        this._satisfyCache = new SatisfyCache();
         this._satisfyDecider = new SatisfyDecider();
         this._svcLoaders = new HashMap<>();
         this._orderedSvcLoaders = new TreeSet<>();
+        this._negativeLoads = new NegativeLoadCache();
         this._defaultLogger = new ConsoleLogger();
-        this._svcActivator = new ServiceActivator((dependency) -> {
-            QualifiedServiceId qSvcId = dependency.getServiceId();
-            String from = qSvcId.getFrom();
-            String svcId = qSvcId.getId();
-            // Check currently the service is already loaded or not
-            ServiceHolder svcHolder = findServiceHolder(svcId, from);
-            if (svcHolder != null) {
-                return svcHolder;
-            }
-
-            Object svc;
-            if (from.equals(QualifiedServiceId.FROM_ANY)) {
-                // Search from any loader
-                var svcLoadersIte = Registry.this._orderedSvcLoaders.iterator();
-                var loaded = false;
-                while (svcLoadersIte.hasNext()) {
-                    var svcLoader = svcLoadersIte.next();
-                    svc = svcLoader.load(qSvcId.getId(), dependency.getServiceType());
-                    if (svc == null) {
-                        continue;
-                    }
-                    loaded = true;
-                    registerService(from, svc, new String[]{qSvcId.getId()}, new Dependency[0]);
-                    if (dependency.isSingle()) {
-                        break;
-                    }
-                }
-                if (!loaded && !dependency.isOptional()) {
-                    getLogger().error("No any service loader can load service {}", qSvcId);
-                    return null;
-                }
-            } else {
-                // Search specific service loader
-                var svcLoader = this._svcLoaders.get(from);
-                if (svcLoader == null) {
-                    getLogger().error("Can't load service {} because no service loader for {}", qSvcId, from);
-                    return null;
-                }
-                svc = svcLoader.load(qSvcId.getId(), dependency.getServiceType());
-                if (svc == null && !dependency.isOptional()) {
-                    getLogger().error("Load service {} from location {} failed", qSvcId, from);
-                    return null;
-                }
-                registerService(from, svc, new String[]{qSvcId.getId()}, new Dependency[0]);
-            }
-            return findService(svcId, from);
-        });
+        this._svcActivator = new ServiceActivator(this::loadExternalService, this::findActivationExecutor);
 
         this._svcReadyListener = (dependency, service) -> {
             // Register new service
             var qSvcId = dependency.getServiceId();
+            this._negativeLoads.forget(qSvcId.getId());
             registerService(qSvcId.getFrom(), service, new String[]{qSvcId.getId()}, new Dependency[0]);
         };
     }
@@ -135,7 +103,26 @@ public class Registry implements IRegistry, IService, ITagged, IInjectable {
     public void register(
             final IService... services
     ) throws InvalidArgumentException {
-        Stream.of(services).forEach(this::register);
+        ArgumentChecker.required(services, "services");
+        var svcHolders = new ArrayList<ServiceHolder>();
+        Looper.on(services).foreach(svc -> svcHolders.addAll(createServiceHolders(svc)));
+        publishServiceHolders(svcHolders);
+    }
+
+    @Override
+    public void register(
+            final List<ServiceDescriptor> descriptors
+    ) throws InvalidArgumentException {
+        ArgumentChecker.required(descriptors, "descriptors");
+        var svcHolders = new ArrayList<ServiceHolder>();
+        Map<ServiceDescriptor, ServiceHolder> descHolders = new IdentityHashMap<>();
+        Looper.on(descriptors).foreach(descriptor -> {
+            var holders = createServiceHolders(descriptor);
+            descHolders.put(descriptor, holders.get(0));
+            svcHolders.addAll(holders);
+        });
+        Looper.on(descriptors).foreach(descriptor -> attachActivationPlan(descriptor, descHolders));
+        publishServiceHolders(svcHolders);
     }
 
     @Override
@@ -204,21 +191,8 @@ public class Registry implements IRegistry, IService, ITagged, IInjectable {
     ) throws ServiceException {
         ArgumentChecker.required(serviceId, "serviceId");
         ArgumentChecker.required(attributes, "attributes");
-        var svcHolder = findServiceHolder(serviceId, QualifiedServiceId.FROM_LOCAL);
-        if (svcHolder == null) {
-            throw ServiceException.builder()
-                    .errorCode(ServiceErrors.NO_SERVICE_FOUND)
-                    .variables(new ServiceErrors.NoServiceFound().serviceId(serviceId))
-                    .build();
-        }
-        if (! (svcHolder instanceof PrototypeServiceHolder)) {
-            throw ServiceException.builder()
-                    .errorCode(ServiceErrors.NOT_A_PROTOTYPE_SERVICE)
-                    .variables(new ServiceErrors.NotAPrototypeService().serviceId(serviceId))
-                    .build();
-        }
-        var instance = ((PrototypeServiceHolder) svcHolder).newInstance(attributes);
-        register(instance);
+        var svcHolder = prototypeHolderOf(serviceId);
+        var instance = instanceOf(svcHolder, attributes, false);
         var instanceHolder = findServiceHolder(instance.getIds()[0]);
         if (instanceHolder == null) {
             throw ServiceException.builder()
@@ -231,6 +205,11 @@ public class Registry implements IRegistry, IService, ITagged, IInjectable {
         return this._svcActivator.activateService(instanceHolder);
     }
 
+    @Override
+    public IServiceScope openScope() {
+        return new ServiceScope(this::newScopedInstance);
+    }
+
     @Override
     public <T> List<T> findServices(
             final Class<T> serviceType
@@ -277,16 +256,30 @@ public class Registry implements IRegistry, IService, ITagged, IInjectable {
         return svc;
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> IServiceHandle<T> handle(
+            final String serviceId
+    ) {
+        ArgumentChecker.notEmpty(serviceId, "serviceId");
+        return (IServiceHandle<T>) this._svcHandles.computeIfAbsent(
+                serviceId, svcId -> new ServiceHandle<>(svcId, this::findService));
+    }
+
+    @Override
+    public <T> IServiceHandle<T> handle(
+            final Class<T> serviceType
+    ) {
+        ArgumentChecker.notNull(serviceType, "serviceType");
+        return handle(serviceType.getName());
+    }
+
     @Override
     public void activateTaggedService(
             final String tag
     ) {
         ArgumentChecker.notEmpty(tag, "tag");
-        var svcHolders = Guarder.by(this._svcRepoLock.readLock()).runForResult(() ->
-            Looper.on(this._svcRepo.values())
-                    .filter(svcHolder -> CollectionHelper.isContains(svcHolder.serviceTags(), tag))
-                    .toList()
-        );
+        var svcHolders = this._svcIndex.byTag(tag);
         if (svcHolders.size() == 0) {
             return;
         }
@@ -296,48 +289,76 @@ public class Registry implements IRegistry, IService, ITagged, IInjectable {
     @Override
     public void deactivateTaggedService(
             final String tag
+    ) {
+        deactivateTaggedService(tag, null);
+    }
+
+    @Override
+    public DeactivationReport deactivateTaggedService(
+            final String tag,
+            final IntervalTime deadline
     ) {
         ArgumentChecker.notEmpty(tag, "tag");
-        var svcHolders = Guarder.by(this._svcRepoLock.readLock()).runForResult(() ->
-                Looper.on(this._svcRepo.values())
-                        .filter(svcHolder -> CollectionHelper.isContains(svcHolder.serviceTags(), tag))
-                        .toList()
-        );
-        if (svcHolders.size() == 0) {
-            return;
-        }
-        Looper.on(svcHolders).foreach(this._svcActivator::deactivateService);
+        return deactivateServiceHolders(this._svcIndex.byTag(tag), deadline);
     }
 
     @Override
     public void deactivateServices(String[] serviceIds) {
+        deactivateServices(serviceIds, null);
+    }
+
+    @Override
+    public DeactivationReport deactivateServices(
+            final String[] serviceIds,
+            final IntervalTime deadline
+    ) {
         ArgumentChecker.required(serviceIds, "serviceIds");
-        var svcHolders = Guarder.by(this._svcRepoLock.readLock()).runForResult(() ->
-            Looper.on(this._svcRepo.values())
-                .filter(svcHolder -> CollectionHelper.isContains(serviceIds, svcHolder.getId()))
-                .toList()
-        );
-        if (svcHolders.size() == 0) {
-            return;
+        var svcIndex = this._svcIndex;
+        var svcHolders = Looper.on(serviceIds)
+                .map(svcIndex::byId)
+                .flatmap(holders -> Looper.on(holders))
+                .toList();
+        return deactivateServiceHolders(svcHolders, deadline);
+    }
+
+    private DeactivationReport deactivateServiceHolders(
+            final List<ServiceHolder> svcHolders,
+            final IntervalTime deadline
+    ) {
+        DeactivationReport report;
+        try {
+            report = this._svcActivator.deactivateServices(svcHolders, deadline);
+        } finally {
+            Guarder.by(this._svcRepoLock).run(() -> this._generation++);
+            Looper.on(svcHolders).foreach(this::invalidateHandles);
         }
-        Looper.on(svcHolders).foreach(this._svcActivator::deactivateService);
+        if (report.missed().size() > 0) {
+            getLogger().warn("Services were not deactivated before the deadline - {}", report.missed());
+        }
+        Looper.on(report.failed().entrySet())
+                .foreach(entry -> getLogger().error(entry.getValue(), "Deactivate service {} failed", entry.getKey()));
+        return report;
     }
 
-    private List<ServiceHolder> findServiceHolders(
+    private void invalidateHandles(
+            final ServiceHolder svcHolder
+    ) {
+        Looper.on(svcHolder.serviceIds()).foreach(this::invalidateHandle);
+    }
+
+    private void invalidateHandle(
             final String serviceId
     ) {
-        List<ServiceHolder> svcHolders;
-        try {
-            svcHolders = Guarder.by(this._svcRepoLock.readLock()).runForResult(() ->
-                Looper.on(this._svcRepo.values())
-                    .filter(svcHolder -> svcHolder.getId().equals(serviceId))
-                    .toList()
-            );
-        } catch (Exception ex) {
-            getLogger().error(ex);
-            svcHolders = Collections.emptyList();
+        var svcHandle = this._svcHandles.get(serviceId);
+        if (svcHandle != null) {
+            svcHandle.invalidate();
         }
-        return svcHolders;
+    }
+
+    private List<ServiceHolder> findServiceHolders(
+            final String serviceId
+    ) {
+        return this._svcIndex.byId(serviceId);
     }
 
     private ServiceHolder findServiceHolder(final String serviceId) {
@@ -373,7 +394,7 @@ public class Registry implements IRegistry, IService, ITagged, IInjectable {
     }
 
     int getCount() {
-        return Guarder.by(this._svcRepoLock.readLock()).runForResult(this._svcRepo::size);
+        return this._svcIndex.size();
     }
 
     private ILogger getLogger() {
@@ -382,13 +403,175 @@ public class Registry implements IRegistry, IService, ITagged, IInjectable {
 
     private void registerService(
             final IService svc) {
+        publishServiceHolders(createServiceHolders(svc));
+    }
+
+    private void registerService(
+            final String svcFrom,
+            final Object svc,
+            final String[] svcIds,
+            final Dependency[] dependencies) {
+        var svcHolders = createServiceHolders(svcFrom, svc, svcIds, dependencies);
+        Looper.on(svcHolders)
+                .filter(svcHolder -> svcHolder.getQualifiedId().isExternalService())
+                .foreach(this._svcActivator::activateService);
+        publishServiceHolders(svcHolders);
+    }
+
+    /**
+     * Load external service by service loaders, the FROM_ANY service is loaded by all loaders concurrently and
+     * the result is taken by the priority of the loaders.
+     * The loader which was failed to load the service recently is skipped.
+     */
+    private ServiceHolder loadExternalService(
+            final Dependency dependency
+    ) {
+        QualifiedServiceId qSvcId = dependency.getServiceId();
+        String from = qSvcId.getFrom();
+        String svcId = qSvcId.getId();
+        // Check currently the service is already loaded or not
+        ServiceHolder svcHolder = findServiceHolder(svcId, from);
+        if (svcHolder != null) {
+            return svcHolder;
+        }
+
+        Object svc;
+        if (from.equals(QualifiedServiceId.FROM_ANY)) {
+            // Search from any loader
+            List<IServiceLoader> svcLoaders = Looper.on(this._orderedSvcLoaders)
+                    .filter(svcLoader -> ! this._negativeLoads.isFailed(svcId, svcLoader))
+                    .toList();
+            var loadings = Looper.on(svcLoaders)
+                    .map(svcLoader -> loadAsync(svcLoader, dependency))
+                    .toList();
+            var loaded = false;
+            for (int i = 0; i < svcLoaders.size(); i++) {
+                svc = awaitLoading(svcLoaders.get(i), loadings.get(i), svcId);
+                if (svc == null) {
+                    continue;
+                }
+                loaded = true;
+                registerService(from, svc, new String[]{svcId}, new Dependency[0]);
+                if (dependency.isSingle()) {
+                    // The results of lower priority loaders are ignored, cancel them so they do not hold
+                    // the loading threads any more
+                    Looper.on(loadings.subList(i + 1, loadings.size()))
+                            .foreach(loading -> loading.cancel(true));
+                    break;
+                }
+            }
+            if (!loaded && !dependency.isOptional()) {
+                getLogger().error("No any service loader can load service {}", qSvcId);
+                return null;
+            }
+        } else {
+            // Search specific service loader
+            var svcLoader = this._svcLoaders.get(from);
+            if (svcLoader == null) {
+                getLogger().error("Can't load service {} because no service loader for {}", qSvcId, from);
+                return null;
+            }
+            svc = null;
+            if (! this._negativeLoads.isFailed(svcId, svcLoader)) {
+                svc = awaitLoading(svcLoader, loadAsync(svcLoader, dependency), svcId);
+            }
+            if (svc == null && !dependency.isOptional()) {
+                getLogger().error("Load service {} from location {} failed", qSvcId, from);
+                return null;
+            }
+            registerService(from, svc, new String[]{svcId}, new Dependency[0]);
+        }
+        return findServiceHolder(svcId, from);
+    }
+
+    private CompletableFuture<Object> loadAsync(
+            final IServiceLoader svcLoader,
+            final Dependency dependency
+    ) {
+        var loading = new CompletableFuture<>();
+        CompletionStage<Object> stage;
+        try {
+            stage = svcLoader.loadAsync(dependency.getServiceId().getId(), dependency.getServiceType(), getLoadExecutor());
+        } catch (Exception ex) {
+            loading.completeExceptionally(ex);
+            return loading;
+        }
+        if (stage == null) {
+            // The loader does not support asynchronous loading
+            stage = CompletableFuture.supplyAsync(
+                    () -> svcLoader.load(dependency.getServiceId().getId(), dependency.getServiceType()),
+                    getLoadExecutor());
+        }
+        stage.whenComplete((svc, ex) -> {
+            if (ex != null) {
+                loading.completeExceptionally(ex);
+            } else {
+                loading.complete(svc);
+            }
+        });
+        // Propagate the cancellation to the loader when the loading result is not needed
+        var loaderStage = stage;
+        loading.whenComplete((svc, ex) -> {
+            if (loading.isCancelled() && loaderStage instanceof Future) {
+                ((Future<?>) loaderStage).cancel(true);
+            }
+        });
+        var timeout = svcLoader.getLoadTimeout();
+        if (timeout == null) {
+            timeout = DEFAULT_LOAD_TIMEOUT;
+        }
+        return loading.orTimeout(timeout.milliseconds(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Wait the loading is finished, the loader is remembered as failed if it does not return the service
+     */
+    private Object awaitLoading(
+            final IServiceLoader svcLoader,
+            final CompletableFuture<Object> loading,
+            final String svcId
+    ) {
+        Object svc = null;
+        try {
+            svc = loading.join();
+        } catch (CompletionException | CancellationException ex) {
+            var cause = ex.getCause() == null ? ex : ex.getCause();
+            if (cause instanceof TimeoutException) {
+                getLogger().warn("Load service {} by loader {} is timed out", svcId, svcLoader.getId());
+            } else {
+                getLogger().error(cause, "Load service {} by loader {} failed", svcId, svcLoader.getId());
+            }
+        }
+        if (svc == null) {
+            this._negativeLoads.failed(svcId, svcLoader);
+        }
+        return svc;
+    }
+
+    private Executor getLoadExecutor() {
+        var executor = this._loadExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = this._loadExecutor;
+                if (executor == null) {
+                    executor = ActivationExecutors.newPlatformExecutor("service-loader", LOAD_POOL_SIZE);
+                    this._loadExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    private List<ServiceHolder> createServiceHolders(
+            final IService svc) {
+        ArgumentChecker.notNull(svc, "svc");
         final var svcIds = svc.getIds();
         final var dependencies =
                 svc instanceof IInjectable ? ((IInjectable) svc).getDependencies() : new Dependency[0];
-        registerService(QualifiedServiceId.FROM_LOCAL, svc, svcIds, dependencies);
+        return createServiceHolders(QualifiedServiceId.FROM_LOCAL, svc, svcIds, dependencies);
     }
 
-    private void registerService(
+    private List<ServiceHolder> createServiceHolders(
             final String svcFrom,
             final Object svc,
             final String[] svcIds,
@@ -399,45 +582,268 @@ public class Registry implements IRegistry, IService, ITagged, IInjectable {
             throw new InvalidArgumentException("The service id is required - {}", svc.getClass().getName());
         }
 
-        Looper.on(svcIds)
-                .map(svcId -> {
-                    ServiceHolder svcHolder;
-                    if (svc instanceof IPrototype) {
-                        svcHolder = new PrototypeServiceHolder(svcFrom, (IPrototype) svc, svcId, dependencies, this._satisfyDecider);
-                    } else if (svc instanceof IInstance) {
-                        svcHolder = new InstanceServiceHolder(svcFrom, (IInstance) svc, svcId, dependencies, this._satisfyDecider);
-                    } else {
-                        svcHolder = new ServiceHolder(svcFrom, svc, svcId, dependencies, this._satisfyDecider);
-                    }
-                    return svcHolder;
-                }).next(svcHolder -> {
-                    if (svcHolder.getQualifiedId().isExternalService()) {
-                        this._svcActivator.activateService(svcHolder);
-                    }
-                }).foreach(svcHolder -> {
-                    List<ServiceHolder> hostSvcs = new ArrayList<>();
-                    // Check whether the new register service depends on existing service
-                    Guarder.by(this._svcRepoLock.readLock()).run(() -> {
-
-                        Looper.on(this._svcRepo.values())
-                                .filter(existingSvc -> svcHolder.isDependsOn(existingSvc.getQualifiedId()))
-                                .foreach(hostSvcs::add);
-
-                    });
-                    Looper.on(hostSvcs).foreach(existingSvc -> setDependency(svcHolder, existingSvc, initInstanceAttributes(svcHolder)));
-                    hostSvcs.clear();
-
-                    // Check whether existing service depends on the new register service
-                    Guarder.by(this._svcRepoLock.readLock()).run(() -> {
-                        Looper.on(this._svcRepo.values())
-                                .filter(existingSvc -> existingSvc.isDependsOn(svcHolder.getQualifiedId()))
-                                .foreach(hostSvcs::add);
-                    });
-                    Looper.on(hostSvcs).foreach(existingSvc -> setDependency(existingSvc, svcHolder, initInstanceAttributes(existingSvc)));
-                    hostSvcs.clear();
-
-                    Guarder.by(this._svcRepoLock.writeLock()).run(() -> this._svcRepo.put(svcHolder.getId(), svcHolder));
-                });
+        // All ids of the service share one holder
+        ServiceHolder svcHolder;
+        if (svc instanceof IPrototype) {
+            svcHolder = new PrototypeServiceHolder(svcFrom, (IPrototype) svc, svcIds, dependencies, this._satisfyDecider);
+        } else if (svc instanceof IInstance) {
+            svcHolder = new InstanceServiceHolder(svcFrom, (IInstance) svc, svcIds, dependencies, this._satisfyDecider);
+        } else {
+            svcHolder = new ServiceHolder(svcFrom, svc, svcIds, dependencies, this._satisfyDecider);
+        }
+        return Collections.singletonList(svcHolder);
+    }
+
+    private List<ServiceHolder> createServiceHolders(
+            final ServiceDescriptor descriptor
+    ) {
+        ArgumentChecker.required(descriptor, "descriptor");
+        if (descriptor.isPrototype()) {
+            // The prototype service is used to create instance service when it is injected, no need to be lazy
+            return createServiceHolders(descriptor.newService());
+        }
+        // All ids of the service share one holder and the lazy instance is created when the service is activated
+        return Collections.singletonList(new ServiceHolder(
+                QualifiedServiceId.FROM_LOCAL, descriptor::newService, descriptor.getIds(),
+                descriptor.getDependencies(), descriptor.getTags(), this._satisfyDecider));
+    }
+
+    /**
+     * Attach the static activation plan of the descriptor to its service holder, the plan is dropped and
+     * the dependencies are discovered at runtime if any planned service is not registered with it
+     */
+    private void attachActivationPlan(
+            final ServiceDescriptor descriptor,
+            final Map<ServiceDescriptor, ServiceHolder> descHolders
+    ) {
+        if (descriptor.isPrototype() || ! descriptor.hasActivationPlan()) {
+            return;
+        }
+        var order = descriptor.activationOrder();
+        if (order.size() == 0) {
+            return;
+        }
+        // Find out the dependency which each planned service is injected through
+        Map<ServiceDescriptor, Dependency> plannedDeps = new IdentityHashMap<>();
+        collectStaticDependencies(descriptor, plannedDeps);
+        Looper.on(order).foreach(plannedDesc -> collectStaticDependencies(plannedDesc, plannedDeps));
+
+        var holders = new ServiceHolder[order.size()];
+        var dependencies = new Dependency[order.size()];
+        for (int i = 0; i < order.size(); i++) {
+            holders[i] = descHolders.get(order.get(i));
+            dependencies[i] = plannedDeps.get(order.get(i));
+            if (holders[i] == null || dependencies[i] == null) {
+                return;
+            }
+        }
+        descHolders.get(descriptor).setActivationPlan(new ActivationPlan(holders, dependencies));
+    }
+
+    private void collectStaticDependencies(
+            final ServiceDescriptor descriptor,
+            final Map<ServiceDescriptor, Dependency> plannedDeps
+    ) {
+        var dependencies = descriptor.getDependencies();
+        for (int slot = 0; slot < dependencies.length; slot++) {
+            var provider = descriptor.staticDependency(slot);
+            if (provider != null) {
+                plannedDeps.putIfAbsent(provider, dependencies[slot]);
+            }
+        }
+    }
+
+    /**
+     * Wire the new service holders with each other and with existing service holders, then add all of them
+     * to the index.
+     * The dependency slots are linked and the index is updated in one critical section, so the services which
+     * are registered concurrently are always wired with each other. The injection, activation and prototype
+     * instance creation may run user code, so they run after the lock is released.
+     */
+    private void publishServiceHolders(
+            final List<ServiceHolder> svcHolders
+    ) {
+        if (svcHolders.size() == 0) {
+            return;
+        }
+        var batchIndex = new ServiceIndex();
+        batchIndex.add(svcHolders);
+
+        List<Runnable> wirings = new ArrayList<>();
+        Guarder.by(this._svcRepoLock).run(() -> {
+            var svcIndex = this._svcIndex;
+
+            // Check whether the new register services depend on existing services or other new services
+            Looper.on(svcHolders).foreach(svcHolder -> {
+                Looper.on(svcIndex.providersOf(svcHolder))
+                        .foreach(existingSvc -> linkDependency(svcHolder, existingSvc, wirings));
+                Looper.on(batchIndex.providersOf(svcHolder))
+                        .filter(newSvc -> newSvc != svcHolder)
+                        .foreach(newSvc -> linkDependency(svcHolder, newSvc, wirings));
+            });
+
+            // Check whether existing services depend on the new register services
+            Looper.on(svcHolders).foreach(svcHolder ->
+                    Looper.on(svcIndex.dependentsOf(svcHolder))
+                            .foreach(existingSvc -> linkDependency(existingSvc, svcHolder, wirings)));
+
+            svcIndex.add(svcHolders);
+            this._generation++;
+        });
+        Looper.on(wirings).foreach(Runnable::run);
+        // The cached service in handle may be replaced by new registered service
+        Looper.on(svcHolders).foreach(this::invalidateHandles);
+    }
+
+    /**
+     * Get cached instance of the prototype or create and register new instance, the instances which are
+     * evicted from the cache are unregistered.
+     */
+    private IInstance instanceOf(
+            final PrototypeServiceHolder prototypeHolder,
+            final Map<String, ?> attributes,
+            final boolean reference
+    ) {
+        var instanceCache = prototypeHolder.instanceCache();
+        synchronized (instanceCache) {
+            var cached = instanceCache.get(attributes, reference);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        // The instance is created and registered outside the cache monitor, so the slow prototype or the
+        // registration does not block other threads which ask instances of the prototype, the instance is
+        // registered before it is cached so the cached instance is always registered
+        var instance = prototypeHolder.newInstance(attributes);
+        register(instance);
+        IInstance cached;
+        List<IInstance> evicted;
+        synchronized (instanceCache) {
+            cached = instanceCache.putIfAbsent(attributes, instance, reference);
+            evicted = cached == null ? instanceCache.evict() : Collections.emptyList();
+        }
+        if (cached != null) {
+            // Other thread created the instance for same attributes at the same time
+            unregisterInstance(instance);
+            return cached;
+        }
+        Looper.on(evicted).foreach(this::unregisterInstance);
+        return instance;
+    }
+
+    private void unregisterInstance(
+            final IInstance instance
+    ) {
+        var svcHolders = Looper.on(instance.getIds())
+                .map(this._svcIndex::byId)
+                .flatmap(holders -> Looper.on(holders))
+                .filter(svcHolder -> svcHolder.getService() == instance)
+                .toList();
+        try {
+            this._svcActivator.deactivateServices(svcHolders, null);
+        } finally {
+            Guarder.by(this._svcRepoLock).run(() -> {
+                Looper.on(svcHolders).foreach(this._svcIndex::remove);
+                this._generation++;
+            });
+            Looper.on(svcHolders).foreach(this::invalidateHandles);
+            Looper.on(svcHolders).foreach(svcHolder -> this._satisfyCache.forget(svcHolder));
+        }
+    }
+
+    private PrototypeServiceHolder prototypeHolderOf(
+            final String serviceId
+    ) {
+        var svcHolder = findServiceHolder(serviceId, QualifiedServiceId.FROM_LOCAL);
+        if (svcHolder == null) {
+            throw ServiceException.builder()
+                    .errorCode(ServiceErrors.NO_SERVICE_FOUND)
+                    .variables(new ServiceErrors.NoServiceFound().serviceId(serviceId))
+                    .build();
+        }
+        if (! (svcHolder instanceof PrototypeServiceHolder)) {
+            throw ServiceException.builder()
+                    .errorCode(ServiceErrors.NOT_A_PROTOTYPE_SERVICE)
+                    .variables(new ServiceErrors.NotAPrototypeService().serviceId(serviceId))
+                    .build();
+        }
+        return (PrototypeServiceHolder) svcHolder;
+    }
+
+    /**
+     * Create scoped instance from the prototype by its scope template, the instance is not registered
+     */
+    private IInstance newScopedInstance(
+            final String serviceId,
+            final Map<String, ?> attributes
+    ) {
+        var prototypeHolder = prototypeHolderOf(serviceId);
+        var instance = prototypeHolder.newInstance(attributes);
+        var template = prototypeHolder.scopeTemplate();
+        var generation = this._generation;
+        if (template == null || ! template.isValid(generation)) {
+            template = buildScopeTemplate(prototypeHolder, instance, generation);
+            prototypeHolder.setScopeTemplate(template);
+        }
+        template.apply(instance);
+        return instance;
+    }
+
+    /**
+     * Resolve and activate all services which are injected into the scoped instances of the prototype
+     */
+    private ScopeTemplate buildScopeTemplate(
+            final PrototypeServiceHolder prototypeHolder,
+            final IInstance instance,
+            final long generation
+    ) {
+        var dependencies = instance instanceof IInjectable ? ((IInjectable) instance).getDependencies() : null;
+        var holders = new ArrayList<ServiceHolder>();
+        var injectIds = new ArrayList<String>();
+        if (dependencies == null) {
+            dependencies = new Dependency[0];
+        }
+        for (var dependency : dependencies) {
+            var qsId = dependency.getServiceId();
+            var providers = this._svcIndex.providersOf(dependency);
+            if (providers.size() == 0 && qsId.isExternalService()) {
+                var extSvcHolder = loadExternalService(dependency);
+                if (extSvcHolder != null) {
+                    providers = Collections.singletonList(extSvcHolder);
+                }
+            }
+            if (providers.size() == 0) {
+                if (dependency.isOptional()) {
+                    continue;
+                }
+                throw ServiceException.builder()
+                        .errorCode(ServiceErrors.NO_SERVICE_FOUND)
+                        .variables(new ServiceErrors.NoServiceFound().serviceId(qsId.getId()))
+                        .build();
+            }
+            if (dependency.isSingle() && providers.size() > 1) {
+                throw ServiceException.builder()
+                        .errorCode(ServiceErrors.MULTIPLE_SERVICE_FOUND)
+                        .variables(new ServiceErrors.MultipleServiceFound().serviceId(qsId.getId()))
+                        .build();
+            }
+            for (var provider : providers) {
+                if (provider instanceof PrototypeServiceHolder) {
+                    throw ServiceException.builder()
+                            .errorCode(ServiceErrors.UNSUPPORTED_SCOPED_DEPENDENCY)
+                            .variables(new ServiceErrors.UnsupportedScopedDependency()
+                                    .serviceId(prototypeHolder.getId())
+                                    .dependencyId(qsId.getId()))
+                            .build();
+                }
+                this._svcActivator.activateService(provider);
+                holders.add(provider);
+                injectIds.add(qsId.getId());
+            }
+        }
+        return new ScopeTemplate(
+                generation, holders.toArray(new ServiceHolder[0]), injectIds.toArray(new String[0]));
     }
 
     private Map<String, ?> initInstanceAttributes(ServiceHolder refSvcHolder) {
@@ -459,25 +865,65 @@ public class Registry implements IRegistry, IService, ITagged, IInjectable {
         return attributes;
     }
 
-    private void setDependency(
+    /**
+     * Link the dependency to the host service, it is invoked in repository lock so it never runs user code,
+     * the wiring which may run user code is added to the wirings which are run after the lock is released
+     */
+    private void linkDependency(
             final ServiceHolder hostSvc,
             final ServiceHolder dependencySvc,
-            final Map<String, ?> attributes
+            final List<Runnable> wirings
     ) {
-        if (dependencySvc instanceof PrototypeServiceHolder) {
-            // Get service instance and register it then set instance service holder
-            var instance = ((PrototypeServiceHolder) dependencySvc).newInstance(attributes);
-            register(instance);
-            var instanceHolder = findServiceHolder(instance.getIds()[0], QualifiedServiceId.FROM_LOCAL);
-            if (instanceHolder == null) {
-                throw new GeneralException("Register instance service is failed, prototype service is - {}", dependencySvc.getId());
-            }
-            if (! (instanceHolder instanceof InstanceServiceHolder)) {
-                throw new GeneralException("Instance service should wrap by InstanceServiceHolder");
-            }
-            hostSvc.setInstanceDependency((InstanceServiceHolder) instanceHolder, this._svcActivator);
+        if (! (dependencySvc instanceof PrototypeServiceHolder)) {
+            hostSvc.linkDependency(dependencySvc);
+            wirings.add(() -> hostSvc.injectLinkedDependency(dependencySvc, this._svcActivator));
+        } else if (hostSvc.isActivated()) {
+            wirings.add(() -> setInstanceDependency(hostSvc, (PrototypeServiceHolder) dependencySvc));
         } else {
-            hostSvc.setDependency(dependencySvc, this._svcActivator);
+            // The instance attributes are made from the host service, so the instance is created when the
+            // host service is going to be activated
+            hostSvc.deferDependency(() -> setInstanceDependency(hostSvc, (PrototypeServiceHolder) dependencySvc));
+        }
+    }
+
+    private void setInstanceDependency(
+            final ServiceHolder hostSvc,
+            final PrototypeServiceHolder prototypeSvc
+    ) {
+        // Get service instance and register it then set instance service holder
+        var instance = instanceOf(prototypeSvc, initInstanceAttributes(hostSvc), true);
+        var instanceHolder = findServiceHolder(instance.getIds()[0], QualifiedServiceId.FROM_LOCAL);
+        if (instanceHolder == null) {
+            throw new GeneralException("Register instance service is failed, prototype service is - {}", prototypeSvc.getId());
+        }
+        if (! (instanceHolder instanceof InstanceServiceHolder)) {
+            throw new GeneralException("Instance service should wrap by InstanceServiceHolder");
+        }
+        hostSvc.setInstanceDependency((InstanceServiceHolder) instanceHolder, this._svcActivator);
+    }
+
+    @Override
+    public void onDependencyInject(
+            final String serviceId,
+            final Object service
+    ) {
+        injectObject(new Injection(serviceId, service));
+    }
+
+    /**
+     * Shutdown the executors which were created by the registry, it is invoked when the registry is
+     * deactivated on system shutdown
+     */
+    @Override
+    public void onDeactivate() {
+        this._svcActivator.close();
+        ExecutorService loadExecutor;
+        synchronized (this) {
+            loadExecutor = this._loadExecutor;
+            this._loadExecutor = null;
+        }
+        if (loadExecutor != null) {
+            loadExecutor.shutdown();
         }
     }
 
@@ -495,7 +941,11 @@ public class Registry implements IRegistry, IService, ITagged, IInjectable {
             }
             releaseHooks();
             ISatisfyHook hook = (ISatisfyHook) injectedObj;
-            this._satisfyHooks.add(new WeakReference<>(hook));
+            var hookRef = new WeakReference<>(hook);
+            if (hook.isCacheable()) {
+                hook.setDecisionCache(this._satisfyCache.bind(hookRef));
+            }
+            this._satisfyHooks.add(hookRef);
             return;
         }
         if (ILogger.class.getName().equals(injection.getId())) {
@@ -516,6 +966,8 @@ public class Registry implements IRegistry, IService, ITagged, IInjectable {
             var svcLoader = (IServiceLoader) injection.getObject();
             this._svcLoaders.put(svcLoader.getId(), svcLoader);
             this._orderedSvcLoaders.add(svcLoader);
+            // The new loader may load the services which were failed to load before
+            this._negativeLoads.clear();
             svcLoader.register(this._svcReadyListener);
             return;
         }
@@ -562,8 +1014,27 @@ public class Registry implements IRegistry, IService, ITagged, IInjectable {
         throw new InvalidArgumentException("The Registry does not depends on service {}", id);
     }
 
+    /**
+     * Find activated activation executor, the activation executor is not a dependency of the registry since it
+     * may rely on configuration which is only available after the registry is activated.
+     */
+    private IActivationExecutor findActivationExecutor() {
+        var svcHolders = this._svcIndex.byId(IActivationExecutor.class.getName());
+        if (svcHolders.size() == 0) {
+            return null;
+        }
+        return Looper.on(svcHolders)
+                .filter(ServiceHolder::isActivated)
+                .map(svcHolder -> (IActivationExecutor) svcHolder.getService())
+                .first(null);
+    }
+
     private void releaseHooks() {
-        this._satisfyHooks.removeIf(it -> it.get() == null);
+        for (var hookRef : this._satisfyHooks) {
+            if (hookRef.get() == null && this._satisfyHooks.remove(hookRef)) {
+                this._satisfyCache.forget(hookRef);
+            }
+        }
     }
 
     private final class SatisfyDecider implements ISatisfyHook {
@@ -578,7 +1049,7 @@ public class Registry implements IRegistry, IService, ITagged, IInjectable {
                     containsNull = true;
                     continue;
                 }
-                isSatisfied = hook.isSatisfied(serviceRef);
+                isSatisfied = decide(serviceRef, hookRef, hook);
                 if (! isSatisfied) {
                     break;
                 }
@@ -588,5 +1059,24 @@ public class Registry implements IRegistry, IService, ITagged, IInjectable {
             }
             return isSatisfied;
         }
+
+        private boolean decide(
+                final IServiceReference serviceRef,
+                final WeakReference<ISatisfyHook> hookRef,
+                final ISatisfyHook hook
+        ) {
+            if (! hook.isCacheable()) {
+                return hook.isSatisfied(serviceRef);
+            }
+            var cache = Registry.this._satisfyCache;
+            var decision = cache.get(serviceRef, hookRef);
+            if (decision != null) {
+                return decision;
+            }
+            var version = cache.version();
+            var isSatisfied = hook.isSatisfied(serviceRef);
+            cache.put(serviceRef, hookRef, isSatisfied, version);
+            return isSatisfied;
+        }
     }
 }
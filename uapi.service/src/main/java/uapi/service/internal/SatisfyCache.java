@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.service.internal;
+
+import uapi.common.ArgumentChecker;
+import uapi.service.ISatisfyHook;
+import uapi.service.IServiceReference;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache the satisfy decisions which are made by cacheable hooks, the decision is keyed by service reference
+ * and the weak reference of the hook, so the cache does not prevent the hook from being collected.
+ * The decisions are invalidated by the hook through the decision cache which is bound to it.
+ */
+final class SatisfyCache {
+
+    private final Map<Key, Boolean> _decisions;
+    // Increased on each invalidation, used to drop the decision which was made before an invalidation
+    private final AtomicLong _version;
+
+    SatisfyCache() {
+        this._decisions = new ConcurrentHashMap<>();
+        this._version = new AtomicLong();
+    }
+
+    /**
+     * Get current version of the cache, it should be got before asking the hook and be passed to put method
+     *
+     * @return  Current version
+     */
+    long version() {
+        return this._version.get();
+    }
+
+    /**
+     * Get cached decision
+     *
+     * @param   serviceRef
+     *          The service reference
+     * @param   hookRef
+     *          The reference of the hook which made the decision
+     * @return  The cached decision or null if no decision was cached
+     */
+    Boolean get(
+            final IServiceReference serviceRef,
+            final WeakReference<ISatisfyHook> hookRef
+    ) {
+        return this._decisions.get(new Key(serviceRef, hookRef));
+    }
+
+    /**
+     * Cache the decision, the decision is dropped if any invalidation happened after the version was got
+     * since the decision may be made on stale state.
+     *
+     * @param   serviceRef
+     *          The service reference
+     * @param   hookRef
+     *          The reference of the hook which made the decision
+     * @param   decision
+     *          The decision
+     * @param   version
+     *          The cache version which was got before asking the hook
+     */
+    void put(
+            final IServiceReference serviceRef,
+            final WeakReference<ISatisfyHook> hookRef,
+            final boolean decision,
+            final long version
+    ) {
+        var key = new Key(serviceRef, hookRef);
+        this._decisions.put(key, decision);
+        if (this._version.get() != version) {
+            this._decisions.remove(key);
+        }
+    }
+
+    /**
+     * Create decision cache which is used by specific hook to invalidate its decisions
+     *
+     * @param   hookRef
+     *          The reference of the hook
+     * @return  The decision cache of the hook
+     */
+    ISatisfyHook.IDecisionCache bind(final WeakReference<ISatisfyHook> hookRef) {
+        ArgumentChecker.required(hookRef, "hookRef");
+        return new ISatisfyHook.IDecisionCache() {
+
+            @Override
+            public void invalidate(final IServiceReference serviceRef) {
+                ArgumentChecker.required(serviceRef, "serviceRef");
+                SatisfyCache.this._version.incrementAndGet();
+                SatisfyCache.this._decisions.remove(new Key(serviceRef, hookRef));
+            }
+
+            @Override
+            public void invalidateAll() {
+                forget(hookRef);
+            }
+        };
+    }
+
+    /**
+     * Remove all decisions which were made by the hook
+     *
+     * @param   hookRef
+     *          The reference of the hook
+     */
+    void forget(final WeakReference<ISatisfyHook> hookRef) {
+        this._version.incrementAndGet();
+        this._decisions.keySet().removeIf(key -> key._hookRef == hookRef);
+    }
+
+    /**
+     * Remove all decisions of the service
+     *
+     * @param   serviceRef
+     *          The service reference
+     */
+    void forget(final IServiceReference serviceRef) {
+        this._version.incrementAndGet();
+        this._decisions.keySet().removeIf(key -> key._svcRef == serviceRef);
+    }
+
+    int size() {
+        return this._decisions.size();
+    }
+
+    private static final class Key {
+
+        private final IServiceReference _svcRef;
+        private final WeakReference<ISatisfyHook> _hookRef;
+
+        private Key(
+                final IServiceReference serviceRef,
+                final WeakReference<ISatisfyHook> hookRef
+        ) {
+            ArgumentChecker.required(serviceRef, "serviceRef");
+            ArgumentChecker.required(hookRef, "hookRef");
+            this._svcRef = serviceRef;
+            this._hookRef = hookRef;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (! (other instanceof Key)) {
+                return false;
+            }
+            var otherKey = (Key) other;
+            // Both are compared by identity since the service reference is the holder of the service
+            return this._svcRef == otherKey._svcRef && this._hookRef == otherKey._hookRef;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(this._svcRef) + System.identityHashCode(this._hookRef);
+        }
+    }
+}
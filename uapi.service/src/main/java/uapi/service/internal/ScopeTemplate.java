@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.service.internal;
+
+import uapi.common.ArgumentChecker;
+import uapi.service.IInjectable;
+import uapi.service.IInstance;
+import uapi.service.IServiceFactory;
+import uapi.service.IServiceLifecycle;
+import uapi.service.Injection;
+
+/**
+ * The pre-wired template of scoped instances which are created from same prototype, it holds the activated
+ * services which are injected into each instance, so the scoped instance is created without resolving,
+ * injecting and satisfying its dependencies by the registry.
+ * The template is rebuilt when new services are registered or any injected service is deactivated.
+ */
+final class ScopeTemplate {
+
+    // The registry generation which the template was built on
+    private final long _generation;
+    // The holders of injected services, used to check whether the injected services are still available
+    private final ServiceHolder[] _holders;
+    // The id which each service is injected by, it is aligned with holders
+    private final String[] _injectIds;
+
+    ScopeTemplate(
+            final long generation,
+            final ServiceHolder[] holders,
+            final String[] injectIds
+    ) {
+        ArgumentChecker.required(holders, "holders");
+        ArgumentChecker.required(injectIds, "injectIds");
+        this._generation = generation;
+        this._holders = holders;
+        this._injectIds = injectIds;
+    }
+
+    /**
+     * Check whether the template can be used on specific registry generation
+     *
+     * @param   generation
+     *          Current generation of the registry
+     * @return  True means the template can be used
+     */
+    boolean isValid(final long generation) {
+        if (this._generation != generation) {
+            return false;
+        }
+        for (var holder : this._holders) {
+            if (! holder.isActivated()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Inject all services into the instance and activate it
+     *
+     * @param   instance
+     *          The new created instance
+     */
+    void apply(final IInstance instance) {
+        ArgumentChecker.required(instance, "instance");
+        for (int i = 0; i < this._holders.length; i++) {
+            var injectedSvc = this._holders[i].getService();
+            if (injectedSvc instanceof IServiceFactory) {
+                // Create service from service factory
+                injectedSvc = ((IServiceFactory) injectedSvc).createService(instance);
+            }
+            ((IInjectable) instance).injectObject(new Injection(this._injectIds[i], injectedSvc));
+        }
+        if (instance instanceof IServiceLifecycle) {
+            ((IServiceLifecycle) instance).onActivate();
+        }
+    }
+
+    int size() {
+        return this._holders.length;
+    }
+}
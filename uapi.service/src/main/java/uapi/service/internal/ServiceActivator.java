@@ -12,22 +12,17 @@ package uapi.service.internal;
 import uapi.GeneralException;
 import uapi.UapiException;
 import uapi.common.ArgumentChecker;
-import uapi.common.Guarder;
 import uapi.common.IntervalTime;
-import uapi.common.Watcher;
 import uapi.rx.Looper;
+import uapi.service.ActivationExecutors;
+import uapi.service.DeactivationReport;
+import uapi.service.IActivationExecutor;
 import uapi.service.ServiceErrors;
 import uapi.service.ServiceException;
+import uapi.service.Timeline;
 
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.Supplier;
 
 /**
@@ -36,18 +31,113 @@ import java.util.function.Supplier;
 public class ServiceActivator {
 
     private static final IntervalTime DEFAULT_TIME_OUT  = IntervalTime.parse("5s");
+    private static final IntervalTime DEFAULT_DEADLINE  = IntervalTime.parse("30s");
+    private static final int DEFAULT_POOL_SIZE          = Math.max(4, Runtime.getRuntime().availableProcessors());
 
-    private static final int MAX_ACTIVE_THREAD_COUNT = Runtime.getRuntime().availableProcessors();
+    private final IExternalServiceLoader _extSvcLoader;
+    private final Supplier<IActivationExecutor> _actExecutorResolver;
 
-    private final Lock _lock;
-    private final AwaitingList<ServiceActiveTask> _tasks;
+    // The dedicated executor which is used when no activation executor is provided, created at first use
+    private volatile ExecutorService _defaultExecutor;
 
-    private final IExternalServiceLoader _extSvcLoader;
+    // The activation of each service holder, other threads which need activate same service holder will join
+    // on the activation instead of activating it again, so the activate callbacks are invoked only once.
+    // The completed activation is kept until the service is deactivated, the failed one is removed
+    private final Map<ServiceHolder, CompletableFuture<Void>> _activations;
+
+    // The executor which is used to activate independent services concurrently, null means activate sequentially
+    private volatile Executor _parallelExecutor;
+    // The parallel executor which was created by this activator, it is shutdown when it is replaced
+    private ExecutorService _ownedParallelExecutor;
 
     public ServiceActivator(final IExternalServiceLoader externalServiceLoader) {
-        this._tasks = new AwaitingList<>(MAX_ACTIVE_THREAD_COUNT);
-        this._lock = new ReentrantLock();
+        this(externalServiceLoader, () -> null);
+    }
+
+    /**
+     * Create service activator with activation executor resolver, the resolver is invoked on each activation
+     * and deactivation, the default executor and timeout are used if it returns null.
+     *
+     * @param   externalServiceLoader
+     *          The loader which is used to load external service
+     * @param   activationExecutorResolver
+     *          The resolver which returns current activation executor
+     */
+    public ServiceActivator(
+            final IExternalServiceLoader externalServiceLoader,
+            final Supplier<IActivationExecutor> activationExecutorResolver
+    ) {
+        ArgumentChecker.required(activationExecutorResolver, "activationExecutorResolver");
         this._extSvcLoader = externalServiceLoader;
+        this._actExecutorResolver = activationExecutorResolver;
+        this._activations = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Enable parallel activation mode, the services in the same level of the dependency graph will be
+     * activated concurrently on specific executor, the executor should be bounded.
+     *
+     * @param   executor
+     *          The executor which is used to activate services
+     */
+    public void enableParallelActivation(final Executor executor) {
+        ArgumentChecker.required(executor, "executor");
+        replaceParallelExecutor(executor, null);
+    }
+
+    /**
+     * Enable parallel activation mode with a bounded thread pool, the thread pool is owned by this activator
+     * and it is shutdown when the parallel executor is replaced or this activator is closed
+     *
+     * @param   parallelism
+     *          Max thread count of the thread pool
+     */
+    public void enableParallelActivation(final int parallelism) {
+        ArgumentChecker.checkInt(parallelism, "parallelism", 1, Integer.MAX_VALUE);
+        var executor = ActivationExecutors.newPlatformExecutor("service-activator", parallelism);
+        replaceParallelExecutor(executor, executor);
+    }
+
+    /**
+     * Disable parallel activation mode, all services will be activated one by one
+     */
+    public void disableParallelActivation() {
+        replaceParallelExecutor(null, null);
+    }
+
+    /**
+     * Shutdown the executors which were created by this activator, the activations which are running are
+     * not interrupted
+     */
+    public void close() {
+        disableParallelActivation();
+        ExecutorService defaultExecutor;
+        synchronized (this) {
+            defaultExecutor = this._defaultExecutor;
+            this._defaultExecutor = null;
+        }
+        if (defaultExecutor != null) {
+            defaultExecutor.shutdown();
+        }
+    }
+
+    private void replaceParallelExecutor(
+            final Executor executor,
+            final ExecutorService ownedExecutor
+    ) {
+        ExecutorService previous;
+        synchronized (this) {
+            previous = this._ownedParallelExecutor;
+            this._parallelExecutor = executor;
+            this._ownedParallelExecutor = ownedExecutor;
+        }
+        if (previous != null && previous != ownedExecutor) {
+            previous.shutdown();
+        }
+    }
+
+    public boolean isParallelActivation() {
+        return this._parallelExecutor != null;
     }
 
     public <T> Optional<T> tryActivateService(final ServiceHolder serviceHolder) {
@@ -61,48 +151,37 @@ public class ServiceActivator {
     }
 
     public <T> T activateService(final ServiceHolder serviceHolder) {
-        return activateService(serviceHolder, DEFAULT_TIME_OUT);
+        return activateService(serviceHolder, null);
     }
 
     public <T> T activateService(final ServiceHolder serviceHolder, IntervalTime timeout) {
         ArgumentChecker.required(serviceHolder, "serviceHolder");
-        if (timeout == null) {
-            timeout = DEFAULT_TIME_OUT;
-        }
         if (serviceHolder.isActivated()) {
             return (T) serviceHolder.getService();
         }
+        var actExecutor = this._actExecutorResolver.get();
+        if (timeout == null && actExecutor != null) {
+            timeout = actExecutor.activationTimeout(serviceHolder.getId());
+        }
+        if (timeout == null) {
+            timeout = DEFAULT_TIME_OUT;
+        }
 
         // Make out unactivated dependency service tree, need check out cycle dependency case
         var svcList = new LinkedList<UnactivatedService>();
-        constructServiceStack(new UnactivatedService(null, serviceHolder), svcList);
-
-        var task = new ServiceActiveTask(svcList);
-        Watcher.on(() -> {
-            // Check unactivated service again when the watch is notified by other thread
-            var newSvcList =
-                    Looper.on(svcList).filter(unactivatedSvc -> !unactivatedSvc.isActivated()).toList();
-
-            return Guarder.by(this._lock).runForResult(() -> {
-                // Check whether the service which in the tree is in existing service active task
-                // if it is, then the service active should be wait until the existing active task finish
-                var handlingSvc = Looper.on(this._tasks.iterator())
-                        .map(handlingTask -> handlingTask.isInHandling(newSvcList))
-                        .first(null);
-                if (handlingSvc != null) {
-                    return new Watcher.ConditionResult(handlingSvc);
-                }
-
-                if (this._tasks.put(task)) {
-                    return new Watcher.ConditionResult(false);
-                } else {
-                    return new Watcher.ConditionResult(this._tasks);
-                }
-            });
-        }).timeout(timeout).start();
-
+        ServiceActiveTask task;
+        var parallelExecutor = this._parallelExecutor;
+        if (parallelExecutor == null) {
+            constructServiceStack(new UnactivatedService(null, serviceHolder), svcList);
+            task = new ServiceActiveTask(svcList);
+        } else {
+            var svcLevels = constructServiceLevels(new UnactivatedService(null, serviceHolder));
+            Looper.on(svcLevels).foreach(svcList::addAll);
+            task = new ParallelServiceActiveTask(svcList, svcLevels, parallelExecutor);
+        }
         // Assign service active task to handle
-        CompletableFuture<ActivateServiceResult<T>> future = CompletableFuture.supplyAsync(task);
+        CompletableFuture<ActivateServiceResult<T>> future =
+                CompletableFuture.supplyAsync(task, getExecutor(actExecutor));
         ActivateServiceResult<T> result;
         try {
             result = future.get(timeout.milliseconds(), TimeUnit.MILLISECONDS);
@@ -141,19 +220,23 @@ public class ServiceActivator {
     }
 
     public void deactivateService(final ServiceHolder serviceHolder) {
-        deactivateService(serviceHolder, DEFAULT_TIME_OUT);
+        deactivateService(serviceHolder, null);
     }
 
     public void deactivateService(final ServiceHolder serviceHolder, IntervalTime timeout) {
         ArgumentChecker.required(serviceHolder, "serviceHolder");
-        if (timeout == null) {
-            timeout = DEFAULT_TIME_OUT;
-        }
         if (serviceHolder.isDeactivated()) {
             return;
         }
+        var actExecutor = this._actExecutorResolver.get();
+        if (timeout == null && actExecutor != null) {
+            timeout = actExecutor.deactivationTimeout(serviceHolder.getId());
+        }
+        if (timeout == null) {
+            timeout = DEFAULT_TIME_OUT;
+        }
 
-        var future = CompletableFuture.runAsync(new ServiceDeactivateTask(serviceHolder));
+        var future = CompletableFuture.runAsync(new ServiceDeactivateTask(serviceHolder), getExecutor(actExecutor));
         try {
             future.get(timeout.milliseconds(), TimeUnit.MILLISECONDS);
         } catch (InterruptedException | ExecutionException ex) {
@@ -168,7 +251,144 @@ public class ServiceActivator {
         }
     }
 
+    /**
+     * Deactivate services in reverse dependency order, a service is deactivated only after all services which
+     * depend on it are deactivated, and the services which do not depend on each other are deactivated
+     * concurrently.
+     * All services share one deadline, the service which is not deactivated before the deadline is reported as
+     * missed, and it will not be deactivated any more if its deactivation is not started at the deadline.
+     *
+     * @param   serviceHolders
+     *          The service holders which will be deactivated
+     * @param   deadline
+     *          The overall deadline, default deadline is used if it is null
+     * @return  The deactivation report
+     */
+    public DeactivationReport deactivateServices(
+            final Collection<ServiceHolder> serviceHolders,
+            IntervalTime deadline
+    ) {
+        ArgumentChecker.required(serviceHolders, "serviceHolders");
+        if (deadline == null) {
+            deadline = DEFAULT_DEADLINE;
+        }
+        long startTime = System.currentTimeMillis();
+        long deadlineTime = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadline.milliseconds());
+
+        Set<ServiceHolder> svcHolders = Collections.newSetFromMap(new IdentityHashMap<>());
+        var orderedSvcHolders = new ArrayList<ServiceHolder>();
+        for (var svcHolder : serviceHolders) {
+            if (svcHolder != null && ! svcHolder.isDeactivated() && svcHolders.add(svcHolder)) {
+                orderedSvcHolders.add(svcHolder);
+            }
+        }
+
+        // Find out which services depend on each service
+        Map<ServiceHolder, List<ServiceHolder>> dependents = new IdentityHashMap<>();
+        Looper.on(orderedSvcHolders).foreach(svcHolder -> {
+            var dependencies = svcHolder.dependencyHolders();
+            if (dependencies == null) {
+                return;
+            }
+            Looper.on(dependencies)
+                    .filter(svcHolders::contains)
+                    .foreach(dependency -> dependents.computeIfAbsent(dependency, key -> new ArrayList<>()).add(svcHolder));
+        });
+
+        var executor = getExecutor(this._actExecutorResolver.get());
+        Set<ServiceHolder> skipped = ConcurrentHashMap.newKeySet();
+        Map<ServiceHolder, CompletableFuture<Void>> deactivations = new IdentityHashMap<>();
+        Looper.on(orderedSvcHolders).foreach(svcHolder ->
+                scheduleDeactivation(svcHolder, dependents, deactivations, executor, deadlineTime, skipped));
+
+        try {
+            CompletableFuture.allOf(deactivations.values().toArray(new CompletableFuture[0]))
+                    .get(Math.max(0L, deadlineTime - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException ex) {
+            // The result of each service is checked below
+        }
+
+        var deactivated = new ArrayList<String>();
+        var missed = new ArrayList<String>();
+        var failed = new LinkedHashMap<String, Throwable>();
+        Looper.on(orderedSvcHolders).foreach(svcHolder -> {
+            var deactivation = deactivations.get(svcHolder);
+            if (! deactivation.isDone() || skipped.contains(svcHolder)) {
+                missed.add(svcHolder.getId());
+            } else if (deactivation.isCompletedExceptionally()) {
+                try {
+                    deactivation.getNow(null);
+                } catch (CompletionException | CancellationException ex) {
+                    failed.put(svcHolder.getId(), ex.getCause() == null ? ex : ex.getCause());
+                }
+            } else {
+                deactivated.add(svcHolder.getId());
+            }
+        });
+        return new DeactivationReport(deactivated, missed, failed, System.currentTimeMillis() - startTime);
+    }
+
+    private void deactivate(final ServiceHolder serviceHolder) {
+        serviceHolder.deactivate();
+        this._activations.remove(serviceHolder);
+    }
+
+    private CompletableFuture<Void> scheduleDeactivation(
+            final ServiceHolder serviceHolder,
+            final Map<ServiceHolder, List<ServiceHolder>> dependents,
+            final Map<ServiceHolder, CompletableFuture<Void>> deactivations,
+            final Executor executor,
+            final long deadlineTime,
+            final Set<ServiceHolder> skipped
+    ) {
+        var deactivation = deactivations.get(serviceHolder);
+        if (deactivation != null) {
+            return deactivation;
+        }
+        // Avoid endless recursion if there is a cycle dependency
+        deactivations.put(serviceHolder, CompletableFuture.completedFuture(null));
+        var waitings = Looper.on(dependents.getOrDefault(serviceHolder, Collections.emptyList()))
+                .map(dependent -> scheduleDeactivation(dependent, dependents, deactivations, executor, deadlineTime, skipped))
+                .toList();
+        // The service should be deactivated even some services which depend on it are failed
+        deactivation = CompletableFuture.allOf(waitings.toArray(new CompletableFuture[0]))
+                .exceptionally(ex -> null)
+                .thenRunAsync(() -> {
+                    if (System.nanoTime() - deadlineTime > 0) {
+                        skipped.add(serviceHolder);
+                        return;
+                    }
+                    deactivate(serviceHolder);
+                }, executor);
+        deactivations.put(serviceHolder, deactivation);
+        return deactivation;
+    }
+
+    private Executor getExecutor(final IActivationExecutor activationExecutor) {
+        var executor = activationExecutor == null ? null : activationExecutor.executor();
+        if (executor != null) {
+            return executor;
+        }
+        var defaultExecutor = this._defaultExecutor;
+        if (defaultExecutor == null) {
+            synchronized (this) {
+                defaultExecutor = this._defaultExecutor;
+                if (defaultExecutor == null) {
+                    defaultExecutor = ActivationExecutors.newPlatformExecutor("service-activation", DEFAULT_POOL_SIZE);
+                    this._defaultExecutor = defaultExecutor;
+                }
+            }
+        }
+        return defaultExecutor;
+    }
+
     private void constructServiceStack(final UnactivatedService service, final List<UnactivatedService> svcList) {
+        if (service.holder() != null && service.holder().activationPlan() != null) {
+            svcList.addAll(0, constructPlannedServiceStack(service, service.holder().activationPlan()));
+            return;
+        }
         svcList.add(0, service);
         if (service.isExternalService()) {
             // External service should not have dependencies
@@ -186,6 +406,126 @@ public class ServiceActivator {
                 .foreach(unactivatedService -> constructServiceStack(unactivatedService, svcList));
     }
 
+    /**
+     * Make out unactivated service list by the static activation plan of the service, only the dependencies
+     * which are not in the plan like external, FROM_ANY and cross module dependencies are discovered at runtime
+     *
+     * @param   service
+     *          The root service
+     * @param   plan
+     *          The activation plan of the root service
+     * @return  The services in activation order, the root service is the last one
+     */
+    private List<UnactivatedService> constructPlannedServiceStack(
+            final UnactivatedService service,
+            final ActivationPlan plan
+    ) {
+        var plannedSvcs = new ArrayList<UnactivatedService>(plan.size() + 1);
+        for (int i = 0; i < plan.size(); i++) {
+            var holder = plan.holder(i);
+            if (! holder.isActivated()) {
+                var plannedSvc = new UnactivatedService(plan.dependency(i), holder);
+                plannedSvc.referencedBy(service);
+                plannedSvcs.add(plannedSvc);
+            }
+        }
+        plannedSvcs.add(service);
+
+        var svcList = new ArrayList<UnactivatedService>(plannedSvcs.size());
+        for (var plannedSvc : plannedSvcs) {
+            var dynamicSvcs = new LinkedList<UnactivatedService>();
+            for (var unactivatedSvc : plannedSvc.holder().getUnactivatedServices(plan)) {
+                unactivatedSvc.referencedBy(plannedSvc);
+                unactivatedSvc.checkCycleDependency();
+                constructServiceStack(unactivatedSvc, dynamicSvcs);
+            }
+            svcList.addAll(dynamicSvcs);
+            svcList.add(plannedSvc);
+        }
+        return svcList;
+    }
+
+    /**
+     * Make out unactivated dependency service graph and group the services by its level in the graph.
+     * The level of the service is 0 if it has no unactivated dependency, otherwise it is the max level of its
+     * dependencies plus 1, so the services in the same level are independent and can be activated concurrently.
+     * Each service appears only once in the result even if it is depended by multiple services.
+     *
+     * @param   service
+     *          The root service
+     * @return  The service levels, the lower level services must be activated first
+     */
+    private List<List<UnactivatedService>> constructServiceLevels(final UnactivatedService service) {
+        Map<Object, Integer> svcLevels = new HashMap<>();
+        Map<Object, UnactivatedService> svcNodes = new LinkedHashMap<>();
+        var maxLevel = computeServiceLevel(service, svcLevels, svcNodes);
+        List<List<UnactivatedService>> levels = new ArrayList<>(maxLevel + 1);
+        for (int i = 0; i <= maxLevel; i++) {
+            levels.add(new ArrayList<>());
+        }
+        svcNodes.forEach((key, svcNode) -> levels.get(svcLevels.get(key)).add(svcNode));
+        return levels;
+    }
+
+    private int computeServiceLevel(
+            final UnactivatedService service,
+            final Map<Object, Integer> svcLevels,
+            final Map<Object, UnactivatedService> svcNodes
+    ) {
+        var key = service.holder() != null ? service.holder() : service.dependency();
+        var level = svcLevels.get(key);
+        if (level != null) {
+            return level;
+        }
+        level = 0;
+        if (! service.isExternalService()) {
+            // External service should not have dependencies
+            for (var unactivatedSvc : service.getUnactivatedDependencies()) {
+                unactivatedSvc.referencedBy(service);
+                unactivatedSvc.checkCycleDependency();
+                level = Math.max(level, computeServiceLevel(unactivatedSvc, svcLevels, svcNodes) + 1);
+            }
+        }
+        svcLevels.put(key, level);
+        svcNodes.put(key, service);
+        return level;
+    }
+
+    private void activateService(final UnactivatedService unactivatedSvc) {
+        if (unactivatedSvc.isExternalService()) {
+            // load external service
+            var svcHolder = this._extSvcLoader.loadService(unactivatedSvc.dependency());
+            if (svcHolder != null) {
+                unactivatedSvc.activate(svcHolder);
+            }
+        } else if (! unactivatedSvc.holder().isActivated()) {
+            var svcHolder = unactivatedSvc.holder();
+            var activation = new CompletableFuture<Void>();
+            var existingActivation = this._activations.putIfAbsent(svcHolder, activation);
+            if (existingActivation != null) {
+                // The service is activating by other thread, just wait it finish
+                joinActivation(existingActivation);
+            } else {
+                try {
+                    unactivatedSvc.activate();
+                    activation.complete(null);
+                } catch (RuntimeException ex) {
+                    // The holder is left unactivated, remove the failed activation so it can be activated again
+                    this._activations.remove(svcHolder, activation);
+                    activation.completeExceptionally(ex);
+                    throw ex;
+                }
+            }
+        }
+        if (!unactivatedSvc.isActivated() && !unactivatedSvc.dependency().isOptional()) {
+            throw ServiceException.builder()
+                    .errorCode(ServiceErrors.SERVICE_ACTIVATION_FAILED)
+                    .variables(new ServiceErrors.ServiceActivationFailed()
+                            .serviceId(unactivatedSvc.serviceId()))
+                    .build();
+        }
+    }
+
     public final class A<T extends ActivateServiceResult<A>> implements Supplier<T> {
 
         @Override
@@ -194,45 +534,59 @@ public class ServiceActivator {
         }
     }
 
-    private final class ServiceActiveTask<T> implements Supplier<ActivateServiceResult<T>> {
+    private void joinActivation(final CompletableFuture<Void> activation) {
+        try {
+            activation.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof UapiException) {
+                throw (UapiException) ex.getCause();
+            }
+            throw new GeneralException(ex.getCause());
+        }
+    }
+
+    private class ServiceActiveTask<T> implements Supplier<ActivateServiceResult<T>> {
 
-        private final List<UnactivatedService> _svcList;
+        protected final List<UnactivatedService> _svcList;
+        // When the activation is requested, the services wait their dependencies from this time
+        private final long _requestTime;
 
         ServiceActiveTask(final List<UnactivatedService> serviceList) {
             this._svcList = serviceList;
+            this._requestTime = Timeline.ENABLED ? System.nanoTime() : 0L;
+        }
+
+        protected void activate(final UnactivatedService unactivatedSvc) {
+            if (Timeline.ENABLED && ! unactivatedSvc.isActivated() && ! unactivatedSvc.isExternalService()) {
+                Timeline.STARTUP.record(unactivatedSvc.serviceId(), Timeline.PHASE_WAIT, this._requestTime);
+            }
+            activateService(unactivatedSvc);
+        }
+
+        /**
+         * Activate all services in the task
+         *
+         * @return  The last activated service which is the requested service
+         */
+        protected UnactivatedService activateServices() {
+            int position = 0;
+            UnactivatedService unactivatedSvc = null;
+            while (position < this._svcList.size()) {
+                unactivatedSvc = this._svcList.get(position);
+                activate(unactivatedSvc);
+                position++;
+            }
+            return unactivatedSvc;
         }
 
         @Override
         public ActivateServiceResult<T> get() {
-            int position = 0;
             UnactivatedService unactivatedSvc = null;
             Exception exception = null;
             try {
-                while (position < this._svcList.size()) {
-                    unactivatedSvc = this._svcList.get(position);
-                    if (unactivatedSvc.isExternalService()) {
-                        // load external service
-                        var svcHolder =
-                                ServiceActivator.this._extSvcLoader.loadService(unactivatedSvc.dependency());
-                        if (svcHolder != null) {
-                            unactivatedSvc.activate(svcHolder);
-                        }
-                    } else {
-                        unactivatedSvc.activate();
-                    }
-                    if (!unactivatedSvc.isActivated() && !unactivatedSvc.dependency().isOptional()) {
-                        throw ServiceException.builder()
-                                .errorCode(ServiceErrors.SERVICE_ACTIVATION_FAILED)
-                                .variables(new ServiceErrors.ServiceActivationFailed()
-                                        .serviceId(unactivatedSvc.serviceId()))
-                                .build();
-                    }
-                    position++;
-                }
+                unactivatedSvc = activateServices();
             } catch (Exception ex) {
                 exception = ex;
-            } finally {
-                Guarder.by(ServiceActivator.this._lock).run(() -> ServiceActivator.this._tasks.remove(this));
             }
 
             if (exception != null) {
@@ -252,18 +606,57 @@ public class ServiceActivator {
                 return new ActivateServiceResult(unactivatedSvc.service());
             }
         }
+    }
 
-        private UnactivatedService isInHandling(List<UnactivatedService> unactivatedServices) {
-            var foundIdx = Looper.on(unactivatedServices)
-                    .map(this._svcList::indexOf)
-                    .filter(idx -> idx >= 0)
-                    .filter(idx -> ! this._svcList.get(idx).isActivated())
-                    .first(-1);
-            if (foundIdx < 0) {
-                return null;
-            } else {
-                return this._svcList.get(foundIdx);
+    /**
+     * Activate services level by level, the services in same level are activated concurrently
+     */
+    private final class ParallelServiceActiveTask<T> extends ServiceActiveTask<T> {
+
+        private final List<List<UnactivatedService>> _svcLevels;
+        private final Executor _executor;
+
+        ParallelServiceActiveTask(
+                final List<UnactivatedService> serviceList,
+                final List<List<UnactivatedService>> serviceLevels,
+                final Executor executor
+        ) {
+            super(serviceList);
+            this._svcLevels = serviceLevels;
+            this._executor = executor;
+        }
+
+        @Override
+        protected UnactivatedService activateServices() {
+            UnactivatedService unactivatedSvc = null;
+            for (var svcLevel : this._svcLevels) {
+                if (svcLevel.size() == 1) {
+                    unactivatedSvc = svcLevel.get(0);
+                    activate(unactivatedSvc);
+                    continue;
+                }
+                var futures = Looper.on(svcLevel)
+                        .map(svc -> CompletableFuture.runAsync(() -> activate(svc), this._executor))
+                        .toList();
+                // Wait all services in this level are handled even some of them are failed
+                Exception exception = null;
+                for (var future : futures) {
+                    try {
+                        future.join();
+                    } catch (CompletionException ex) {
+                        if (exception == null) {
+                            exception = ex.getCause() instanceof Exception ? (Exception) ex.getCause() : ex;
+                        }
+                    }
+                }
+                if (exception instanceof UapiException) {
+                    throw (UapiException) exception;
+                } else if (exception != null) {
+                    throw new GeneralException(exception);
+                }
+                unactivatedSvc = svcLevel.get(svcLevel.size() - 1);
             }
+            return unactivatedSvc;
         }
     }
 
@@ -277,7 +670,7 @@ public class ServiceActivator {
 
         @Override
         public void run() {
-            this._svcHolder.deactivate();
+            deactivate(this._svcHolder);
         }
     }
 
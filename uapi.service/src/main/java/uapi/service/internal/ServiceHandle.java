@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.service.internal;
+
+import uapi.common.ArgumentChecker;
+import uapi.service.IServiceHandle;
+import uapi.service.ServiceException;
+
+import java.util.function.Function;
+
+/**
+ * Default service handle implementation, the resolved service is cached in a volatile field and the
+ * registry will invalidate it when the service is deactivated or replaced.
+ */
+final class ServiceHandle<T> implements IServiceHandle<T> {
+
+    private final String _svcId;
+    private final Function<String, T> _resolver;
+
+    private volatile T _svc;
+    // Increased on each invalidation, used to discard the service which was resolved before invalidation
+    private int _version;
+
+    ServiceHandle(
+            final String serviceId,
+            final Function<String, T> resolver
+    ) {
+        ArgumentChecker.required(serviceId, "serviceId");
+        ArgumentChecker.required(resolver, "resolver");
+        this._svcId = serviceId;
+        this._resolver = resolver;
+    }
+
+    @Override
+    public String serviceId() {
+        return this._svcId;
+    }
+
+    @Override
+    public T get() throws ServiceException {
+        var svc = this._svc;
+        if (svc != null) {
+            return svc;
+        }
+        int version;
+        synchronized (this) {
+            version = this._version;
+        }
+        svc = this._resolver.apply(this._svcId);
+        synchronized (this) {
+            if (version == this._version) {
+                this._svc = svc;
+            }
+        }
+        return svc;
+    }
+
+    @Override
+    public boolean isResolved() {
+        return this._svc != null;
+    }
+
+    synchronized void invalidate() {
+        this._version++;
+        this._svc = null;
+    }
+}
@@ -1,44 +1,76 @@
 package uapi.service.internal;
 
-import com.google.common.collect.LinkedListMultimap;
-import com.google.common.collect.Multimap;
 import uapi.GeneralException;
 import uapi.common.ArgumentChecker;
 import uapi.common.CollectionHelper;
 import uapi.rx.Looper;
 import uapi.service.*;
-import uapi.state.IShifter;
-import uapi.state.IStateTracer;
-import uapi.state.StateCreator;
 
-import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Map;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.*;
+import java.util.function.Supplier;
 
 /**
- * Hold service and provide dependency, lifecycle management
+ * Hold service and provide dependency, lifecycle management.
+ * The holder is designed for very large registries, the dependencies are stored in flat arrays which are indexed
+ * by dependency slot and the state is stored in a single int, and a service which has more ids shares one holder
+ * for all of its ids.
  */
 public class ServiceHolder implements IServiceReference {
 
-    private static final String OP_RESOLVE      = "resolve";
-    private static final String OP_INJECT       = "inject";
-    private static final String OP_SATISFY      = "satisfy";
-    private static final String OP_ACTIVATE     = "activate";
-    private static final String OP_DEACTIVATE   = "deactivate";
+    private static final int STATE_UNRESOLVED   = ServiceState.Unresolved.value();
+    private static final int STATE_RESOLVED     = ServiceState.Resolved.value();
+    private static final int STATE_INJECTED     = ServiceState.Injected.value();
+    private static final int STATE_SATISFIED    = ServiceState.Satisfied.value();
+    private static final int STATE_ACTIVATED    = ServiceState.Activated.value();
+    private static final int STATE_DEACTIVATED  = ServiceState.Deactivated.value();
 
-    private final Object _svc;
-    private final String _svcId;
+    private static final Object[] EMPTY_SLOTS   = new Object[0];
+
+    private static final VarHandle STATE;
+
+    static {
+        try {
+            STATE = MethodHandles.lookup().findVarHandle(ServiceHolder.class, "_state", int.class);
+        } catch (ReflectiveOperationException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    // The service instance, it is created by the service factory at first access if the service is lazy
+    private volatile Object _svc;
+    private final Supplier<?> _svcFactory;
+    // All ids of the service, the first one is the primary id
+    private final String[] _svcIds;
     private final String _from;
+    // Created at first access since most of holders never be asked for it
     private QualifiedServiceId _qualifiedSvcId;
-    private final Multimap<Dependency, ServiceHolder> _dependencies;
     private final ISatisfyHook _satisfyHook;
     private final String[] _tags;
 
-    private final List<ServiceHolder> _injectedSvcs = new LinkedList<>();
-    private final IStateTracer<ServiceState> _stateTracer;
+    // The declared dependencies, the index of the dependency is the slot of the dependency
+    private final Dependency[] _deps;
+    // The holders set to each dependency slot, the element is null, a ServiceHolder or a ServiceHolder array
+    private final Object[] _depHolders;
+
+    // The injected holders and the slot which they were injected to, guarded by this
+    private ServiceHolder[] _injectedHolders;
+    private int[] _injectedSlots;
+    private int _injectedCount;
+
+    // The notifiers which wait for this service is activated, guarded by this
+    private DependencyNotifier[] _depNotifiers;
+    private int _depNotifierCount;
 
-    private final List<DependencyNotifier> _depNotifiers = new LinkedList<>();
+    // The resolvers of the dependencies which are resolved when the service is going to be activated, guarded by this
+    private Runnable[] _deferredDeps;
+
+    // The static activation plan which is computed at compile time, null means discover dependencies at runtime
+    private volatile ActivationPlan _plan;
+
+    // Updated by STATE
+    private volatile int _state = STATE_UNRESOLVED;
 
     ServiceHolder(
             final String from,
@@ -56,67 +88,114 @@ public class ServiceHolder implements IServiceReference {
             final Dependency[] dependencies,
             final ISatisfyHook satisfyHook
     ) {
-        ArgumentChecker.notNull(from, "from");
+        this(from, service, new String[] { serviceId }, dependencies, satisfyHook);
+    }
+
+    /**
+     * Create service holder for the service which is registered under one or more ids
+     *
+     * @param   from
+     *          Where the service is from
+     * @param   service
+     *          The service instance
+     * @param   serviceIds
+     *          All ids of the service, the first one is the primary id
+     * @param   dependencies
+     *          The service dependencies
+     * @param   satisfyHook
+     *          The satisfy hook
+     */
+    ServiceHolder(
+            final String from,
+            final Object service,
+            final String[] serviceIds,
+            final Dependency[] dependencies,
+            final ISatisfyHook satisfyHook
+    ) {
+        this(from, service, null, serviceIds, dependencies,
+                service instanceof ITagged ? ((ITagged) service).getTags() : new String[0], satisfyHook);
         ArgumentChecker.notNull(service, "service");
-        ArgumentChecker.notEmpty(serviceId, "serviceId");
+    }
+
+    /**
+     * Create service holder for lazy service, the service is created by the factory when it is activated or
+     * injected at first time
+     *
+     * @param   from
+     *          Where the service is from
+     * @param   serviceFactory
+     *          The factory which creates the service, it should always return the same instance
+     * @param   serviceId
+     *          The service id
+     * @param   dependencies
+     *          The service dependencies
+     * @param   tags
+     *          The service tags
+     * @param   satisfyHook
+     *          The satisfy hook
+     */
+    ServiceHolder(
+            final String from,
+            final Supplier<?> serviceFactory,
+            final String serviceId,
+            final Dependency[] dependencies,
+            final String[] tags,
+            final ISatisfyHook satisfyHook
+    ) {
+        this(from, serviceFactory, new String[] { serviceId }, dependencies, tags, satisfyHook);
+    }
+
+    /**
+     * Create service holder for lazy service which is registered under one or more ids
+     *
+     * @param   from
+     *          Where the service is from
+     * @param   serviceFactory
+     *          The factory which creates the service, it should always return the same instance
+     * @param   serviceIds
+     *          All ids of the service, the first one is the primary id
+     * @param   dependencies
+     *          The service dependencies
+     * @param   tags
+     *          The service tags
+     * @param   satisfyHook
+     *          The satisfy hook
+     */
+    ServiceHolder(
+            final String from,
+            final Supplier<?> serviceFactory,
+            final String[] serviceIds,
+            final Dependency[] dependencies,
+            final String[] tags,
+            final ISatisfyHook satisfyHook
+    ) {
+        this(from, null, serviceFactory, serviceIds, dependencies, tags == null ? new String[0] : tags, satisfyHook);
+        ArgumentChecker.notNull(serviceFactory, "serviceFactory");
+    }
+
+    private ServiceHolder(
+            final String from,
+            final Object service,
+            final Supplier<?> serviceFactory,
+            final String[] serviceIds,
+            final Dependency[] dependencies,
+            final String[] tags,
+            final ISatisfyHook satisfyHook
+    ) {
+        ArgumentChecker.notNull(from, "from");
+        ArgumentChecker.notNull(serviceIds, "serviceIds");
+        ArgumentChecker.checkInt(serviceIds.length, "serviceIds.length", 1, Integer.MAX_VALUE);
+        Looper.on(serviceIds).foreach(serviceId -> ArgumentChecker.notEmpty(serviceId, "serviceId"));
         ArgumentChecker.notNull(dependencies, "dependencies");
         ArgumentChecker.notNull(satisfyHook, "satisfyHook");
         this._svc = service;
-        this._svcId = serviceId;
+        this._svcFactory = serviceFactory;
+        this._svcIds = serviceIds;
         this._from = from;
-        this._qualifiedSvcId = new QualifiedServiceId(serviceId, from);
         this._satisfyHook = satisfyHook;
-        this._dependencies = LinkedListMultimap.create();
-        if (service instanceof ITagged) {
-            ITagged taggedSvc = (ITagged) service;
-            this._tags = taggedSvc.getTags();
-        } else {
-            this._tags = new String[0];
-        }
-
-        Looper.on(dependencies)
-                .foreach(dependency -> this._dependencies.put(dependency, null));
-
-        // Create state convert rule
-        IShifter<ServiceState> stateShifter = (currentState, operation) -> {
-            ServiceState newState;
-            switch(operation.type()) {
-                case OP_RESOLVE:
-                    innerResolve();
-                    newState = ServiceState.Resolved;
-                    break;
-                case OP_INJECT:
-                    innerResolve();
-                    innerInject();
-                    newState = ServiceState.Injected;
-                    break;
-                case OP_SATISFY:
-                    innerResolve();
-                    innerInject();
-                    innerSatisfy();
-                    newState = ServiceState.Satisfied;
-                    break;
-                case OP_ACTIVATE:
-                    innerResolve();
-                    innerInject();
-                    innerSatisfy();
-                    innerActivate();
-                    newState = ServiceState.Activated;
-                    break;
-                case OP_DEACTIVATE:
-                    innerDeactivate();
-                    newState = ServiceState.Deactivated;
-                    break;
-                default:
-                    throw ServiceException.builder()
-                            .errorCode(ServiceErrors.UNSUPPORTED_SERVICE_HOLDER_STATE)
-                            .variables(new ServiceErrors.UnsupportedServiceHolderState()
-                                .operationType(operation.type()))
-                            .build();
-            }
-            return newState;
-        };
-        this._stateTracer = StateCreator.createTracer(stateShifter, ServiceState.Unresolved);
+        this._tags = tags;
+        this._deps = dependencies;
+        this._depHolders = dependencies.length == 0 ? EMPTY_SLOTS : new Object[dependencies.length];
     }
 
     ///////////////////////////////////////////////
@@ -125,7 +204,7 @@ public class ServiceHolder implements IServiceReference {
 
     @Override
     public String getId() {
-        return this._svcId;
+        return this._svcIds[0];
     }
 
     @Override
@@ -135,12 +214,38 @@ public class ServiceHolder implements IServiceReference {
 
     @Override
     public QualifiedServiceId getQualifiedId() {
-        return this._qualifiedSvcId;
+        // The qualified service id is immutable, so it is safe to be created by more threads
+        var qsId = this._qualifiedSvcId;
+        if (qsId == null) {
+            qsId = new QualifiedServiceId(getId(), this._from);
+            this._qualifiedSvcId = qsId;
+        }
+        return qsId;
     }
 
     @Override
     public Object getService() {
-        return this._svc;
+        var svc = this._svc;
+        if (svc != null) {
+            return svc;
+        }
+        synchronized (this) {
+            if (this._svc == null) {
+                long startTime = Timeline.ENABLED ? System.nanoTime() : 0L;
+                this._svc = this._svcFactory.get();
+                if (Timeline.ENABLED) {
+                    Timeline.STARTUP.record(getId(), Timeline.PHASE_INSTANTIATE, startTime);
+                }
+                if (this._svc == null) {
+                    throw ServiceException.builder()
+                            .errorCode(ServiceErrors.SERVICE_ACTIVATION_FAILED)
+                            .variables(new ServiceErrors.ServiceActivationFailed()
+                                    .serviceId(getId()))
+                            .build();
+                }
+            }
+            return this._svc;
+        }
     }
 
     @Override
@@ -152,68 +257,103 @@ public class ServiceHolder implements IServiceReference {
     // public methods //
     ////////////////////
 
+    /**
+     * Get all ids which the service is registered under
+     *
+     * @return  The service ids, the first one is the primary id
+     */
+    public String[] serviceIds() {
+        return this._svcIds;
+    }
+
     public String[] serviceTags() {
         return this._tags;
     }
 
+    /**
+     * Check whether the service instance is created, the lazy service is not created until it is activated
+     * or injected
+     *
+     * @return  True means the service instance is created
+     */
+    public boolean isInstantiated() {
+        return this._svc != null;
+    }
+
     public void resolve() {
-        this._stateTracer.shift(OP_RESOLVE);
+        innerResolve();
+        advance(STATE_RESOLVED);
     }
 
     public void inject() {
-        this._stateTracer.shift(OP_INJECT);
+        innerResolve();
+        innerInject();
+        advance(STATE_INJECTED);
     }
 
     public void satisfy() {
-        this._stateTracer.shift(OP_SATISFY);
+        innerResolve();
+        innerInject();
+        innerSatisfy();
+        advance(STATE_SATISFIED);
     }
 
     public void activate() {
-        this._stateTracer.shift(OP_ACTIVATE);
+        innerResolve();
+        innerInject();
+        innerSatisfy();
+        innerActivate();
+        advance(STATE_ACTIVATED);
 
         // Call all activate callbacks
-        Looper.on(this._depNotifiers).foreach(notifier -> notifier.onActivate(this));
         // Do no clear notifier since ServiceActivator need use it try to activate monitored services
-//        this._depNotifiers.clear();
+        Looper.on(depNotifiers()).foreach(notifier -> notifier.onActivate(this));
     }
 
     public void deactivate() {
-        this._stateTracer.shift(OP_DEACTIVATE);
+        innerDeactivate();
+        STATE.setVolatile(this, STATE_DEACTIVATED);
     }
 
     public boolean isResolved() {
-        return this._stateTracer.get().value() >= ServiceState.Resolved.value();
+        return (int) STATE.getVolatile(this) >= STATE_RESOLVED;
     }
 
     public boolean isInjected() {
-        return this._stateTracer.get().value() >= ServiceState.Injected.value();
+        return (int) STATE.getVolatile(this) >= STATE_INJECTED;
     }
 
     public boolean isSatisfied() {
-        return this._stateTracer.get().value() >= ServiceState.Satisfied.value();
+        return (int) STATE.getVolatile(this) >= STATE_SATISFIED;
     }
 
     public boolean isActivated() {
-        return this._stateTracer.get().value() >= ServiceState.Activated.value();
+        return (int) STATE.getVolatile(this) >= STATE_ACTIVATED;
     }
 
     public boolean isDeactivated() {
-        return this._stateTracer.get().value() == ServiceState.Deactivated.value();
+        return (int) STATE.getVolatile(this) == STATE_DEACTIVATED;
     }
 
     public boolean isDependsOn(QualifiedServiceId qualifiedServiceId) {
         ArgumentChecker.notNull(qualifiedServiceId, "qualifiedServiceId");
-        return findDependencies(qualifiedServiceId) != null;
+        return findSlot(qualifiedServiceId) >= 0;
     }
 
     public boolean isDependsOn(
             final Dependency dependency
     ) {
         ArgumentChecker.required(dependency, "dependency");
-        Dependency dep = Looper.on(this._dependencies.keys())
-                .filter(thisDependency -> dependency.getServiceId().isAssignTo(thisDependency.getServiceId()))
-                .first(null);
-        return dep != null;
+        return findSlot(dependency.getServiceId()) >= 0;
+    }
+
+    /**
+     * Get all dependencies which declared by this service
+     *
+     * @return  The dependency collection
+     */
+    public Collection<Dependency> dependencies() {
+        return Collections.unmodifiableList(Arrays.asList(this._deps));
     }
 
     public void setInstanceDependency(
@@ -222,17 +362,18 @@ public class ServiceHolder implements IServiceReference {
     ) {
         ArgumentChecker.required(instSvcHolder, "instSvcHolder");
 
-        var dependency = findDependencies(instSvcHolder.prototypeId());
-        if (dependency == null) {
+        var slot = findSlot(instSvcHolder.prototypeId());
+        if (slot < 0) {
             throw ServiceException.builder()
                     .errorCode(ServiceErrors.NOT_A_DEPENDENCY)
                     .variables(new ServiceErrors.NotDependency()
-                            .thisServiceId(this._qualifiedSvcId)
+                            .thisServiceId(getQualifiedId())
                             .dependencyServiceId(instSvcHolder.getQualifiedId()))
                     .build();
         }
-        this._dependencies.removeAll(dependency);
-        this._dependencies.put(dependency, instSvcHolder);
+        synchronized (this) {
+            this._depHolders[slot] = instSvcHolder;
+        }
 
         innerSetDependency(instSvcHolder, serviceActivator);
     }
@@ -240,22 +381,54 @@ public class ServiceHolder implements IServiceReference {
     public void setDependency(
             final ServiceHolder service,
             final ServiceActivator serviceActivator
+    ) {
+        linkDependency(service);
+        injectLinkedDependency(service, serviceActivator);
+    }
+
+    /**
+     * Set the service holder to the dependency slots which it can be assigned to, the service is not injected
+     * and nothing is activated
+     *
+     * @param   service
+     *          The dependency service holder
+     */
+    void linkDependency(
+            final ServiceHolder service
     ) {
         ArgumentChecker.notNull(service, "service");
 
-        // remove null entry first
-        var dependency = findDependencies(service.getQualifiedId());
-        if (dependency == null) {
+        // The service may be registered under more ids, so it can be set to more slots
+        var found = false;
+        for (int slot = 0; slot < this._deps.length; slot++) {
+            if (isAssignable(service, this._deps[slot].getServiceId())) {
+                addToSlot(slot, service);
+                found = true;
+            }
+        }
+        if (! found) {
             throw ServiceException.builder()
                     .errorCode(ServiceErrors.NOT_A_DEPENDENCY)
                     .variables(new ServiceErrors.NotDependency()
-                        .thisServiceId(this._qualifiedSvcId)
+                        .thisServiceId(getQualifiedId())
                         .dependencyServiceId(service.getQualifiedId()))
                     .build();
         }
-        this._dependencies.remove(dependency, null);
-        this._dependencies.put(dependency, service);
+    }
 
+    /**
+     * Inject the linked dependency if this service is activated or is waited by other services, the dependency
+     * may be activated
+     *
+     * @param   service
+     *          The dependency service holder which was linked
+     * @param   serviceActivator
+     *          The activator which activates the dependency
+     */
+    void injectLinkedDependency(
+            final ServiceHolder service,
+            final ServiceActivator serviceActivator
+    ) {
         innerSetDependency(service, serviceActivator);
     }
 
@@ -265,7 +438,7 @@ public class ServiceHolder implements IServiceReference {
     ) {
         // Note: we have to try activate if dependency notifiers are not empty
         // Since the notifier means that some other service is wait for this service
-        if (! isActivated() && this._depNotifiers.size() == 0) {
+        if (! isActivated() && ! hasMonitor()) {
             return;
         }
 
@@ -279,117 +452,286 @@ public class ServiceHolder implements IServiceReference {
         }
     }
 
+    /**
+     * Defer resolving a dependency until the service is going to be activated, it is used for the dependency
+     * which can't be resolved without creating the lazy service, like the instance of a prototype service
+     *
+     * @param   resolver
+     *          The resolver which sets the dependency to this holder, it may be invoked more than one time
+     */
+    synchronized void deferDependency(final Runnable resolver) {
+        ArgumentChecker.required(resolver, "resolver");
+        if (this._deferredDeps == null) {
+            this._deferredDeps = new Runnable[] { resolver };
+        } else {
+            this._deferredDeps = Arrays.copyOf(this._deferredDeps, this._deferredDeps.length + 1);
+            this._deferredDeps[this._deferredDeps.length - 1] = resolver;
+        }
+    }
+
     /**
      * Retrieve unactivated services including all optional services
      *
      * @return  Unactivated service
      */
     public List<UnactivatedService> getUnactivatedServices() {
-        return Looper.on(this._dependencies.entries())
-                .filter(entry -> {
-                    ServiceHolder svcHolder = entry.getValue();
-                    if (svcHolder == null) {
-                        // Always try to load external service
-                        return true;
-                    }
-                    return ! svcHolder.isActivated();
-                })
-                .map(entry -> new UnactivatedService(entry.getKey(), entry.getValue()))
-                .toList();
+        return getUnactivatedServices(null);
+    }
+
+    /**
+     * Retrieve unactivated services which are not in specific activation plan
+     *
+     * @param   plan
+     *          The activation plan which activates its services in order, it can be null
+     * @return  Unactivated service which need be discovered at runtime
+     */
+    List<UnactivatedService> getUnactivatedServices(final ActivationPlan plan) {
+        resolveDeferredDependencies();
+        List<UnactivatedService> unactivatedSvcs = new ArrayList<>();
+        for (int slot = 0; slot < this._deps.length; slot++) {
+            var holders = holdersOf(slot);
+            if (holders.length == 0) {
+                // Always try to load external service
+                unactivatedSvcs.add(new UnactivatedService(this._deps[slot], null));
+                continue;
+            }
+            for (var holder : holders) {
+                if (! holder.isActivated() && (plan == null || ! plan.contains(holder))) {
+                    unactivatedSvcs.add(new UnactivatedService(this._deps[slot], holder));
+                }
+            }
+        }
+        return unactivatedSvcs;
+    }
+
+    ActivationPlan activationPlan() {
+        return this._plan;
+    }
+
+    void setActivationPlan(final ActivationPlan plan) {
+        this._plan = plan;
     }
 
     /////////////////////
     // Private methods //
     /////////////////////
 
-    void addNotifier(DependencyNotifier callback) {
-        this._depNotifiers.add(callback);
+    synchronized void addNotifier(DependencyNotifier callback) {
+        if (this._depNotifiers == null) {
+            this._depNotifiers = new DependencyNotifier[1];
+        } else if (this._depNotifierCount == this._depNotifiers.length) {
+            this._depNotifiers = Arrays.copyOf(this._depNotifiers, this._depNotifierCount * 2);
+        }
+        this._depNotifiers[this._depNotifierCount++] = callback;
+    }
+
+    private synchronized List<DependencyNotifier> depNotifiers() {
+        if (this._depNotifierCount == 0) {
+            return Collections.emptyList();
+        }
+        return Arrays.asList(Arrays.copyOf(this._depNotifiers, this._depNotifierCount));
+    }
+
+    /**
+     * Invoke the deferred dependency resolvers, the resolvers are idempotent so the concurrent activations
+     * invoke them without waiting for each other
+     */
+    private void resolveDeferredDependencies() {
+        Runnable[] resolvers;
+        synchronized (this) {
+            resolvers = this._deferredDeps;
+        }
+        if (resolvers == null) {
+            return;
+        }
+        Looper.on(resolvers).foreach(Runnable::run);
+        synchronized (this) {
+            if (this._deferredDeps == resolvers) {
+                this._deferredDeps = null;
+            }
+        }
+    }
+
+    /**
+     * Move the state forward to specific state, the state is never moved backward by other operations
+     * except deactivate
+     */
+    private void advance(final int newState) {
+        int state;
+        do {
+            state = (int) STATE.getVolatile(this);
+            if (state >= newState) {
+                return;
+            }
+        } while (! STATE.compareAndSet(this, state, newState));
+    }
+
+    /**
+     * Find the first dependency slot which the qualified service id can be assigned to
+     */
+    private int findSlot(final QualifiedServiceId qsId) {
+        for (int slot = 0; slot < this._deps.length; slot++) {
+            if (qsId.isAssignTo(this._deps[slot].getServiceId())) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Check whether the service holder can be assigned to specific dependency by any of its ids
+     */
+    private static boolean isAssignable(
+            final ServiceHolder service,
+            final QualifiedServiceId dependencyId
+    ) {
+        if (service.getQualifiedId().isAssignTo(dependencyId)) {
+            return true;
+        }
+        var svcIds = service.serviceIds();
+        if (svcIds == null || svcIds.length < 2) {
+            return false;
+        }
+        var from = service.getFrom();
+        if (! from.equals(dependencyId.getFrom()) && ! QualifiedServiceId.FROM_ANY.equals(dependencyId.getFrom())) {
+            return false;
+        }
+        return CollectionHelper.isContains(svcIds, dependencyId.getId());
+    }
+
+    private synchronized void addToSlot(
+            final int slot,
+            final ServiceHolder service
+    ) {
+        var existing = this._depHolders[slot];
+        if (existing == null) {
+            this._depHolders[slot] = service;
+        } else if (existing instanceof ServiceHolder) {
+            if (existing != service) {
+                this._depHolders[slot] = new ServiceHolder[] { (ServiceHolder) existing, service };
+            }
+        } else {
+            var holders = (ServiceHolder[]) existing;
+            if (! CollectionHelper.isStrictContains(Arrays.asList(holders), service)) {
+                holders = Arrays.copyOf(holders, holders.length + 1);
+                holders[holders.length - 1] = service;
+                this._depHolders[slot] = holders;
+            }
+        }
+    }
+
+    private ServiceHolder[] holdersOf(final int slot) {
+        var holders = this._depHolders[slot];
+        if (holders == null) {
+            return new ServiceHolder[0];
+        }
+        if (holders instanceof ServiceHolder) {
+            return new ServiceHolder[] { (ServiceHolder) holders };
+        }
+        return (ServiceHolder[]) holders;
+    }
+
+    /**
+     * Find out the first dependency whose holder is not activated
+     */
+    private Dependency findUnactivatedDependency() {
+        for (int slot = 0; slot < this._deps.length; slot++) {
+            for (var holder : holdersOf(slot)) {
+                if (! holder.isActivated()) {
+                    return this._deps[slot];
+                }
+            }
+        }
+        return null;
     }
 
-    private Dependency findDependencies(QualifiedServiceId qsId) {
-        return Looper.on(this._dependencies.keySet())
-                .filter(dependQsvcId -> qsId.isAssignTo(dependQsvcId.getServiceId()))
-                .first(null);
+    /**
+     * Make a qualified service id which can be used as a hash key
+     *
+     * @param   qsId
+     *          The original qualified service id
+     * @return  The qualified service id which has value based equality
+     */
+    static QualifiedServiceId normalize(QualifiedServiceId qsId) {
+        if (qsId.getClass() == QualifiedServiceId.class) {
+            return qsId;
+        }
+        return new QualifiedServiceId(qsId.getId(), qsId.getFrom());
     }
 
     private void innerResolve() {
         if (isResolved()) {
             return;
         }
+        long startTime = Timeline.ENABLED ? System.nanoTime() : 0L;
+        resolveDeferredDependencies();
 
         // Ensure unset dependencies is not required
-        var requiredSvc = Looper.on(_dependencies.entries())
-                .filter(entry -> entry.getValue() == null)
-                .filter(entry -> !((IInjectable) _svc).isOptional(entry.getKey().getServiceId().getId()))
-                .map(Map.Entry::getKey)
-                .first(null);
-        if (requiredSvc != null) {
-            throw ServiceException.builder()
-                    .errorCode(ServiceErrors.MISSING_REQUIRED_DEPENDENCY)
-                    .variables(new ServiceErrors.MissingRequiredDependency()
-                        .dependency(requiredSvc)
-                        .qualifiedServiceId(this._qualifiedSvcId))
-                    .build();
+        for (int slot = 0; slot < this._deps.length; slot++) {
+            var dependency = this._deps[slot];
+            if (this._depHolders[slot] == null
+                    && ! ((IInjectable) getService()).isOptional(dependency.getServiceId().getId())) {
+                throw ServiceException.builder()
+                        .errorCode(ServiceErrors.MISSING_REQUIRED_DEPENDENCY)
+                        .variables(new ServiceErrors.MissingRequiredDependency()
+                            .dependency(dependency)
+                            .qualifiedServiceId(getQualifiedId()))
+                        .build();
+            }
         }
 
         // Ensure all dependencies are activated
-        var unresolvedSvc = Looper.on(this._dependencies.entries())
-                .filter(entry -> entry.getValue() != null)
-                .filter(entry -> ! entry.getValue().isActivated())
-                .map(Map.Entry::getKey)
-                .first(null);
+        var unresolvedSvc = findUnactivatedDependency();
         if (unresolvedSvc != null) {
             throw ServiceException.builder()
                     .errorCode(ServiceErrors.UNACTIVATED_DEPENDENCY)
                     .variables(new ServiceErrors.UnactivatedDependency()
-                        .thisServiceId(this._qualifiedSvcId)
+                        .thisServiceId(getQualifiedId())
                         .dependency(unresolvedSvc))
                     .build();
         }
+        if (Timeline.ENABLED) {
+            Timeline.STARTUP.record(getId(), Timeline.PHASE_RESOLVE, startTime);
+        }
     }
 
     private void innerInject() {
         if (isInjected()) {
             return;
         }
+        long startTime = Timeline.ENABLED ? System.nanoTime() : 0L;
 
         // Ensure all dependencies are activated
-        var uninjectedSvc = Looper.on(this._dependencies.entries())
-                .filter(entry -> entry.getValue() != null)
-                .filter(entry -> ! entry.getValue().isActivated())
-                .map(Map.Entry::getKey)
-                .first(null);
+        var uninjectedSvc = findUnactivatedDependency();
         if (uninjectedSvc != null) {
             throw ServiceException.builder()
                     .errorCode(ServiceErrors.UNACTIVATED_DEPENDENCY)
                     .variables(new ServiceErrors.UnactivatedDependency()
                         .dependency(uninjectedSvc)
-                        .thisServiceId(this._qualifiedSvcId))
+                        .thisServiceId(getQualifiedId()))
                     .build();
         }
 
         // Inject depended service
-        Looper.on(_dependencies.values())
-                .filter(dependSvcHolder -> dependSvcHolder != null)
-                .foreach(this::injectDependency);
+        Looper.on(dependencyHolders()).foreach(this::injectDependency);
+        if (Timeline.ENABLED) {
+            Timeline.STARTUP.record(getId(), Timeline.PHASE_INJECT, startTime);
+        }
     }
 
     private void innerSatisfy() {
         if (isSatisfied()) {
             return;
         }
+        long startTime = Timeline.ENABLED ? System.nanoTime() : 0L;
 
         // Ensure all dependencies are satisfied
-        var unsatisfiedSvc = Looper.on(this._dependencies.entries())
-                .filter(entry -> entry.getValue() != null)
-                .filter(entry -> ! entry.getValue().isActivated())
-                .map(Map.Entry::getKey)
-                .first(null);
+        var unsatisfiedSvc = findUnactivatedDependency();
         if (unsatisfiedSvc != null) {
             throw ServiceException.builder()
                     .errorCode(ServiceErrors.UNACTIVATED_DEPENDENCY)
                     .variables(new ServiceErrors.UnactivatedDependency()
-                        .thisServiceId(this._qualifiedSvcId)
+                        .thisServiceId(getQualifiedId())
                         .dependency(unsatisfiedSvc))
                     .build();
         }
@@ -398,33 +740,40 @@ public class ServiceHolder implements IServiceReference {
             throw ServiceException.builder()
                     .errorCode(ServiceErrors.SERVICE_CANNOT_BE_SATISFIED)
                     .variables(new ServiceErrors.ServiceCannotBeSatisfied()
-                        .serviceId(this._qualifiedSvcId))
+                        .serviceId(getQualifiedId()))
                     .build();
         }
+        if (Timeline.ENABLED) {
+            Timeline.STARTUP.record(getId(), Timeline.PHASE_SATISFY, startTime);
+        }
     }
 
     private void innerActivate() {
         if (isActivated()) {
             return;
         }
+        long startTime = Timeline.ENABLED ? System.nanoTime() : 0L;
 
         // Ensure all dependencies are activated
-        var unactivatedSvc = Looper.on(this._dependencies.entries())
-                .filter(entry -> entry.getValue() != null)
-                .filter(entry -> ! entry.getValue().isActivated())
-                .map(Map.Entry::getKey)
-                .first(null);
+        var unactivatedSvc = findUnactivatedDependency();
         if (unactivatedSvc != null) {
             throw ServiceException.builder()
                     .errorCode(ServiceErrors.UNACTIVATED_DEPENDENCY)
                     .variables(new ServiceErrors.UnactivatedDependency()
-                        .thisServiceId(this._qualifiedSvcId)
+                        .thisServiceId(getQualifiedId())
                         .dependency(unactivatedSvc))
                     .build();
         }
 
-        if (this._svc instanceof IServiceLifecycle) {
-            ((IServiceLifecycle) this._svc).onActivate();
+        var svc = getService();
+        if (svc instanceof IServiceLifecycle) {
+            ((IServiceLifecycle) svc).onActivate();
+        }
+        if (Timeline.ENABLED) {
+            Timeline.STARTUP.record(getId(), Timeline.PHASE_ACTIVATE, startTime);
+            Timeline.STARTUP.dependsOn(getId(), Looper.on(dependencyHolders())
+                    .map(ServiceHolder::getId)
+                    .toList());
         }
     }
 
@@ -433,58 +782,126 @@ public class ServiceHolder implements IServiceReference {
             return;
         }
 
-        if (this._svc instanceof IServiceLifecycle) {
-            ((IServiceLifecycle) this._svc).onDeactivate();
+        var svc = getService();
+        if (svc instanceof IServiceLifecycle) {
+            ((IServiceLifecycle) svc).onDeactivate();
         }
     }
 
-    private void injectDependency(
+    // Dependencies may be activated concurrently in parallel activation mode, so the injection must be serialized
+    private synchronized void injectDependency(
             final ServiceHolder dependSvcHolder
     ) {
-        if (CollectionHelper.isStrictContains(this._injectedSvcs, dependSvcHolder)) {
-            return;
+        // The dependency holder may be set to more slots if it is registered under more ids
+        for (int slot = 0; slot < this._deps.length; slot++) {
+            var holder = this._depHolders[slot];
+            if (holder != dependSvcHolder
+                    && ! (holder instanceof ServiceHolder[]
+                        && CollectionHelper.isStrictContains(Arrays.asList((ServiceHolder[]) holder), dependSvcHolder))) {
+                continue;
+            }
+            if (isInjectedTo(slot, dependSvcHolder)) {
+                continue;
+            }
+            doInject(dependSvcHolder, injectedIdOf(slot, dependSvcHolder));
+            markInjected(slot, dependSvcHolder);
         }
-        doInject(dependSvcHolder);
-        this._injectedSvcs.add(dependSvcHolder);
     }
 
-    protected void doInject(
+    private boolean isInjectedTo(
+            final int slot,
+            final ServiceHolder dependSvcHolder
+    ) {
+        for (int i = 0; i < this._injectedCount; i++) {
+            if (this._injectedSlots[i] == slot && this._injectedHolders[i] == dependSvcHolder) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void markInjected(
+            final int slot,
             final ServiceHolder dependSvcHolder
     ) {
+        if (this._injectedHolders == null) {
+            this._injectedHolders = new ServiceHolder[this._deps.length];
+            this._injectedSlots = new int[this._deps.length];
+        } else if (this._injectedCount == this._injectedHolders.length) {
+            this._injectedHolders = Arrays.copyOf(this._injectedHolders, this._injectedCount * 2);
+            this._injectedSlots = Arrays.copyOf(this._injectedSlots, this._injectedCount * 2);
+        }
+        this._injectedHolders[this._injectedCount] = dependSvcHolder;
+        this._injectedSlots[this._injectedCount] = slot;
+        this._injectedCount++;
+    }
+
+    /**
+     * The injected id is the id which the dependency declared, the instance service is injected by its
+     * prototype id
+     */
+    private String injectedIdOf(
+            final int slot,
+            final ServiceHolder dependSvcHolder
+    ) {
+        if (dependSvcHolder instanceof InstanceServiceHolder) {
+            return ((InstanceServiceHolder) dependSvcHolder).prototypeId().getId();
+        }
+        var svcIds = dependSvcHolder.serviceIds();
+        var depId = this._deps[slot].getServiceId().getId();
+        if (svcIds != null && svcIds.length > 1 && CollectionHelper.isContains(svcIds, depId)) {
+            return depId;
+        }
+        return dependSvcHolder.getId();
+    }
+
+    protected void doInject(
+            final ServiceHolder dependSvcHolder,
+            final String injectedId
+    ) {
+        var svc = getService();
         var injectedSvc = dependSvcHolder.getService();
         if (injectedSvc instanceof IServiceFactory) {
             // Create service from service factory
-            injectedSvc = ((IServiceFactory) injectedSvc).createService(_svc);
-        }
-        String injectedId;
-        if (dependSvcHolder instanceof InstanceServiceHolder) {
-            injectedId = ((InstanceServiceHolder) dependSvcHolder).prototypeId().getId();
-        } else {
-            injectedId = dependSvcHolder.getId();
+            injectedSvc = ((IServiceFactory) injectedSvc).createService(svc);
         }
         if (isActivated()) {
-            if (! (this._svc instanceof IServiceLifecycle)) {
+            if (! (svc instanceof IServiceLifecycle)) {
                 throw ServiceException.builder()
                         .errorCode(ServiceErrors.UNSUPPORTED_DYNAMIC_INJECTION)
                         .variables(new ServiceErrors.UnsupportedDynamicInjection()
                                 .serviceId(this.getId()))
                         .build();
             }
-            ((IServiceLifecycle) _svc).onDependencyInject(injectedId, injectedSvc);
+            ((IServiceLifecycle) svc).onDependencyInject(injectedId, injectedSvc);
         } else {
-            ((IInjectable) _svc).injectObject(new Injection(injectedId, injectedSvc));
+            ((IInjectable) svc).injectObject(new Injection(injectedId, injectedSvc));
         }
     }
 
-    boolean hasMonitor() {
-        return this._depNotifiers.size() != 0;
+    /**
+     * Get service holders which were set as dependencies of this service
+     *
+     * @return  The dependency service holders
+     */
+    List<ServiceHolder> dependencyHolders() {
+        List<ServiceHolder> holders = new ArrayList<>(this._deps.length);
+        for (int slot = 0; slot < this._deps.length; slot++) {
+            for (var holder : holdersOf(slot)) {
+                if (! CollectionHelper.isStrictContains(holders, holder)) {
+                    holders.add(holder);
+                }
+            }
+        }
+        return holders;
+    }
+
+    synchronized boolean hasMonitor() {
+        return this._depNotifierCount != 0;
     }
 
     List<ServiceHolder> getMonitoredServices() {
-        if (this._depNotifiers.size() == 0) {
-            return new ArrayList<>();
-        }
-        return Looper.on(this._depNotifiers)
+        return Looper.on(depNotifiers())
                 .map(DependencyNotifier::getMonitoredService)
                 .toList();
     }
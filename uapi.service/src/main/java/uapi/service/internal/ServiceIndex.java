@@ -0,0 +1,412 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.service.internal;
+
+import uapi.common.ArgumentChecker;
+import uapi.service.Dependency;
+import uapi.service.QualifiedServiceId;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * The index of all registered service holders which indexed by service id, service tag and the qualified
+ * service id which the service is waiting for.
+ * Each bucket is an immutable list which is replaced when the bucket is changed, so the index can be read
+ * without any lock. Appending to a bucket is amortized constant time since the lists of a bucket share one
+ * growing array, only removing copies the bucket.
+ * The modifications must be serialized by the caller.
+ */
+final class ServiceIndex {
+
+    private final Map<String, Bucket> _byId;
+    private final Map<String, Bucket> _byTag;
+    private final Map<QualifiedServiceId, Bucket> _byDependency;
+    // All holders in register order, each holder appears once even if it has more ids
+    private final Queue<ServiceHolder> _holders;
+    private volatile int _size;
+
+    ServiceIndex() {
+        this._byId = new ConcurrentHashMap<>();
+        this._byTag = new ConcurrentHashMap<>();
+        this._byDependency = new ConcurrentHashMap<>();
+        this._holders = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Find service holders by service id
+     *
+     * @param   serviceId
+     *          The service id
+     * @return  Service holders list in register order, it is an empty list if nothing was found
+     */
+    List<ServiceHolder> byId(final String serviceId) {
+        return bucketOf(this._byId, serviceId);
+    }
+
+    /**
+     * Find service holders by service tag
+     *
+     * @param   tag
+     *          The service tag
+     * @return  Service holders list in register order, it is an empty list if nothing was found
+     */
+    List<ServiceHolder> byTag(final String tag) {
+        return bucketOf(this._byTag, tag);
+    }
+
+    /**
+     * Find service holders which can satisfy the dependencies of specific service holder.
+     * Only the holders which has the same service id with the dependency are checked.
+     *
+     * @param   holder
+     *          The service holder which depends on other services
+     * @return  Service holders which are depended by specific service holder
+     */
+    List<ServiceHolder> providersOf(final ServiceHolder holder) {
+        var dependencies = dependenciesOf(holder);
+        if (dependencies.size() == 0) {
+            return Collections.emptyList();
+        }
+        List<ServiceHolder> providers = new ArrayList<>();
+        for (var dependency : dependencies) {
+            collectProviders(dependency, providers);
+        }
+        return providers;
+    }
+
+    /**
+     * Find service holders which can satisfy specific dependency
+     *
+     * @param   dependency
+     *          The dependency
+     * @return  Service holders which provide the dependency
+     */
+    List<ServiceHolder> providersOf(final Dependency dependency) {
+        List<ServiceHolder> providers = new ArrayList<>();
+        collectProviders(dependency, providers);
+        return providers;
+    }
+
+    private void collectProviders(
+            final Dependency dependency,
+            final List<ServiceHolder> providers
+    ) {
+        var qsId = dependency.getServiceId();
+        for (var candidate : byId(qsId.getId())) {
+            // The candidate is found by the dependency id which may not be its primary id, so only check from
+            if (isAssignFrom(candidate.getFrom(), qsId) && ! containsStrictly(providers, candidate)) {
+                providers.add(candidate);
+            }
+        }
+    }
+
+    /**
+     * Find service holders which are waiting for specific qualified service id.
+     * The holders which wait for the service id from any location are included as well.
+     *
+     * @param   qualifiedServiceId
+     *          The qualified service id which is provided
+     * @return  Service holders which depends on specific qualified service id
+     */
+    List<ServiceHolder> dependentsOf(final QualifiedServiceId qualifiedServiceId) {
+        var qsId = ServiceHolder.normalize(qualifiedServiceId);
+        var dependents = bucketOf(this._byDependency, qsId);
+        if (QualifiedServiceId.FROM_ANY.equals(qsId.getFrom())) {
+            return dependents;
+        }
+        var anyDependents = bucketOf(
+                this._byDependency, new QualifiedServiceId(qsId.getId(), QualifiedServiceId.FROM_ANY));
+        if (anyDependents.size() == 0) {
+            return dependents;
+        }
+        if (dependents.size() == 0) {
+            return anyDependents;
+        }
+        List<ServiceHolder> merged = new ArrayList<>(dependents);
+        for (var dependent : anyDependents) {
+            if (! containsStrictly(merged, dependent)) {
+                merged.add(dependent);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Find service holders which are waiting for any id of specific service holder
+     *
+     * @param   holder
+     *          The service holder which provides service
+     * @return  Service holders which depends on specific service holder
+     */
+    List<ServiceHolder> dependentsOf(final ServiceHolder holder) {
+        var svcIds = idsOf(holder);
+        if (svcIds.length == 1) {
+            return dependentsOf(holder.getQualifiedId());
+        }
+        List<ServiceHolder> dependents = new ArrayList<>();
+        for (var svcId : svcIds) {
+            for (var dependent : dependentsOf(new QualifiedServiceId(svcId, holder.getFrom()))) {
+                if (! containsStrictly(dependents, dependent)) {
+                    dependents.add(dependent);
+                }
+            }
+        }
+        return dependents;
+    }
+
+    /**
+     * Iterate all service holders in this index
+     *
+     * @return  All service holders in register order
+     */
+    Iterable<ServiceHolder> holders() {
+        return Collections.unmodifiableCollection(this._holders);
+    }
+
+    /**
+     * The count of registered service ids, the holder which has more ids is counted by each of its ids
+     *
+     * @return  The count of registered service ids
+     */
+    int size() {
+        return this._size;
+    }
+
+    void add(final ServiceHolder holder) {
+        ArgumentChecker.required(holder, "holder");
+        var svcIds = idsOf(holder);
+        for (var svcId : svcIds) {
+            include(this._byId, svcId, Collections.singletonList(holder));
+        }
+        for (var tag : tagsOf(holder)) {
+            include(this._byTag, tag, Collections.singletonList(holder));
+        }
+        for (var qsId : dependencyIdsOf(holder)) {
+            include(this._byDependency, qsId, Collections.singletonList(holder));
+        }
+        this._holders.add(holder);
+        this._size += svcIds.length;
+    }
+
+    /**
+     * Add specific service holders into this index, the holders are grouped by bucket first so each touched
+     * bucket is published once
+     *
+     * @param   holders
+     *          The service holders which will be added
+     */
+    void add(final Collection<ServiceHolder> holders) {
+        ArgumentChecker.required(holders, "holders");
+        if (holders.size() == 1) {
+            add(holders.iterator().next());
+            return;
+        }
+        Map<String, List<ServiceHolder>> byId = new LinkedHashMap<>();
+        Map<String, List<ServiceHolder>> byTag = new LinkedHashMap<>();
+        Map<QualifiedServiceId, List<ServiceHolder>> byDependency = new LinkedHashMap<>();
+        var size = 0;
+        for (var holder : holders) {
+            var svcIds = idsOf(holder);
+            for (var svcId : svcIds) {
+                byId.computeIfAbsent(svcId, key -> new ArrayList<>()).add(holder);
+            }
+            for (var tag : tagsOf(holder)) {
+                byTag.computeIfAbsent(tag, key -> new ArrayList<>()).add(holder);
+            }
+            for (var qsId : dependencyIdsOf(holder)) {
+                byDependency.computeIfAbsent(qsId, key -> new ArrayList<>()).add(holder);
+            }
+            size += svcIds.length;
+        }
+        byId.forEach((svcId, added) -> include(this._byId, svcId, added));
+        byTag.forEach((tag, added) -> include(this._byTag, tag, added));
+        byDependency.forEach((qsId, added) -> include(this._byDependency, qsId, added));
+        this._holders.addAll(holders);
+        this._size += size;
+    }
+
+    /**
+     * Remove specific service holder from this index
+     *
+     * @param   holder
+     *          The service holder which will be removed
+     * @return  False means the service holder is not in this index
+     */
+    boolean remove(final ServiceHolder holder) {
+        ArgumentChecker.required(holder, "holder");
+        if (! containsStrictly(byId(holder.getId()), holder)) {
+            return false;
+        }
+        var svcIds = idsOf(holder);
+        for (var svcId : svcIds) {
+            exclude(this._byId, svcId, holder);
+        }
+        for (var tag : tagsOf(holder)) {
+            exclude(this._byTag, tag, holder);
+        }
+        for (var qsId : dependencyIdsOf(holder)) {
+            exclude(this._byDependency, qsId, holder);
+        }
+        this._holders.removeIf(item -> item == holder);
+        this._size -= svcIds.length;
+        return true;
+    }
+
+    private static String[] idsOf(final ServiceHolder holder) {
+        var svcIds = holder.serviceIds();
+        return svcIds == null || svcIds.length == 0 ? new String[] { holder.getId() } : svcIds;
+    }
+
+    private static boolean isAssignFrom(final String from, final QualifiedServiceId qsId) {
+        return from.equals(qsId.getFrom()) || QualifiedServiceId.FROM_ANY.equals(qsId.getFrom());
+    }
+
+    private static String[] tagsOf(final ServiceHolder holder) {
+        var tags = holder.serviceTags();
+        return tags == null ? new String[0] : tags;
+    }
+
+    private static Collection<Dependency> dependenciesOf(final ServiceHolder holder) {
+        var dependencies = holder.dependencies();
+        return dependencies == null ? Collections.emptyList() : dependencies;
+    }
+
+    private static Set<QualifiedServiceId> dependencyIdsOf(final ServiceHolder holder) {
+        var dependencies = dependenciesOf(holder);
+        if (dependencies.size() == 0) {
+            return Collections.emptySet();
+        }
+        Set<QualifiedServiceId> qsIds = new LinkedHashSet<>();
+        for (var dependency : dependencies) {
+            qsIds.add(ServiceHolder.normalize(dependency.getServiceId()));
+        }
+        return qsIds;
+    }
+
+    private static boolean containsStrictly(final List<ServiceHolder> holders, final ServiceHolder holder) {
+        for (var existing : holders) {
+            if (existing == holder) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static <K> List<ServiceHolder> bucketOf(
+            final Map<K, Bucket> index,
+            final K key
+    ) {
+        var bucket = index.get(key);
+        return bucket == null ? Collections.emptyList() : bucket;
+    }
+
+    private static <K> void include(
+            final Map<K, Bucket> index,
+            final K key,
+            final List<ServiceHolder> holders
+    ) {
+        var existing = index.get(key);
+        index.put(key, existing == null ? Bucket.of(holders) : existing.append(holders));
+    }
+
+    private static <K> void exclude(
+            final Map<K, Bucket> index,
+            final K key,
+            final ServiceHolder holder
+    ) {
+        var existing = index.get(key);
+        if (existing == null) {
+            return;
+        }
+        var items = new ServiceHolder[existing.size()];
+        var count = 0;
+        for (var item : existing) {
+            if (item != holder) {
+                items[count++] = item;
+            }
+        }
+        if (count == 0) {
+            index.remove(key);
+        } else {
+            index.put(key, new Bucket(new Slots(items, count), count));
+        }
+    }
+
+    /**
+     * The slots which are shared by all lists of a bucket, only the latest list of the bucket writes the next
+     * free slot, the earlier lists never read the slots which are beyond their size
+     */
+    private static final class Slots {
+
+        private final ServiceHolder[] _items;
+        private int _used;
+
+        private Slots(final ServiceHolder[] items, final int used) {
+            this._items = items;
+            this._used = used;
+        }
+    }
+
+    /**
+     * The immutable list of a bucket, the new list is published by the index map after the appended slots
+     * are written, so the readers see the appended holders
+     */
+    private static final class Bucket extends AbstractList<ServiceHolder> implements RandomAccess {
+
+        private static final int MIN_CAPACITY   = 4;
+
+        private final Slots _slots;
+        private final int _size;
+
+        private static Bucket of(final List<ServiceHolder> holders) {
+            var items = new ServiceHolder[Math.max(holders.size(), MIN_CAPACITY)];
+            for (int i = 0; i < holders.size(); i++) {
+                items[i] = holders.get(i);
+            }
+            return new Bucket(new Slots(items, holders.size()), holders.size());
+        }
+
+        private Bucket(final Slots slots, final int size) {
+            this._slots = slots;
+            this._size = size;
+        }
+
+        /**
+         * Create a new list which appends the holders to this list, this list is not changed
+         */
+        private Bucket append(final List<ServiceHolder> holders) {
+            var slots = this._slots;
+            var newSize = this._size + holders.size();
+            if (this._size != slots._used || newSize > slots._items.length) {
+                // This list is not the latest one or the slots are full
+                var items = new ServiceHolder[Math.max(newSize * 2, MIN_CAPACITY)];
+                System.arraycopy(slots._items, 0, items, 0, this._size);
+                slots = new Slots(items, this._size);
+            }
+            for (int i = 0; i < holders.size(); i++) {
+                slots._items[slots._used++] = holders.get(i);
+            }
+            return new Bucket(slots, newSize);
+        }
+
+        @Override
+        public ServiceHolder get(final int index) {
+            Objects.checkIndex(index, this._size);
+            return this._slots._items[index];
+        }
+
+        @Override
+        public int size() {
+            return this._size;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.service.internal;
+
+import uapi.GeneralException;
+import uapi.common.ArgumentChecker;
+import uapi.service.IInstance;
+import uapi.service.IServiceLifecycle;
+import uapi.service.IServiceScope;
+import uapi.service.ServiceErrors;
+import uapi.service.ServiceException;
+
+import java.util.*;
+import java.util.function.BiFunction;
+
+/**
+ * Implementation of IServiceScope, the scoped instances are released in reverse creation order when the
+ * scope is closed since the later instance may use the earlier one.
+ */
+final class ServiceScope implements IServiceScope {
+
+    // Create scoped instance by prototype id and attributes
+    private final BiFunction<String, Map<String, ?>, IInstance> _instanceFactory;
+
+    // The instances keyed by prototype id and attributes in creation order, guarded by this
+    private final LinkedHashMap<List<Object>, IInstance> _instances;
+    private boolean _closed;
+
+    ServiceScope(final BiFunction<String, Map<String, ?>, IInstance> instanceFactory) {
+        ArgumentChecker.required(instanceFactory, "instanceFactory");
+        this._instanceFactory = instanceFactory;
+        this._instances = new LinkedHashMap<>();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T findService(
+            final String serviceId,
+            final Map<String, ?> attributes
+    ) throws ServiceException {
+        ArgumentChecker.required(serviceId, "serviceId");
+        ArgumentChecker.required(attributes, "attributes");
+        List<Object> key = Arrays.asList(serviceId, new TreeMap<>(attributes));
+        synchronized (this) {
+            checkClosed(serviceId);
+            var instance = this._instances.get(key);
+            if (instance != null) {
+                return (T) instance;
+            }
+        }
+
+        // Create instance out of the lock since it may take time
+        var instance = this._instanceFactory.apply(serviceId, attributes);
+        IInstance existing;
+        synchronized (this) {
+            existing = this._closed ? null : this._instances.putIfAbsent(key, instance);
+            if (! this._closed && existing == null) {
+                return (T) instance;
+            }
+        }
+        // The scope was closed or other thread created same instance at the same time
+        release(instance);
+        checkClosed(serviceId);
+        return (T) existing;
+    }
+
+    @Override
+    public synchronized int size() {
+        return this._instances.size();
+    }
+
+    @Override
+    public void close() {
+        List<IInstance> instances;
+        synchronized (this) {
+            if (this._closed) {
+                return;
+            }
+            this._closed = true;
+            instances = new ArrayList<>(this._instances.values());
+            this._instances.clear();
+        }
+        RuntimeException failure = null;
+        for (int i = instances.size() - 1; i >= 0; i--) {
+            try {
+                release(instances.get(i));
+            } catch (RuntimeException ex) {
+                if (failure == null) {
+                    failure = ex;
+                } else {
+                    failure.addSuppressed(ex);
+                }
+            }
+        }
+        if (failure != null) {
+            throw new GeneralException(failure);
+        }
+    }
+
+    private synchronized void checkClosed(final String serviceId) {
+        if (this._closed) {
+            throw ServiceException.builder()
+                    .errorCode(ServiceErrors.SERVICE_SCOPE_IS_CLOSED)
+                    .variables(new ServiceErrors.ServiceScopeIsClosed().serviceId(serviceId))
+                    .build();
+        }
+    }
+
+    private void release(final IInstance instance) {
+        if (instance instanceof IServiceLifecycle) {
+            ((IServiceLifecycle) instance).onDeactivate();
+        }
+    }
+}
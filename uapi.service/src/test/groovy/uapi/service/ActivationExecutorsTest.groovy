@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.service
+
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+
+/**
+ * Unit tests for ActivationExecutors
+ */
+class ActivationExecutorsTest extends Specification {
+
+    def 'Test queue task from other thread when pool is busy'() {
+        given:
+        def executor = ActivationExecutors.newPlatformExecutor('test', 1)
+        def blocker = new CountDownLatch(1)
+        executor.submit({ blocker.await() } as Runnable)
+        def thread = null
+
+        when:
+        def future = executor.submit({ thread = Thread.currentThread() } as Runnable)
+        future.get(100, TimeUnit.MILLISECONDS)
+
+        then:
+        thrown(TimeoutException)
+        thread == null
+
+        when:
+        blocker.countDown()
+        future.get(1, TimeUnit.SECONDS)
+
+        then:
+        thread != null
+        thread != Thread.currentThread()
+        thread.getName() == 'test-1'
+        ((ThreadPoolExecutor) executor).maximumPoolSize == 1
+
+        cleanup:
+        executor.shutdown()
+    }
+
+    def 'Test run nested task in pool thread when pool is busy'() {
+        given:
+        def executor = ActivationExecutors.newPlatformExecutor('test', 1)
+        def outerThread = null
+        def nestedThread = null
+
+        when:
+        executor.submit({
+            outerThread = Thread.currentThread()
+            executor.submit({ nestedThread = Thread.currentThread() } as Runnable).get()
+        } as Runnable).get(1, TimeUnit.SECONDS)
+
+        then:
+        noExceptionThrown()
+        nestedThread != null
+        nestedThread == outerThread
+
+        cleanup:
+        executor.shutdown()
+    }
+
+    def 'Test virtual executor is bounded when virtual thread is not supported'() {
+        when:
+        def executor = ActivationExecutors.newVirtualExecutor('test', 2)
+
+        then:
+        ActivationExecutors.isVirtualThreadSupported() || ((ThreadPoolExecutor) executor).maximumPoolSize == 2
+
+        cleanup:
+        executor.shutdown()
+    }
+}
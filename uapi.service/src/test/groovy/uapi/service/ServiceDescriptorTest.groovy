@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.service
+
+import spock.lang.Specification
+
+import java.util.function.IntFunction
+
+/**
+ * Unit tests for ServiceDescriptor
+ */
+class ServiceDescriptorTest extends Specification {
+
+    def 'Test create instance'() {
+        when:
+        def svcDesc = new ServiceDescriptor('a.Svc', ['1'] as String[], null, null, { idx -> null } as IntFunction, 0)
+
+        then:
+        svcDesc.type == 'a.Svc'
+        svcDesc.ids == ['1'] as String[]
+        svcDesc.tags.length == 0
+        svcDesc.dependencies.length == 0
+    }
+
+    def 'Test new service'() {
+        given:
+        def svc0 = Mock(IService)
+        def svc1 = Mock(IService)
+        IntFunction<IService> factory = { idx -> idx == 0 ? svc0 : svc1 } as IntFunction
+
+        expect:
+        new ServiceDescriptor('a.Svc0', ['0'] as String[], null, null, factory, 0).newService().is(svc0)
+        new ServiceDescriptor('a.Svc1', ['1'] as String[], null, null, factory, 1).newService().is(svc1)
+    }
+
+    def 'Test load service from module portal by descriptors'() {
+        given:
+        def svc = Mock(IService)
+        def portal = new IServiceModulePortal() {
+            @Override
+            List<ServiceDescriptor> serviceDescriptors() {
+                return [new ServiceDescriptor('a.Svc', ['1'] as String[], null, null, { idx -> svc } as IntFunction, 0)]
+            }
+        }
+
+        expect:
+        portal.loadService().toList() == [svc]
+    }
+
+    def 'Test load service from module portal when descriptor is failed'() {
+        given:
+        def portal = new IServiceModulePortal() {
+            @Override
+            List<ServiceDescriptor> serviceDescriptors() {
+                return [new ServiceDescriptor('a.Svc', ['1'] as String[], null, null,
+                        { idx -> throw new IllegalStateException() } as IntFunction, 0)]
+            }
+        }
+
+        when:
+        portal.loadService()
+
+        then:
+        ServiceException ex = thrown()
+        ex.errorCode() == ServiceErrors.CREATE_SERVICE_FAILED
+    }
+}
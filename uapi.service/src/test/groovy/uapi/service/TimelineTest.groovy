@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.service
+
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.util.concurrent.TimeUnit
+
+/**
+ * Unit tests for Timeline
+ */
+class TimelineTest extends Specification {
+
+    def 'Test disabled by default'() {
+        expect:
+        ! Timeline.ENABLED
+    }
+
+    def 'Test record span'() {
+        given:
+        def timeline = new Timeline()
+
+        when:
+        timeline.record('svc', Timeline.PHASE_ACTIVATE, 100L, 300L)
+
+        then:
+        timeline.spans().size() == 1
+        timeline.spans()[0].name() == 'svc'
+        timeline.spans()[0].phase() == Timeline.PHASE_ACTIVATE
+        timeline.spans()[0].duration() == 200L
+        timeline.spans()[0].threadName() == Thread.currentThread().getName()
+
+        when:
+        timeline.clear()
+
+        then:
+        timeline.spans().size() == 0
+    }
+
+    def 'Test critical path'() {
+        given:
+        def timeline = new Timeline()
+        timeline.record('a', Timeline.PHASE_ACTIVATE, 0L, 10L)
+        timeline.record('b', Timeline.PHASE_ACTIVATE, 0L, 30L)
+        timeline.record('c', Timeline.PHASE_ACTIVATE, 30L, 40L)
+        timeline.record('d', Timeline.PHASE_ACTIVATE, 40L, 50L)
+        timeline.dependsOn('c', ['a', 'b'])
+        timeline.dependsOn('d', ['c'])
+
+        expect:
+        timeline.criticalPath() == ['b', 'c', 'd']
+    }
+
+    def 'Test critical path on empty timeline'() {
+        expect:
+        new Timeline().criticalPath() == []
+    }
+
+    def 'Test summary'() {
+        given:
+        def ms = TimeUnit.MILLISECONDS.toNanos(1)
+        def timeline = new Timeline()
+        timeline.record('boot', Timeline.PHASE_BOOT, 0L, 20 * ms)
+        timeline.record('a', Timeline.PHASE_WAIT, 0L, 5 * ms)
+        timeline.record('a', Timeline.PHASE_RESOLVE, 5 * ms, 6 * ms)
+        timeline.record('a', Timeline.PHASE_ACTIVATE, 6 * ms, 9 * ms)
+        timeline.dependsOn('a', [])
+
+        when:
+        def summary = timeline.summary()
+
+        then:
+        summary.contains('boot 20ms')
+        summary.contains('critical path has 1 services')
+        summary.contains('a - own 4ms, wait 5ms')
+    }
+
+    def 'Test chrome trace'() {
+        given:
+        def timeline = new Timeline()
+        def start = System.nanoTime()
+        timeline.record('a"b', Timeline.PHASE_ACTIVATE, start, start + TimeUnit.MICROSECONDS.toNanos(15))
+
+        when:
+        def trace = timeline.toChromeTrace()
+
+        then:
+        trace.startsWith('{"traceEvents":[')
+        trace.contains('"name":"a\\"b"')
+        trace.contains('"cat":"activate"')
+        trace.contains('"ph":"X"')
+        trace.contains('"dur":15')
+    }
+
+    def 'Test write chrome trace'() {
+        given:
+        def timeline = new Timeline()
+        timeline.record('a', Timeline.PHASE_ACTIVATE, System.nanoTime())
+        def file = Files.createTempFile('timeline', '.json')
+
+        when:
+        timeline.writeChromeTrace(file)
+
+        then:
+        new String(Files.readAllBytes(file), 'UTF-8') == timeline.toChromeTrace()
+
+        cleanup:
+        Files.deleteIfExists(file)
+    }
+}
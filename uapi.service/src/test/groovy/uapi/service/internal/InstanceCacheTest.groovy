@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.service.internal
+
+import spock.lang.Specification
+import uapi.InvalidArgumentException
+import uapi.service.IInstance
+
+/**
+ * Unit tests for InstanceCache
+ */
+class InstanceCacheTest extends Specification {
+
+    def 'Test create instance with invalid capacity'() {
+        when:
+        new InstanceCache(0)
+
+        then:
+        thrown(InvalidArgumentException)
+    }
+
+    def 'Test get instance by normalized attributes'() {
+        given:
+        def cache = new InstanceCache()
+        def instance = Mock(IInstance)
+        def attrs = new LinkedHashMap()
+        attrs.put('a', '1')
+        attrs.put('b', '2')
+        def otherOrderAttrs = new HashMap()
+        otherOrderAttrs.put('b', '2')
+        otherOrderAttrs.put('a', '1')
+
+        when:
+        def evicted = cache.put(attrs, instance, false)
+
+        then:
+        evicted == []
+        cache.size() == 1
+        cache.get(otherOrderAttrs, false) == instance
+        cache.get([a: '1'], false) == null
+    }
+
+    def 'Test evict least recently used instance'() {
+        given:
+        def cache = new InstanceCache(2)
+        def inst1 = Mock(IInstance)
+        def inst2 = Mock(IInstance)
+        def inst3 = Mock(IInstance)
+        cache.put([id: 1], inst1, false)
+        cache.put([id: 2], inst2, false)
+        cache.get([id: 1], false)
+
+        when:
+        def evicted = cache.put([id: 3], inst3, false)
+
+        then:
+        evicted == [inst2]
+        cache.size() == 2
+        cache.get([id: 1], false) == inst1
+        cache.get([id: 2], false) == null
+        cache.get([id: 3], false) == inst3
+    }
+
+    def 'Test referenced instance is not evicted'() {
+        given:
+        def cache = new InstanceCache(1)
+        def inst1 = Mock(IInstance)
+        def inst2 = Mock(IInstance)
+        def inst3 = Mock(IInstance)
+        cache.put([id: 1], inst1, true)
+
+        when:
+        def evicted = cache.put([id: 2], inst2, false)
+
+        then:
+        evicted == []
+        cache.size() == 2
+
+        when:
+        evicted = cache.put([id: 3], inst3, false)
+
+        then:
+        evicted == [inst2]
+        cache.get([id: 1], false) == inst1
+    }
+
+    def 'Test put instance if absent'() {
+        given:
+        def cache = new InstanceCache(1)
+        def inst1 = Mock(IInstance)
+        def inst2 = Mock(IInstance)
+        def inst3 = Mock(IInstance)
+
+        when:
+        def cached1 = cache.putIfAbsent([id: 1], inst1, false)
+        def cached2 = cache.putIfAbsent([id: 1], inst2, false)
+
+        then:
+        cached1 == null
+        cached2 == inst1
+        cache.get([id: 1], false) == inst1
+
+        when:
+        cache.putIfAbsent([id: 2], inst3, false)
+        def evicted = cache.evict()
+
+        then:
+        evicted == [inst1]
+        cache.size() == 1
+        cache.get([id: 2], false) == inst3
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.service.internal
+
+import spock.lang.Specification
+import uapi.common.IntervalTime
+import uapi.service.IServiceLoader
+
+/**
+ * Unit tests for NegativeLoadCache
+ */
+class NegativeLoadCacheTest extends Specification {
+
+    def 'Test failed loader'() {
+        given:
+        def cache = new NegativeLoadCache()
+        def loader1 = Mock(IServiceLoader)
+        def loader2 = Mock(IServiceLoader)
+
+        when:
+        cache.failed('svc', loader1)
+
+        then:
+        cache.isFailed('svc', loader1)
+        ! cache.isFailed('svc', loader2)
+        ! cache.isFailed('svc2', loader1)
+        cache.size() == 1
+    }
+
+    def 'Test failure is expired'() {
+        given:
+        def cache = new NegativeLoadCache(IntervalTime.parse('100ms'))
+        def loader = Mock(IServiceLoader)
+
+        when:
+        cache.failed('svc', loader)
+
+        then:
+        cache.isFailed('svc', loader)
+
+        when:
+        Thread.sleep(150)
+
+        then:
+        ! cache.isFailed('svc', loader)
+        cache.size() == 0
+    }
+
+    def 'Test forget failures'() {
+        given:
+        def cache = new NegativeLoadCache()
+        def loader1 = Mock(IServiceLoader)
+        def loader2 = Mock(IServiceLoader)
+        cache.failed('svc', loader1)
+        cache.failed('svc', loader2)
+        cache.failed('svc2', loader1)
+
+        when:
+        cache.forget('svc')
+
+        then:
+        ! cache.isFailed('svc', loader1)
+        ! cache.isFailed('svc', loader2)
+        cache.isFailed('svc2', loader1)
+        cache.size() == 1
+    }
+
+    def 'Test clear failures'() {
+        given:
+        def cache = new NegativeLoadCache()
+        def loader = Mock(IServiceLoader)
+        cache.failed('svc', loader)
+        cache.failed('svc2', loader)
+
+        when:
+        cache.clear()
+
+        then:
+        ! cache.isFailed('svc', loader)
+        cache.size() == 0
+    }
+
+    def 'Test bounded failures'() {
+        given:
+        def cache = new NegativeLoadCache(IntervalTime.parse('10s'), 2)
+        def loader = Mock(IServiceLoader)
+        cache.failed('svc', loader)
+        cache.failed('svc2', loader)
+
+        when:
+        cache.failed('svc3', loader)
+
+        then:
+        cache.size() == 1
+        cache.isFailed('svc3', loader)
+        ! cache.isFailed('svc', loader)
+    }
+}
@@ -12,6 +12,7 @@ package uapi.service.internal
 import spock.lang.Specification
 import uapi.InvalidArgumentException
 import uapi.service.Dependency
+import uapi.service.GenericAttributes
 import uapi.service.IInjectable
 import uapi.service.IInstance
 import uapi.service.IPrototype
@@ -20,13 +21,21 @@ import uapi.service.ISatisfyHook
 import uapi.service.IService
 import uapi.service.IServiceLifecycle
 import uapi.service.IServiceLoader
+import uapi.service.IServiceReference
 import uapi.service.ITagged
 import uapi.service.Injection
 import uapi.service.QualifiedServiceId
+import uapi.service.ServiceDescriptor
+import uapi.common.IntervalTime
 import uapi.log.ILogger
 import uapi.service.ServiceErrors
 import uapi.service.ServiceException
 
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionStage
+import java.util.concurrent.Executor
+import java.util.concurrent.atomic.AtomicInteger
+
 /**
  * Test case for Registry
  */
@@ -74,6 +83,22 @@ class RegistryTest extends Specification {
         registry.getCount() == 2
     }
 
+    def 'Register a IService instance with more ids shares one service holder'() {
+        given:
+        def svc = Mock(IService) {
+            getIds() >> ['1', '2']
+        }
+
+        when:
+        registry.register(svc)
+
+        then:
+        registry._svcIndex.byId('1').size() == 1
+        registry._svcIndex.byId('1')[0].is(registry._svcIndex.byId('2')[0])
+        registry._svcIndex.byId('1')[0].serviceIds() == ['1', '2'] as String[]
+        registry._svcIndex.holders().toList().size() == 1
+    }
+
     def "Register more IService instances"() {
         def svc1 = Mock(IService) {
             getIds() >> ["1", "2"]
@@ -93,6 +118,101 @@ class RegistryTest extends Specification {
         registry.getCount() == 4
     }
 
+    def 'Test cache satisfy decision of cacheable hook'() {
+        given:
+        ISatisfyHook.IDecisionCache decisionCache = null
+        def hook = Mock(ISatisfyHook) {
+            isCacheable() >> true
+            1 * setDecisionCache(_) >> { args -> decisionCache = args[0] }
+        }
+        def otherHook = Mock(ISatisfyHook)
+        registry.injectObject(new Injection(ISatisfyHook.canonicalName, hook))
+        registry.injectObject(new Injection(ISatisfyHook.canonicalName, otherHook))
+        def svcRef = Mock(IServiceReference)
+
+        when:
+        def result1 = registry._satisfyDecider.isSatisfied(svcRef)
+        def result2 = registry._satisfyDecider.isSatisfied(svcRef)
+
+        then:
+        1 * hook.isSatisfied(svcRef) >> false
+        0 * otherHook.isSatisfied(_)
+        ! result1
+        ! result2
+
+        when:
+        decisionCache.invalidate(svcRef)
+        def result3 = registry._satisfyDecider.isSatisfied(svcRef)
+        def result4 = registry._satisfyDecider.isSatisfied(svcRef)
+
+        then:
+        1 * hook.isSatisfied(svcRef) >> true
+        2 * otherHook.isSatisfied(svcRef) >> true
+        result3
+        result4
+    }
+
+    def 'Register more IService instances which depend on each other'() {
+        given:
+        def svc1 = Mock(IService) {
+            getIds() >> ['1']
+        }
+        def svc2 = Mock(IInjectableService) {
+            getIds() >> ['2']
+            getDependencies() >> [Mock(Dependency) {
+                getServiceId() >> Mock(QualifiedServiceId) {
+                    getId() >> '1'
+                    getFrom() >> 'Local'
+                    isExternalService() >> false
+                    isAssignTo(_ as QualifiedServiceId) >> true
+                }
+                getServiceType() >> IService.class
+                isSingle() >> true
+                isOptional() >> false
+            }]
+            1 * injectObject({ it.id == '1' && it.object == svc1 })
+        }
+
+        when:
+        registry.register(svc2, svc1)
+        def rtnSvc = registry.findService('2')
+
+        then:
+        noExceptionThrown()
+        registry.getCount() == 2
+        rtnSvc == svc2
+        registry._svcIndex.byId('2')[0].isActivated()
+        registry._svcIndex.byId('1')[0].isActivated()
+    }
+
+    def 'Register services which depend on each other concurrently'() {
+        given:
+        def count = 200
+        def providers = (0..<count).collect {
+            new ServiceDescriptor('Provider', ["p${it}".toString()] as String[], null, null, { index -> null }, 0)
+        }
+        def consumers = (0..<count).collect {
+            new ServiceDescriptor('Consumer', ["c${it}".toString()] as String[], null,
+                    [new Dependency("p${it}@Local".toString(), IService.class)] as Dependency[], { index -> null }, 0)
+        }
+        registry._logger = Mock(ILogger)
+        def threads = [providers, consumers].collect { descs ->
+            new Thread({ descs.each { registry.register([it]) } })
+        }
+
+        when:
+        threads.each { it.start() }
+        threads.each { it.join() }
+
+        then:
+        registry.getCount() == count * 2
+        (0..<count).every {
+            def consumer = registry._svcIndex.byId("c${it}".toString())[0]
+            def provider = registry._svcIndex.byId("p${it}".toString())[0]
+            consumer.dependencyHolders() == [provider]
+        }
+    }
+
     def "Test Optional"() {
         expect:
         registry.isOptional(svcId) == optional
@@ -152,6 +272,28 @@ class RegistryTest extends Specification {
         registry.findService('2') == instance
     }
 
+    def 'Test find prototype instance service from cache'() {
+        given:
+        def instance = Mock(IInstance) {
+            getIds() >> ['2']
+            prototypeId() >> '1'
+        }
+        def prototype = Mock(IPrototype) {
+            getIds() >> ['1']
+            1 * newInstance(_ as Map) >> instance
+        }
+        registry.register(prototype)
+
+        when:
+        def found1 = registry.findService('1', [a: '1', b: '2'])
+        def found2 = registry.findService('1', [b: '2', a: '1'])
+
+        then:
+        found1 == instance
+        found2 == instance
+        registry.getCount() == 2
+    }
+
     def 'Test a service depends on a prototype service'() {
         given:
         def instance = Mock(IInstance) {
@@ -703,6 +845,184 @@ class RegistryTest extends Specification {
         found2 == null
     }
 
+    def 'Test find service by any external service loader in priority order'() {
+        given:
+        def svc = Mock(IInjectableService) {
+            getIds() >> ['1']
+            getDependencies() >> [new Dependency('2@Any', String.class, true, false)]
+        }
+        registry._logger = Mock(ILogger)
+        registry.register(svc)
+        def slowLoading = new CompletableFuture()
+        def svcLoader1 = new IServiceLoader() {
+            public String getId() { return 'Slow' }
+            public int getPriority() { return 1 }
+            public <Object> Object load(String serviceId, Class<?> serviceType) { return null }
+            public <T> CompletionStage<T> loadAsync(String serviceId, Class<?> serviceType, Executor executor) {
+                return slowLoading
+            }
+            public void register(IServiceLoader.IServiceReadyListener listener) {}
+        }
+        def svcLoader2 = new IServiceLoader() {
+            public String getId() { return 'Fast' }
+            public int getPriority() { return 2 }
+            public <Object> Object load(String serviceId, Class<?> serviceType) { return 'fast' }
+            public void register(IServiceLoader.IServiceReadyListener listener) {}
+        }
+        registry.injectObject(Mock(Injection) {
+            getId() >> IServiceLoader.name
+            getObject() >> svcLoader1
+        })
+        registry.injectObject(Mock(Injection) {
+            getId() >> IServiceLoader.name
+            getObject() >> svcLoader2
+        })
+
+        when:
+        Thread.start {
+            Thread.sleep(100)
+            slowLoading.complete('slow')
+        }
+        registry.findService('1')
+
+        then:
+        noExceptionThrown()
+        registry.findService('2') == 'slow'
+    }
+
+    def 'Test lower priority external service loaders are cancelled after service is loaded'() {
+        given:
+        def svc = Mock(IInjectableService) {
+            getIds() >> ['1']
+            getDependencies() >> [new Dependency('2@Any', String.class, true, false)]
+        }
+        registry._logger = Mock(ILogger)
+        registry.register(svc)
+        def pendingLoading = new CompletableFuture()
+        def svcLoader1 = new IServiceLoader() {
+            public String getId() { return 'Fast' }
+            public int getPriority() { return 1 }
+            public <Object> Object load(String serviceId, Class<?> serviceType) { return 'fast' }
+            public void register(IServiceLoader.IServiceReadyListener listener) {}
+        }
+        def svcLoader2 = new IServiceLoader() {
+            public String getId() { return 'Pending' }
+            public int getPriority() { return 2 }
+            public <Object> Object load(String serviceId, Class<?> serviceType) { return null }
+            public <T> CompletionStage<T> loadAsync(String serviceId, Class<?> serviceType, Executor executor) {
+                return pendingLoading
+            }
+            public void register(IServiceLoader.IServiceReadyListener listener) {}
+        }
+        registry.injectObject(Mock(Injection) {
+            getId() >> IServiceLoader.name
+            getObject() >> svcLoader1
+        })
+        registry.injectObject(Mock(Injection) {
+            getId() >> IServiceLoader.name
+            getObject() >> svcLoader2
+        })
+
+        when:
+        registry.findService('1')
+
+        then:
+        noExceptionThrown()
+        registry.findService('2') == 'fast'
+        pendingLoading.isCancelled()
+        ! registry._negativeLoads.isFailed('2', svcLoader2)
+    }
+
+    def 'Test failed external service loader is not asked again'() {
+        given:
+        def svc = Mock(IInjectableService) {
+            getIds() >> ['1']
+            getDependencies() >> [new Dependency('2@Any', String.class, true, false)]
+        }
+        registry._logger = Mock(ILogger)
+        registry.register(svc)
+        def loadCount = new AtomicInteger(0)
+        def svcLoader = new IServiceLoader() {
+            public String getId() { return 'Test' }
+            public int getPriority() { return 1 }
+            public <Object> Object load(String serviceId, Class<?> serviceType) {
+                loadCount.incrementAndGet()
+                return null
+            }
+            public void register(IServiceLoader.IServiceReadyListener listener) {}
+        }
+        registry.injectObject(Mock(Injection) {
+            getId() >> IServiceLoader.name
+            getObject() >> svcLoader
+        })
+
+        when:
+        registry.findService('1')
+
+        then:
+        thrown(ServiceException)
+        loadCount.get() == 1
+        registry._negativeLoads.isFailed('2', svcLoader)
+
+        when:
+        registry.findService('1')
+
+        then:
+        thrown(ServiceException)
+        loadCount.get() == 1
+    }
+
+    def 'Test forget failed loadings when new service loader is added'() {
+        given:
+        def svcLoader = Mock(IServiceLoader) {
+            getId() >> 'Test'
+        }
+        registry.injectObject(new Injection(IServiceLoader.name, svcLoader))
+        registry._negativeLoads.failed('2', svcLoader)
+
+        when:
+        registry.injectObject(new Injection(IServiceLoader.name, Mock(IServiceLoader) {
+            getId() >> 'Other'
+        }))
+
+        then:
+        ! registry._negativeLoads.isFailed('2', svcLoader)
+        registry._negativeLoads.size() == 0
+    }
+
+    def 'Test external service loader which is timed out'() {
+        given:
+        def svc = Mock(IInjectableService) {
+            getIds() >> ['1']
+            getDependencies() >> [new Dependency('2@Any', String.class, true, false)]
+        }
+        def logger = Mock(ILogger)
+        registry._logger = logger
+        registry.register(svc)
+        def svcLoader = new IServiceLoader() {
+            public String getId() { return 'Test' }
+            public int getPriority() { return 1 }
+            public <Object> Object load(String serviceId, Class<?> serviceType) { return null }
+            public <T> CompletionStage<T> loadAsync(String serviceId, Class<?> serviceType, Executor executor) {
+                return new CompletableFuture()
+            }
+            public IntervalTime getLoadTimeout() { return IntervalTime.parse('100ms') }
+            public void register(IServiceLoader.IServiceReadyListener listener) {}
+        }
+        registry.injectObject(Mock(Injection) {
+            getId() >> IServiceLoader.name
+            getObject() >> svcLoader
+        })
+
+        when:
+        registry.findService('1')
+
+        then:
+        thrown(ServiceException)
+        1 * logger.warn('Load service {} by loader {} is timed out', '2', 'Test')
+        registry._negativeLoads.isFailed('2', svcLoader)
+    }
+
     def 'Test activate tagged service'() {
         given:
         def svc = Mock(TaggedService) {
@@ -765,8 +1085,235 @@ class RegistryTest extends Specification {
         noExceptionThrown()
     }
 
+    def 'Test get service by handle'() {
+        given:
+        def svc = Mock(IService) {
+            getIds() >> [String.canonicalName]
+        }
+        registry.register(svc)
+
+        when:
+        def handle = registry.handle(String.class)
+
+        then:
+        handle.serviceId() == String.canonicalName
+        ! handle.isResolved()
+        handle.get() == svc
+        handle.isResolved()
+        registry.handle(String.canonicalName).is(handle)
+    }
+
+    def 'Test service handle is invalidated when service is deactivated'() {
+        given:
+        def svc = Mock(TaggedService) {
+            getIds() >> ['1']
+            getTags() >> []
+        }
+        def logger = Mock(ILogger)
+        registry._logger = logger
+        registry.register(svc)
+        def handle = registry.handle('1')
+        handle.get()
+
+        when:
+        registry.deactivateServices(['1'] as String[])
+
+        then:
+        ! handle.isResolved()
+    }
+
+    def 'Test service handle is invalidated when service is registered'() {
+        given:
+        def svc1 = Mock(IService) {
+            getIds() >> ['1']
+        }
+        def svc2 = Mock(IService) {
+            getIds() >> ['1']
+        }
+        registry.register(svc1)
+        def handle = registry.handle('1')
+        handle.get()
+
+        when:
+        registry.register(svc2)
+
+        then:
+        ! handle.isResolved()
+    }
+
+    def 'Test register service descriptor lazily'() {
+        given:
+        def svc = Mock(TaggedService) {
+            getIds() >> ['1', '2']
+            getTags() >> ['tag']
+            1 * onActivate()
+        }
+        def createdCount = 0
+        def svcDesc = new ServiceDescriptor(
+                'Service', ['1', '2'] as String[], ['tag'] as String[], null,
+                { index -> createdCount++; return svc }, 0)
+        registry._logger = Mock(ILogger)
+
+        when:
+        registry.register([svcDesc])
+
+        then:
+        registry.getCount() == 2
+        createdCount == 0
+
+        when:
+        registry.activateTaggedService('tag')
+
+        then:
+        registry.findService('1') == svc
+        registry.findService('2') == svc
+        createdCount == 1
+    }
+
+    def 'Test register prototype service descriptor'() {
+        given:
+        def svc = Mock(IPrototype) {
+            getIds() >> ['1']
+        }
+        def createdCount = 0
+        def svcDesc = new ServiceDescriptor(
+                'Service', ['1'] as String[], null, null,
+                { index -> createdCount++; return svc }, 0, false, true)
+
+        when:
+        registry.register([svcDesc])
+
+        then:
+        registry.getCount() == 1
+        createdCount == 1
+    }
+
+    def 'Test lazy service depends on a prototype service'() {
+        given:
+        def instance = Mock(IInstance) {
+            getIds() >> ['inst']
+            prototypeId() >> 'proto'
+        }
+        def prototype = Mock(IPrototype) {
+            getIds() >> ['proto']
+        }
+        def svc = Mock(IInjectableService) {
+            getIds() >> ['svc']
+        }
+        def createdCount = 0
+        def svcDesc = new ServiceDescriptor(
+                'Service', ['svc'] as String[], null, [new Dependency('proto@Local', IPrototype.class)] as Dependency[],
+                { index -> createdCount++; return svc }, 0)
+        registry._logger = Mock(ILogger)
+
+        when:
+        registry.register(prototype)
+        registry.register([svcDesc])
+
+        then:
+        0 * prototype.newInstance(_)
+        createdCount == 0
+        registry.getCount() == 2
+
+        when:
+        def rtnSvc = registry.findService('svc')
+
+        then:
+        1 * prototype.newInstance({ it[GenericAttributes.REF_ID] == 'svc' && it[GenericAttributes.SERVE_FOR] != null }) >> instance
+        1 * svc.injectObject({ it.id == 'proto' && it.object == instance })
+        rtnSvc == svc
+        createdCount == 1
+        registry.getCount() == 3
+    }
+
+    def 'Test register service descriptors with activation plan'() {
+        given:
+        def svcB = Mock(TaggedService) {
+            getIds() >> ['b']
+            getTags() >> ['tag']
+        }
+        def svcA = Mock(IInjectableTaggedService) {
+            getIds() >> ['a']
+            getTags() >> ['tag']
+        }
+        def svcDescs = ServiceDescriptor.link([
+                new ServiceDescriptor(
+                        'A', ['a'] as String[], ['tag'] as String[],
+                        [new Dependency('b@Local', Object.class, true, false)] as Dependency[],
+                        { index -> svcA }, 0, false, false, [1] as int[], [1] as int[]),
+                new ServiceDescriptor(
+                        'B', ['b'] as String[], ['tag'] as String[], null,
+                        { index -> svcB }, 1, false, false, [] as int[], [] as int[])
+        ])
+        registry._logger = Mock(ILogger)
+
+        when:
+        registry.register(svcDescs)
+
+        then:
+        def holderA = registry._svcIndex.byId('a')[0]
+        def holderB = registry._svcIndex.byId('b')[0]
+        holderA.activationPlan() != null
+        holderA.activationPlan().size() == 1
+        holderA.activationPlan().holder(0).is(holderB)
+        holderB.activationPlan() == null
+
+        when:
+        def svc = registry.findService('a')
+
+        then:
+        1 * svcB.onActivate()
+
+        then:
+        1 * svcA.injectObject(_)
+        1 * svcA.onActivate()
+        svc == svcA
+        holderB.isActivated()
+    }
+
+    def 'Test register service descriptors with incomplete activation plan'() {
+        given:
+        def svcDesc = ServiceDescriptor.link([
+                new ServiceDescriptor(
+                        'A', ['a'] as String[], null,
+                        [new Dependency('b@Local', Object.class, true, false)] as Dependency[],
+                        { index -> Mock(IService) }, 0, false, false, [1] as int[], [1] as int[]),
+                new ServiceDescriptor(
+                        'B', ['b'] as String[], null, null,
+                        { index -> Mock(IService) }, 1, false, false, [] as int[], [] as int[])
+        ])[0]
+
+        when:
+        registry.register([svcDesc])
+
+        then:
+        registry._svcIndex.byId('a')[0].activationPlan() == null
+    }
+
+    def 'Test shutdown default activation executor when registry is deactivated'() {
+        given:
+        registry.register(Mock(IService) {
+            getIds() >> ['svc']
+        })
+
+        expect:
+        registry._svcActivator._defaultExecutor == null
+
+        when:
+        registry.findService('svc')
+        def executor = registry._svcActivator._defaultExecutor
+        registry.onDeactivate()
+
+        then:
+        executor != null
+        executor.isShutdown()
+        registry._svcActivator._defaultExecutor == null
+    }
+
     static interface IInitialService extends IService {}
 
+    static interface IInjectableTaggedService extends IService, ITagged, IInjectable, IServiceLifecycle {}
+
     static interface IInjectableService extends IService, IInjectable {}
 
     static interface TaggedService extends IService, ITagged, IServiceLifecycle {}
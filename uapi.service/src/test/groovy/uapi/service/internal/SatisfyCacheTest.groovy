@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.service.internal
+
+import spock.lang.Specification
+import uapi.service.ISatisfyHook
+import uapi.service.IServiceReference
+
+import java.lang.ref.WeakReference
+
+/**
+ * Unit tests for SatisfyCache
+ */
+class SatisfyCacheTest extends Specification {
+
+    def 'Test cache decision'() {
+        given:
+        def cache = new SatisfyCache()
+        def svcRef = Mock(IServiceReference)
+        def hookRef1 = new WeakReference<ISatisfyHook>(Mock(ISatisfyHook))
+        def hookRef2 = new WeakReference<ISatisfyHook>(Mock(ISatisfyHook))
+
+        when:
+        cache.put(svcRef, hookRef1, true, cache.version())
+        cache.put(svcRef, hookRef2, false, cache.version())
+
+        then:
+        cache.get(svcRef, hookRef1) == true
+        cache.get(svcRef, hookRef2) == false
+        cache.get(Mock(IServiceReference), hookRef1) == null
+        cache.size() == 2
+    }
+
+    def 'Test invalidate decision by hook'() {
+        given:
+        def cache = new SatisfyCache()
+        def svcRef1 = Mock(IServiceReference)
+        def svcRef2 = Mock(IServiceReference)
+        def hookRef = new WeakReference<ISatisfyHook>(Mock(ISatisfyHook))
+        def decisionCache = cache.bind(hookRef)
+        cache.put(svcRef1, hookRef, true, cache.version())
+        cache.put(svcRef2, hookRef, true, cache.version())
+
+        when:
+        decisionCache.invalidate(svcRef1)
+
+        then:
+        cache.get(svcRef1, hookRef) == null
+        cache.get(svcRef2, hookRef) == true
+
+        when:
+        decisionCache.invalidateAll()
+
+        then:
+        cache.size() == 0
+    }
+
+    def 'Test drop decision which is made before invalidation'() {
+        given:
+        def cache = new SatisfyCache()
+        def svcRef = Mock(IServiceReference)
+        def hookRef = new WeakReference<ISatisfyHook>(Mock(ISatisfyHook))
+        def version = cache.version()
+
+        when:
+        cache.bind(hookRef).invalidate(svcRef)
+        cache.put(svcRef, hookRef, false, version)
+
+        then:
+        cache.get(svcRef, hookRef) == null
+    }
+
+    def 'Test forget decisions'() {
+        given:
+        def cache = new SatisfyCache()
+        def svcRef1 = Mock(IServiceReference)
+        def svcRef2 = Mock(IServiceReference)
+        def hookRef1 = new WeakReference<ISatisfyHook>(Mock(ISatisfyHook))
+        def hookRef2 = new WeakReference<ISatisfyHook>(Mock(ISatisfyHook))
+        cache.put(svcRef1, hookRef1, true, cache.version())
+        cache.put(svcRef1, hookRef2, true, cache.version())
+        cache.put(svcRef2, hookRef1, true, cache.version())
+
+        when:
+        cache.forget(svcRef1)
+
+        then:
+        cache.size() == 1
+        cache.get(svcRef2, hookRef1) == true
+
+        when:
+        cache.forget(hookRef1)
+
+        then:
+        cache.size() == 0
+    }
+}
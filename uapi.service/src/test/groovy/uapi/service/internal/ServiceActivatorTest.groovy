@@ -10,9 +10,16 @@
 package uapi.service.internal
 
 import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executor
+import java.util.concurrent.ExecutorService
 import uapi.common.IntervalTime
+import uapi.service.ActivationExecutors
 import uapi.service.Dependency
+import uapi.service.IActivationExecutor
 import uapi.service.QualifiedServiceId
+import uapi.service.ServiceErrors
 import uapi.service.ServiceException
 
 /**
@@ -220,11 +227,13 @@ class ServiceActivatorTest extends Specification {
             }
             equals(_) >> true
         }
+        def extActivated = false
         def extUnactivatedSvc = Mock(UnactivatedService) {
             serviceId() >> 'extSvc'
             isExternalService() >> true
             dependency() >> extDependency
-            isActivated() >>> [false, false, false, true]
+            isActivated() >> { extActivated }
+            activate(_ as ServiceHolder) >> { extActivated = true }
             equals(_) >> true
             holder() >> Mock(ServiceHolder) {
                 hasMonitor() >> false
@@ -254,8 +263,8 @@ class ServiceActivatorTest extends Specification {
         def extSvcLoader = new IExternalServiceLoader() {
             def unlocked = false
             public ServiceHolder loadService(Dependency dep) {
-                if (! unlocked) {
-                    synchronized (lock) {
+                synchronized (lock) {
+                    while (! unlocked) {
                         lock.wait()
                     }
                 }
@@ -266,29 +275,412 @@ class ServiceActivatorTest extends Specification {
 
         when:
         def result = null
-        new Thread(new Runnable() {
+        def thread = new Thread(new Runnable() {
             @Override
             void run() {
                 result = svcActivator.activateService(svcHolder)
             }
-        }).start()
+        })
         def result2 = null
-        new Thread(new Runnable() {
+        def thread2 = new Thread(new Runnable() {
             @Override
             void run() {
                 result2 = svcActivator.activateService(svcHolder2)
             }
-        }).start()
+        })
+        thread.start()
+        thread2.start()
         Thread.sleep(500)
-        extSvcLoader.unlocked = true
         synchronized (lock) {
+            extSvcLoader.unlocked = true
             lock.notifyAll()
         }
-        Thread.sleep(500)
+        thread.join(2000)
+        thread2.join(2000)
 
         then:
         noExceptionThrown()
         result == svc
         result2 == svc2
     }
+
+    def 'Test activate shared service concurrently'() {
+        given:
+        def lock = new Object()
+        def unlocked = false
+        def activated = false
+        def sharedHolder = Mock(ServiceHolder) {
+            isActivated() >> { activated }
+            getUnactivatedServices() >> []
+        }
+        def svc = Mock(Object)
+        def svcHolder = Mock(ServiceHolder) {
+            getService() >> svc
+            isActivated() >>> [false, false, true]
+            getUnactivatedServices() >> [new UnactivatedService(Mock(Dependency), sharedHolder)]
+        }
+        def svc2 = Mock(Object)
+        def svcHolder2 = Mock(ServiceHolder) {
+            getService() >> svc2
+            isActivated() >>> [false, false, true]
+            getUnactivatedServices() >> [new UnactivatedService(Mock(Dependency), sharedHolder)]
+        }
+        def svcActivator = new ServiceActivator(Mock(IExternalServiceLoader))
+
+        when:
+        def result = null
+        def thread = new Thread(new Runnable() {
+            @Override
+            void run() {
+                result = svcActivator.activateService(svcHolder)
+            }
+        })
+        def result2 = null
+        def thread2 = new Thread(new Runnable() {
+            @Override
+            void run() {
+                result2 = svcActivator.activateService(svcHolder2)
+            }
+        })
+        thread.start()
+        thread2.start()
+        Thread.sleep(500)
+        synchronized (lock) {
+            unlocked = true
+            lock.notifyAll()
+        }
+        thread.join(2000)
+        thread2.join(2000)
+
+        then:
+        1 * sharedHolder.activate() >> {
+            synchronized (lock) {
+                while (! unlocked) {
+                    lock.wait()
+                }
+            }
+            activated = true
+        }
+        result == svc
+        result2 == svc2
+    }
+
+    def 'Test activate service again after activation failed'() {
+        given:
+        def svc = Mock(Object)
+        def activated = false
+        def activatedCount = 0
+        def svcHolder = Mock(ServiceHolder) {
+            getService() >> svc
+            isActivated() >> { activated }
+            getUnactivatedServices() >> []
+            activate() >> {
+                if (activatedCount++ == 0) {
+                    throw new IllegalStateException()
+                }
+                activated = true
+            }
+        }
+        def svcActivator = new ServiceActivator(Mock(IExternalServiceLoader))
+
+        when:
+        svcActivator.activateService(svcHolder)
+
+        then:
+        thrown(Exception)
+        svcActivator._activations.size() == 0
+
+        when:
+        def result = svcActivator.activateService(svcHolder)
+
+        then:
+        result == svc
+        activatedCount == 2
+        svcActivator._activations.size() == 1
+
+        when:
+        svcActivator.deactivateService(svcHolder, null)
+
+        then:
+        svcActivator._activations.size() == 0
+    }
+
+    def 'Test activate service in parallel mode'() {
+        given:
+        def svc = Mock(Object)
+        def sharedHolder = Mock(ServiceHolder) {
+            isActivated() >>> [false, true]
+            getUnactivatedServices() >> []
+        }
+        def depHolder1 = Mock(ServiceHolder) {
+            isActivated() >>> [false, true]
+            getUnactivatedServices() >> [new UnactivatedService(Mock(Dependency), sharedHolder)]
+        }
+        def depHolder2 = Mock(ServiceHolder) {
+            isActivated() >>> [false, true]
+            getUnactivatedServices() >> [new UnactivatedService(Mock(Dependency), sharedHolder)]
+        }
+        def svcHolder = Mock(ServiceHolder) {
+            isActivated() >>> [false, false, true]
+            getService() >> svc
+            getUnactivatedServices() >> [
+                    new UnactivatedService(Mock(Dependency), depHolder1),
+                    new UnactivatedService(Mock(Dependency), depHolder2)
+            ]
+        }
+        def svcActivator = new ServiceActivator(Mock(IExternalServiceLoader))
+        svcActivator.enableParallelActivation(2)
+
+        when:
+        def result = svcActivator.activateService(svcHolder)
+
+        then:
+        noExceptionThrown()
+        svcActivator.isParallelActivation()
+        result == svc
+        1 * sharedHolder.activate()
+        1 * depHolder1.activate()
+        1 * depHolder2.activate()
+        1 * svcHolder.activate()
+    }
+
+    def 'Test replace owned parallel executor'() {
+        given:
+        def svcActivator = new ServiceActivator(Mock(IExternalServiceLoader))
+        def external = Mock(ExecutorService)
+
+        when:
+        svcActivator.enableParallelActivation(2)
+        def owned = svcActivator._ownedParallelExecutor
+        svcActivator.enableParallelActivation(2)
+
+        then:
+        owned.isShutdown()
+        ! svcActivator._ownedParallelExecutor.isShutdown()
+
+        when:
+        owned = svcActivator._ownedParallelExecutor
+        svcActivator.enableParallelActivation(external)
+
+        then:
+        owned.isShutdown()
+        svcActivator.isParallelActivation()
+        svcActivator._ownedParallelExecutor == null
+
+        when:
+        svcActivator.close()
+
+        then:
+        0 * external.shutdown()
+        ! svcActivator.isParallelActivation()
+    }
+
+    def 'Test activate cycle dependent service in parallel mode'() {
+        given:
+        def svcHolder1 = Mock(ServiceHolder)
+        def svcHolder2 = Mock(ServiceHolder) {
+            isActivated() >> false
+            getId() >> '2'
+            getUnactivatedServices() >> [new UnactivatedService(Mock(Dependency), svcHolder1)]
+        }
+        svcHolder1.isActivated() >> false
+        svcHolder1.getId() >> '1'
+        svcHolder1.getUnactivatedServices() >> [new UnactivatedService(Mock(Dependency), svcHolder2)]
+        def svcActivator = new ServiceActivator(Mock(IExternalServiceLoader))
+        svcActivator.enableParallelActivation(2)
+
+        when:
+        svcActivator.activateService(svcHolder1)
+
+        then:
+        ServiceException ex = thrown()
+        ex.errorCode() == ServiceErrors.FOUND_CYCLE_DEPENDENCY
+        0 * svcHolder1.activate()
+        0 * svcHolder2.activate()
+    }
+
+    def 'Test activate service by activation executor'() {
+        given:
+        def svc = Mock(Object)
+        def svcHolder = Mock(ServiceHolder) {
+            getId() >> 'svc'
+            isActivated() >>> [false, true]
+            getService() >> svc
+            getUnactivatedServices() >> []
+        }
+        def executed = 0
+        def executor = { Runnable task -> executed++; task.run() } as Executor
+        def actExecutor = Mock(IActivationExecutor) {
+            executor() >> executor
+        }
+        def svcActivator = new ServiceActivator(Mock(IExternalServiceLoader), { actExecutor })
+
+        when:
+        def result = svcActivator.activateService(svcHolder)
+
+        then:
+        noExceptionThrown()
+        result == svc
+        executed == 1
+        1 * actExecutor.activationTimeout('svc') >> IntervalTime.parse('1s')
+    }
+
+    def 'Test activate service which is timed out by activation executor'() {
+        given:
+        def svcHolder = Mock(ServiceHolder) {
+            getId() >> 'svc'
+            getQualifiedId() >> Mock(QualifiedServiceId)
+            isActivated() >> false
+            getUnactivatedServices() >> []
+        }
+        def actExecutor = Mock(IActivationExecutor) {
+            executor() >> { Runnable task -> } as Executor
+            activationTimeout('svc') >> IntervalTime.parse('100ms')
+        }
+        def svcActivator = new ServiceActivator(Mock(IExternalServiceLoader), { actExecutor })
+
+        when:
+        svcActivator.activateService(svcHolder)
+
+        then:
+        ServiceException ex = thrown()
+        ex.errorCode() == ServiceErrors.SERVICE_ACTIVE_TASK_TIMED_OUT
+    }
+
+    def 'Test activation timeout is applied when activation executor is busy'() {
+        given:
+        def svcHolder = Mock(ServiceHolder) {
+            getId() >> 'svc'
+            isActivated() >> false
+            getUnactivatedServices() >> []
+        }
+        def executor = ActivationExecutors.newPlatformExecutor('test', 1)
+        def blocker = new CountDownLatch(1)
+        executor.submit({ blocker.await() } as Runnable)
+        def actExecutor = Mock(IActivationExecutor) {
+            executor() >> executor
+        }
+        def svcActivator = new ServiceActivator(Mock(IExternalServiceLoader), { actExecutor })
+
+        when:
+        svcActivator.activateService(svcHolder, IntervalTime.parse('100ms'))
+
+        then:
+        ServiceException ex = thrown()
+        ex.errorCode() == ServiceErrors.SERVICE_ACTIVE_TASK_TIMED_OUT
+        0 * svcHolder.activate()
+
+        cleanup:
+        blocker.countDown()
+        executor.shutdown()
+    }
+
+    def 'Test deactivate service by activation executor'() {
+        given:
+        def svcHolder = Mock(ServiceHolder) {
+            getId() >> 'svc'
+            isDeactivated() >> false
+        }
+        def executed = 0
+        def executor = { Runnable task -> executed++; task.run() } as Executor
+        def actExecutor = Mock(IActivationExecutor) {
+            executor() >> executor
+        }
+        def svcActivator = new ServiceActivator(Mock(IExternalServiceLoader), { actExecutor })
+
+        when:
+        svcActivator.deactivateService(svcHolder)
+
+        then:
+        noExceptionThrown()
+        executed == 1
+        1 * actExecutor.deactivationTimeout('svc') >> null
+        1 * svcHolder.deactivate()
+    }
+
+    def 'Test deactivate services in reverse dependency order'() {
+        given:
+        def deactivated = Collections.synchronizedList([])
+        def depHolder = Mock(ServiceHolder) {
+            getId() >> 'dep'
+            isDeactivated() >> false
+            dependencyHolders() >> []
+            deactivate() >> { deactivated << 'dep' }
+        }
+        def svcHolder1 = Mock(ServiceHolder) {
+            getId() >> 'svc1'
+            isDeactivated() >> false
+            dependencyHolders() >> [depHolder]
+            deactivate() >> { Thread.sleep(50); deactivated << 'svc1' }
+        }
+        def svcHolder2 = Mock(ServiceHolder) {
+            getId() >> 'svc2'
+            isDeactivated() >> false
+            dependencyHolders() >> [depHolder]
+            deactivate() >> { deactivated << 'svc2' }
+        }
+        def svcActivator = new ServiceActivator(Mock(IExternalServiceLoader))
+
+        when:
+        def report = svcActivator.deactivateServices([depHolder, svcHolder1, svcHolder2], IntervalTime.parse('5s'))
+
+        then:
+        noExceptionThrown()
+        report.isCompleted()
+        report.deactivated() == ['dep', 'svc1', 'svc2']
+        deactivated.size() == 3
+        deactivated[2] == 'dep'
+    }
+
+    def 'Test deactivate services which are failed'() {
+        given:
+        def depHolder = Mock(ServiceHolder) {
+            getId() >> 'dep'
+            isDeactivated() >> false
+            dependencyHolders() >> []
+        }
+        def svcHolder = Mock(ServiceHolder) {
+            getId() >> 'svc'
+            isDeactivated() >> false
+            dependencyHolders() >> [depHolder]
+            deactivate() >> { throw new IllegalStateException() }
+        }
+        def svcActivator = new ServiceActivator(Mock(IExternalServiceLoader))
+
+        when:
+        def report = svcActivator.deactivateServices([svcHolder, depHolder], null)
+
+        then:
+        noExceptionThrown()
+        ! report.isCompleted()
+        report.deactivated() == ['dep']
+        report.failed().keySet() == ['svc'] as Set
+        report.failed()['svc'] instanceof IllegalStateException
+    }
+
+    def 'Test deactivate services which missed the deadline'() {
+        given:
+        def depHolder = Mock(ServiceHolder) {
+            getId() >> 'dep'
+            isDeactivated() >> false
+            dependencyHolders() >> []
+        }
+        def svcHolder = Mock(ServiceHolder) {
+            getId() >> 'svc'
+            isDeactivated() >> false
+            dependencyHolders() >> [depHolder]
+            deactivate() >> { Thread.sleep(500) }
+        }
+        def svcActivator = new ServiceActivator(Mock(IExternalServiceLoader))
+
+        when:
+        def report = svcActivator.deactivateServices([svcHolder, depHolder], IntervalTime.parse('100ms'))
+        Thread.sleep(600)
+
+        then:
+        noExceptionThrown()
+        ! report.isCompleted()
+        report.missed() == ['svc', 'dep']
+        0 * depHolder.deactivate()
+    }
 }
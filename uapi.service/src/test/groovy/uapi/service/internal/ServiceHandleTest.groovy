@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.service.internal
+
+import spock.lang.Specification
+import uapi.service.ServiceException
+
+import java.util.function.Function
+
+/**
+ * Unit tests for ServiceHandle
+ */
+class ServiceHandleTest extends Specification {
+
+    def 'Test resolve service once'() {
+        given:
+        def svc = Mock(Object)
+        def resolver = Mock(Function)
+        def handle = new ServiceHandle('1', resolver)
+
+        when:
+        def svc1 = handle.get()
+        def svc2 = handle.get()
+
+        then:
+        1 * resolver.apply('1') >> svc
+        svc1 == svc
+        svc2 == svc
+        handle.isResolved()
+        handle.serviceId() == '1'
+    }
+
+    def 'Test resolve service after invalidate'() {
+        given:
+        def svc = Mock(Object)
+        def resolver = Mock(Function)
+        def handle = new ServiceHandle('1', resolver)
+
+        when:
+        handle.get()
+        handle.invalidate()
+
+        then:
+        1 * resolver.apply('1') >> svc
+        ! handle.isResolved()
+
+        when:
+        handle.get()
+
+        then:
+        1 * resolver.apply('1') >> svc
+        handle.isResolved()
+    }
+
+    def 'Test resolve service failed'() {
+        given:
+        def resolver = Mock(Function) {
+            apply('1') >> { throw Mock(ServiceException) }
+        }
+        def handle = new ServiceHandle('1', resolver)
+
+        when:
+        handle.get()
+
+        then:
+        thrown(ServiceException)
+        ! handle.isResolved()
+    }
+}
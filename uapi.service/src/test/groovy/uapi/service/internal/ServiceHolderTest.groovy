@@ -12,6 +12,9 @@ import uapi.service.Injection
 import uapi.service.QualifiedServiceId
 import uapi.service.ServiceException
 
+import java.lang.reflect.Modifier
+import java.util.function.Supplier
+
 /**
  * Unit tests for ServiceHolder
  */
@@ -57,6 +60,32 @@ class ServiceHolderTest extends Specification {
         'local' | Mock(Object)  | 'svcId'   | Mock(ISatisfyHook)
     }
 
+    def 'Test create lazy instance'() {
+        given:
+        def service = Mock(Object)
+        def createdCount = 0
+        def svcFactory = { createdCount++; return service } as Supplier
+
+        when:
+        def svcHolder = new ServiceHolder('local', svcFactory, 'svcId', new Dependency[0], ['tag'] as String[], Mock(ISatisfyHook))
+
+        then:
+        noExceptionThrown()
+        svcHolder.id == 'svcId'
+        svcHolder.serviceTags() == ['tag'] as String[]
+        ! svcHolder.isInstantiated()
+        createdCount == 0
+
+        when:
+        def svc = svcHolder.getService()
+        svcHolder.getService()
+
+        then:
+        svc == service
+        svcHolder.isInstantiated()
+        createdCount == 1
+    }
+
     def 'Test set dependency which is not its dependency'() {
         given:
         def dependency = Mock(Dependency) {
@@ -1088,6 +1117,37 @@ class ServiceHolderTest extends Specification {
         'local' | 'svcId'   | new Object()
     }
 
+    def 'Test activate service again after activation failed'() {
+        given:
+        def activatedCount = 0
+        def svc = Mock(IInjectableInitableLifecycle) {
+            onActivate() >> {
+                if (activatedCount++ == 0) {
+                    throw new IllegalStateException()
+                }
+            }
+        }
+        def satisfyHook  = Mock(ISatisfyHook) {
+            isSatisfied(_) >> true
+        }
+        def svcHolder = new ServiceHolder('local', svc, 'svcId', [] as Dependency[], satisfyHook)
+
+        when:
+        svcHolder.activate()
+
+        then:
+        thrown(IllegalStateException)
+        ! svcHolder.isActivated()
+
+        when:
+        svcHolder.activate()
+
+        then:
+        noExceptionThrown()
+        activatedCount == 2
+        svcHolder.isActivated()
+    }
+
     def 'Test deactivate service which is not activated'() {
         given:
         def svc = Mock(IInjectableInitableLifecycle)
@@ -1156,6 +1216,120 @@ class ServiceHolderTest extends Specification {
         'local' | 'svcId'
     }
 
+    def 'Test set dependency which is registered under more ids'() {
+        given:
+        def dependency = new Dependency('b@Local', String.class)
+        def svc = Mock(IInjectable)
+        def satisfyHook = Mock(ISatisfyHook) {
+            isSatisfied(_) >> true
+        }
+        def svcHolder = new ServiceHolder('Local', svc, 'svcId', [dependency] as Dependency[], satisfyHook)
+        def depSvc = new Object()
+        def depSvcHolder = new ServiceHolder('Local', depSvc, ['a', 'b'] as String[], [] as Dependency[], satisfyHook)
+        depSvcHolder.activate()
+
+        when:
+        svcHolder.setDependency(depSvcHolder, Mock(ServiceActivator))
+        svcHolder.activate()
+
+        then:
+        noExceptionThrown()
+        1 * svc.injectObject({ it.id == 'b' && it.object == depSvc })
+        svcHolder.isActivated()
+        svcHolder.dependencyHolders() == [depSvcHolder]
+    }
+
+    def 'Test compact holder footprint'() {
+        given:
+        def satisfyHook = Mock(ISatisfyHook) {
+            isSatisfied(_) >> true
+        }
+        def dependencies = (1..4).collect { new Dependency("dep${it}@Local", String.class) } as Dependency[]
+        def depSvcHolders = (1..4).collect {
+            def holder = new ServiceHolder('Local', new Object(), "dep${it}".toString(), satisfyHook)
+            holder.activate()
+            return holder
+        }
+        def svc = Mock(IInjectable)
+        def svcHolder = new ServiceHolder('Local', svc, ['a', 'b', 'c'] as String[], dependencies, satisfyHook)
+        depSvcHolders.each { svcHolder.setDependency(it, Mock(ServiceActivator)) }
+        svcHolder.activate()
+
+        when:
+        def footprint = footprintOf(svcHolder, [svc, satisfyHook] + (dependencies as List))
+
+        then:
+        svcHolder.isActivated()
+        svcHolder.serviceIds() == ['a', 'b', 'c'] as String[]
+        // One holder serves 3 ids and 4 injected dependencies
+        footprint > 0
+        footprint <= 320
+    }
+
+    /**
+     * Estimate the bytes which are owned by the holder by walking its object graph, compressed references and
+     * 8 bytes alignment are assumed.
+     * The shared objects, strings and other holders are not owned by the holder.
+     */
+    private static long footprintOf(Object root, List shared) {
+        def visited = Collections.newSetFromMap(new IdentityHashMap())
+        def pending = new LinkedList([root])
+        long total = 0
+        while (pending.size() > 0) {
+            def obj = pending.removeFirst()
+            if (obj == null || visited.contains(obj) || shared.any { it.is(obj) }) {
+                continue
+            }
+            if (obj instanceof CharSequence || obj instanceof Class || obj instanceof Number
+                    || (obj instanceof ServiceHolder && ! obj.is(root))) {
+                continue
+            }
+            visited.add(obj)
+            def type = obj.getClass()
+            if (type.isArray()) {
+                def length = java.lang.reflect.Array.getLength(obj)
+                def elementSize = type.componentType == long.class || type.componentType == double.class ? 8 :
+                        type.componentType == byte.class || type.componentType == boolean.class ? 1 :
+                        type.componentType == char.class || type.componentType == short.class ? 2 : 4
+                total += align(16 + length * elementSize)
+                if (! type.componentType.isPrimitive()) {
+                    (0..<length).each { pending.add(java.lang.reflect.Array.get(obj, it)) }
+                }
+                continue
+            }
+            if (type.name.startsWith('java.')) {
+                continue
+            }
+            long size = 12
+            for (def current = type; current != Object.class; current = current.superclass) {
+                for (def field : current.declaredFields) {
+                    if (Modifier.isStatic(field.modifiers)) {
+                        continue
+                    }
+                    if (field.type == long.class || field.type == double.class) {
+                        size += 8
+                    } else if (field.type == byte.class || field.type == boolean.class) {
+                        size += 1
+                    } else if (field.type == char.class || field.type == short.class) {
+                        size += 2
+                    } else {
+                        size += 4
+                    }
+                    if (! field.type.isPrimitive()) {
+                        field.setAccessible(true)
+                        pending.add(field.get(obj))
+                    }
+                }
+            }
+            total += align(size)
+        }
+        return total
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L
+    }
+
     interface IInjectableInitable extends IInjectable {}
 
     interface IInjectableInitableLifecycle extends IInjectable, IServiceLifecycle {}
@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.service.internal
+
+import spock.lang.Specification
+import uapi.service.Dependency
+import uapi.service.QualifiedServiceId
+
+/**
+ * Unit tests for ServiceIndex
+ */
+class ServiceIndexTest extends Specification {
+
+    def 'Test empty index'() {
+        when:
+        def index = new ServiceIndex()
+
+        then:
+        index.size() == 0
+        index.byId('1').size() == 0
+        index.byTag('tag').size() == 0
+    }
+
+    def 'Test add service holder'() {
+        given:
+        def holder = Mock(ServiceHolder) {
+            getId() >> '1'
+            getFrom() >> 'Local'
+            serviceTags() >> (['tag1', 'tag2'] as String[])
+        }
+
+        def index = new ServiceIndex()
+
+        when:
+        index.add(holder)
+
+        then:
+        index.size() == 1
+        index.byId('1') == [holder]
+        index.byTag('tag1') == [holder]
+        index.byTag('tag2') == [holder]
+    }
+
+    def 'Test add multiple service holders keep register order'() {
+        given:
+        def holder1 = Mock(ServiceHolder) {
+            getId() >> '1'
+            getFrom() >> 'Local'
+            serviceTags() >> new String[0]
+        }
+        def holder2 = Mock(ServiceHolder) {
+            getId() >> '1'
+            getFrom() >> 'Remote'
+            serviceTags() >> null
+        }
+
+        def index = new ServiceIndex()
+
+        when:
+        index.add(holder1)
+        index.add([holder2])
+
+        then:
+        index.size() == 2
+        index.byId('1') == [holder1, holder2]
+        index.holders().toList() == [holder1, holder2]
+    }
+
+    def 'Test remove service holder'() {
+        given:
+        def holder1 = Mock(ServiceHolder) {
+            getId() >> '1'
+            getFrom() >> 'Local'
+            serviceTags() >> (['tag'] as String[])
+        }
+        def holder2 = Mock(ServiceHolder) {
+            getId() >> '2'
+            getFrom() >> 'Local'
+            serviceTags() >> (['tag'] as String[])
+        }
+        def index = new ServiceIndex()
+        index.add([holder1, holder2])
+        def bucket = index.byId('2')
+
+        when:
+        def removed = index.remove(holder1)
+
+        then:
+        removed
+        index.size() == 1
+        index.byId('1').size() == 0
+        index.byTag('tag') == [holder2]
+        index.holders().toList() == [holder2]
+        // The untouched bucket is shared
+        index.byId('2').is(bucket)
+    }
+
+    def 'Test holders keep register order'() {
+        given:
+        def holders = (0..<20).collect { idx ->
+            Mock(ServiceHolder) {
+                getId() >> "${idx % 3}".toString()
+                getFrom() >> 'Local'
+            }
+        }
+        def index = new ServiceIndex()
+
+        when:
+        holders.each { index.add(it) }
+        index.remove(holders[5])
+
+        then:
+        index.holders().toList() == holders - [holders[5]]
+        index.size() == 19
+    }
+
+    def 'Test appended bucket does not change earlier bucket'() {
+        given:
+        def holders = (0..<8).collect { idx ->
+            Mock(ServiceHolder) {
+                getId() >> '1'
+                getFrom() >> 'Local'
+            }
+        }
+        def index = new ServiceIndex()
+
+        when:
+        holders[0..4].each { index.add(it) }
+        def bucket = index.byId('1')
+        holders[5..7].each { index.add(it) }
+
+        then:
+        bucket == holders[0..4]
+        index.byId('1') == holders
+        // The bucket shares its slots with the earlier bucket
+        index.byId('1')._slots.is(bucket._slots)
+
+        when:
+        index.remove(holders[7])
+        index.add(holders[7])
+
+        then:
+        bucket == holders[0..4]
+        index.byId('1') == holders
+    }
+
+    def 'Test add service holders in batch'() {
+        given:
+        def holders = (0..<10).collect { idx ->
+            Mock(ServiceHolder) {
+                getId() >> "${idx % 2}".toString()
+                getFrom() >> 'Local'
+                serviceTags() >> (['tag'] as String[])
+            }
+        }
+        def index = new ServiceIndex()
+        index.add(holders[0])
+
+        when:
+        index.add(holders[1..9])
+
+        then:
+        index.size() == 10
+        index.byId('0') == holders.findAll { holders.indexOf(it) % 2 == 0 }
+        index.byId('1') == holders.findAll { holders.indexOf(it) % 2 == 1 }
+        index.byTag('tag') == holders
+        index.holders().toList() == holders
+    }
+
+    def 'Test add and remove service holder which has more ids'() {
+        given:
+        def holder = Mock(ServiceHolder) {
+            getId() >> '1'
+            serviceIds() >> (['1', '2'] as String[])
+            getFrom() >> 'Local'
+            serviceTags() >> (['tag'] as String[])
+        }
+
+        def index = new ServiceIndex()
+
+        when:
+        index.add(holder)
+
+        then:
+        index.size() == 2
+        index.byId('1') == [holder]
+        index.byId('2') == [holder]
+        index.byTag('tag') == [holder]
+        index.holders().toList() == [holder]
+
+        when:
+        index.remove(holder)
+
+        then:
+        index.size() == 0
+        index.holders().toList() == []
+        index.byId('1').size() == 0
+        index.byId('2').size() == 0
+    }
+
+    def 'Test remove absent service holder'() {
+        given:
+        def holder = Mock(ServiceHolder) {
+            getId() >> '1'
+            getFrom() >> 'Local'
+        }
+        def index = new ServiceIndex()
+
+        expect:
+        ! index.remove(holder)
+        index.size() == 0
+    }
+
+    def 'Test find providers of service holder'() {
+        given:
+        def provider1 = Mock(ServiceHolder) {
+            getId() >> 'a'
+            getFrom() >> 'Local'
+            getQualifiedId() >> new QualifiedServiceId('a', 'Local')
+        }
+        def provider2 = Mock(ServiceHolder) {
+            getId() >> 'a'
+            getFrom() >> 'Remote'
+            getQualifiedId() >> new QualifiedServiceId('a', 'Remote')
+        }
+        def other = Mock(ServiceHolder) {
+            getId() >> 'b'
+            getFrom() >> 'Local'
+            getQualifiedId() >> new QualifiedServiceId('b', 'Local')
+        }
+        def holder = Mock(ServiceHolder) {
+            dependencies() >> [new Dependency('a@' + from, String.class)]
+        }
+        def index = new ServiceIndex()
+        index.add([provider1, provider2, other])
+
+        expect:
+        index.providersOf(holder).size() == count
+
+        where:
+        from        | count
+        'Local'     | 1
+        'Remote'    | 1
+        'Any'       | 2
+        'Other'     | 0
+    }
+
+    def 'Test find dependents of qualified service id'() {
+        given:
+        def localDependent = Mock(ServiceHolder) {
+            getId() >> '1'
+            getFrom() >> 'Local'
+            dependencies() >> [new Dependency('a@Local', String.class)]
+        }
+        def anyDependent = Mock(ServiceHolder) {
+            getId() >> '2'
+            getFrom() >> 'Local'
+            dependencies() >> [new Dependency('a@Any', String.class)]
+        }
+        def index = new ServiceIndex()
+        index.add([localDependent, anyDependent])
+
+        expect:
+        index.dependentsOf(new QualifiedServiceId('a', 'Local')) == [localDependent, anyDependent]
+        index.dependentsOf(new QualifiedServiceId('a', 'Remote')) == [anyDependent]
+        index.dependentsOf(new QualifiedServiceId('b', 'Local')) == []
+        index.remove(anyDependent)
+        index.dependentsOf(new QualifiedServiceId('a', 'Remote')) == []
+    }
+}
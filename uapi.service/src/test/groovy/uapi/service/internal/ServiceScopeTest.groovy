@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2019. The UAPI Authors
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at the LICENSE file.
+ *
+ * You must gained the permission from the authors if you want to
+ * use the project into a commercial product.
+ */
+
+package uapi.service.internal
+
+import spock.lang.Specification
+import uapi.GeneralException
+import uapi.log.ILogger
+import uapi.service.Dependency
+import uapi.service.IInjectable
+import uapi.service.IInstance
+import uapi.service.IPrototype
+import uapi.service.IService
+import uapi.service.IServiceLifecycle
+import uapi.service.IServiceLoader
+import uapi.service.Injection
+import uapi.service.ServiceErrors
+import uapi.service.ServiceException
+
+/**
+ * Unit tests for ServiceScope
+ */
+class ServiceScopeTest extends Specification {
+
+    Registry registry
+
+    def setup() {
+        registry = new Registry()
+        registry._logger = Mock(ILogger)
+    }
+
+    def 'Test create scoped instance'() {
+        given:
+        def dep = Mock(IService) {
+            getIds() >> ['dep']
+        }
+        def instance = Mock(IScopedInstance) {
+            getIds() >> ['proto_1']
+            getDependencies() >> [new Dependency('dep@Local', Object.class, true, false)]
+        }
+        def prototype = Mock(IPrototype) {
+            getIds() >> ['proto']
+            1 * newInstance([a: '1']) >> instance
+        }
+        registry.register(dep)
+        registry.register(prototype)
+        def scope = registry.openScope()
+
+        when:
+        def found = scope.findService('proto', [a: '1'])
+
+        then:
+        found == instance
+        1 * instance.injectObject({ it.getId() == 'dep' && it.getObject() == dep })
+        1 * instance.onActivate()
+        scope.size() == 1
+        registry.getCount() == 2
+
+        when:
+        def found2 = scope.findService('proto', [a: '1'])
+
+        then:
+        found2 == instance
+        0 * instance.injectObject(_)
+        scope.size() == 1
+    }
+
+    def 'Test create scoped instance which depends on external service'() {
+        given:
+        def extSvc = new Object()
+        def svcLoader = new IServiceLoader() {
+            public String getId() { return 'Ext' }
+            public int getPriority() { return 1 }
+            public <Object> Object load(String serviceId, Class<?> serviceType) { return extSvc }
+            public void register(IServiceLoader.IServiceReadyListener listener) {}
+        }
+        registry.injectObject(new Injection(IServiceLoader.name, svcLoader))
+        def instance = Mock(IScopedInstance) {
+            getIds() >> ['proto_1']
+            getDependencies() >> [new Dependency('ext@Ext', Object.class, true, false)]
+        }
+        def prototype = Mock(IPrototype) {
+            getIds() >> ['proto']
+            1 * newInstance([a: '1']) >> instance
+        }
+        registry.register(prototype)
+        def scope = registry.openScope()
+
+        when:
+        def found = scope.findService('proto', [a: '1'])
+
+        then:
+        noExceptionThrown()
+        found == instance
+        1 * instance.injectObject({ it.getId() == 'ext' && it.getObject() == extSvc })
+        1 * instance.onActivate()
+        registry.findService('ext', 'Ext') == extSvc
+    }
+
+    def 'Test reuse scope template'() {
+        given:
+        def dep = Mock(IService) {
+            getIds() >> ['dep']
+        }
+        def prototype = Mock(IPrototype) {
+            getIds() >> ['proto']
+            newInstance(_ as Map) >> {
+                Mock(IScopedInstance) {
+                    getDependencies() >> [new Dependency('dep@Local', Object.class, true, false)]
+                }
+            }
+        }
+        registry.register(dep)
+        registry.register(prototype)
+        def prototypeHolder = registry._svcIndex.byId('proto')[0]
+        def scope = registry.openScope()
+
+        when:
+        scope.findService('proto', [a: '1'])
+        def template = prototypeHolder.scopeTemplate()
+        scope.findService('proto', [a: '2'])
+
+        then:
+        template != null
+        template.size() == 1
+        prototypeHolder.scopeTemplate().is(template)
+        scope.size() == 2
+
+        when:
+        registry.register(Mock(IService) {
+            getIds() >> ['other']
+        })
+        scope.findService('proto', [a: '3'])
+
+        then:
+        ! prototypeHolder.scopeTemplate().is(template)
+    }
+
+    def 'Test rebuild scope template after provider is unregistered'() {
+        given:
+        def dep = Mock(IInstance) {
+            getIds() >> ['dep']
+            prototypeId() >> 'depProto'
+        }
+        def prototype = Mock(IPrototype) {
+            getIds() >> ['proto']
+            newInstance(_ as Map) >> {
+                Mock(IScopedInstance) {
+                    getDependencies() >> [new Dependency('dep@Local', Object.class, true, true)]
+                }
+            }
+        }
+        registry.register(dep)
+        registry.register(prototype)
+        def prototypeHolder = registry._svcIndex.byId('proto')[0]
+        def scope = registry.openScope()
+
+        when:
+        scope.findService('proto', [a: '1'])
+        def template = prototypeHolder.scopeTemplate()
+        def generation = registry._generation
+        registry.unregisterInstance(dep)
+        scope.findService('proto', [a: '2'])
+
+        then:
+        template.size() == 1
+        registry._generation > generation
+        ! prototypeHolder.scopeTemplate().is(template)
+        prototypeHolder.scopeTemplate().size() == 0
+    }
+
+    def 'Test rebuild scope template after provider is deactivated'() {
+        given:
+        def dep = Mock(IService) {
+            getIds() >> ['dep']
+        }
+        def prototype = Mock(IPrototype) {
+            getIds() >> ['proto']
+            newInstance(_ as Map) >> {
+                Mock(IScopedInstance) {
+                    getDependencies() >> [new Dependency('dep@Local', Object.class, true, false)]
+                }
+            }
+        }
+        registry.register(dep)
+        registry.register(prototype)
+        def prototypeHolder = registry._svcIndex.byId('proto')[0]
+        def scope = registry.openScope()
+
+        when:
+        scope.findService('proto', [a: '1'])
+        def template = prototypeHolder.scopeTemplate()
+        def generation = registry._generation
+        registry.deactivateServices(['dep'] as String[])
+        scope.findService('proto', [a: '2'])
+
+        then:
+        registry._generation > generation
+        ! prototypeHolder.scopeTemplate().is(template)
+        prototypeHolder.scopeTemplate().size() == 1
+    }
+
+    def 'Test close scope'() {
+        given:
+        def instance1 = Mock(IScopedInstance)
+        def instance2 = Mock(IScopedInstance)
+        def prototype = Mock(IPrototype) {
+            getIds() >> ['proto']
+            newInstance([a: '1']) >> instance1
+            newInstance([a: '2']) >> instance2
+        }
+        registry.register(prototype)
+        def scope = registry.openScope()
+        scope.findService('proto', [a: '1'])
+        scope.findService('proto', [a: '2'])
+
+        when:
+        scope.close()
+
+        then:
+        1 * instance2.onDeactivate()
+
+        then:
+        1 * instance1.onDeactivate()
+        scope.size() == 0
+
+        when:
+        scope.findService('proto', [a: '1'])
+
+        then:
+        def ex = thrown(ServiceException)
+        ex.errorCode() == ServiceErrors.SERVICE_SCOPE_IS_CLOSED
+    }
+
+    def 'Test close scope which has failed instance'() {
+        given:
+        def instance1 = Mock(IScopedInstance) {
+            1 * onDeactivate()
+        }
+        def instance2 = Mock(IScopedInstance) {
+            1 * onDeactivate() >> { throw new RuntimeException() }
+        }
+        def prototype = Mock(IPrototype) {
+            getIds() >> ['proto']
+            newInstance([a: '1']) >> instance1
+            newInstance([a: '2']) >> instance2
+        }
+        registry.register(prototype)
+        def scope = registry.openScope()
+        scope.findService('proto', [a: '1'])
+        scope.findService('proto', [a: '2'])
+
+        when:
+        scope.close()
+
+        then:
+        thrown(GeneralException)
+    }
+
+    def 'Test scoped instance depends on prototype'() {
+        given:
+        def instance = Mock(IScopedInstance) {
+            getDependencies() >> [new Dependency('proto2@Local', Object.class, true, false)]
+        }
+        registry.register(Mock(IPrototype) {
+            getIds() >> ['proto']
+            newInstance(_ as Map) >> instance
+        })
+        registry.register(Mock(IPrototype) {
+            getIds() >> ['proto2']
+        })
+        def scope = registry.openScope()
+
+        when:
+        scope.findService('proto', [:])
+
+        then:
+        def ex = thrown(ServiceException)
+        ex.errorCode() == ServiceErrors.UNSUPPORTED_SCOPED_DEPENDENCY
+        scope.size() == 0
+    }
+
+    static interface IScopedInstance extends IInstance, IInjectable, IServiceLifecycle {}
+}